@@ -0,0 +1,325 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 并发查询压测：固定数量的客户端循环执行查询，同时轮询 GET /api/database/queries，
+ * 统计客户端在途请求数和服务端执行中查询数的峰值、各状态的数量和延迟分位数
+ * <p>
+ * {@code --mode rest}（默认）调用 POST /api/{profile}；{@code --mode mcp} 每个客户端建立一个SSE会话，
+ * 通过 /mcp/message 以JSON-RPC tools/call 调用sql执行器，响应从SSE流按请求id取回。
+ * <p>
+ * 单文件程序，不依赖项目代码：{@code java bench/ConcurrentQueryLoad.java --mode mcp --profile mysql --concurrency 1000}
+ */
+public class ConcurrentQueryLoad {
+
+    private static final Pattern RUNNING_QUERY = Pattern.compile("\"elapsedMillis\"");
+    private static final Pattern RPC_ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    /**
+     * 工具结果内容文本中的errorCode，引号被转义
+     */
+    private static final Pattern TOOL_ERROR_CODE = Pattern.compile("\\\\\"errorCode\\\\\":\\\\\"(\\w+)\\\\\"");
+    /**
+     * 工具名称“sql执行器”，用转义写出，避免平台默认编码不是UTF-8时源文件启动器读错
+     */
+    private static final String SQL_TOOL = "sql\u6267\u884c\u5668";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String baseUrl = options.getOrDefault("url", "http://localhost:8088");
+        String profile = options.getOrDefault("profile", "mysql");
+        String mode = options.getOrDefault("mode", "rest");
+        if (!mode.equals("rest") && !mode.equals("mcp")) {
+            throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1000"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int rampSeconds = Integer.parseInt(options.getOrDefault("ramp", "10"));
+        String sql = options.getOrDefault("sql", "SELECT SLEEP(1)");
+        long timeoutMillis = Long.parseLong(options.getOrDefault("timeout", "60000"));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newFixedThreadPool(16))
+                .build();
+        String body = "{\"sql\":" + json(sql) + "}";
+        HttpRequest query = HttpRequest.newBuilder(URI.create(baseUrl + "/api/" + profile))
+                .timeout(Duration.ofMillis(timeoutMillis))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpRequest running = HttpRequest.newBuilder(URI.create(baseUrl + "/api/database/queries"))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        AtomicInteger peakRunning = new AtomicInteger();
+        Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(rampSeconds + durationSeconds);
+
+        // 服务端执行中查询数：由查询取消服务登记的语句数
+        Thread sampler = new Thread(() -> {
+            while (System.nanoTime() < deadline) {
+                try {
+                    String json = client.send(running, HttpResponse.BodyHandlers.ofString()).body();
+                    Matcher matcher = RUNNING_QUERY.matcher(json);
+                    int count = 0;
+                    while (matcher.find()) {
+                        count++;
+                    }
+                    peakRunning.accumulateAndGet(count, Math::max);
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    return;
+                } catch (Exception e) {
+                    // 采样失败不影响压测
+                }
+            }
+        }, "running-query-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+
+        // 客户端线程按ramp时间均匀启动，避免连接池建立连接时的瞬时拥塞计入结果
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch finished = new CountDownLatch(concurrency);
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            long delayNanos = TimeUnit.SECONDS.toNanos(rampSeconds) * i / concurrency;
+            clients.execute(() -> {
+                McpSession session = null;
+                try {
+                    TimeUnit.NANOSECONDS.sleep(Math.max(0, start + delayNanos - System.nanoTime()));
+                    if (mode.equals("mcp")) {
+                        try {
+                            session = McpSession.open(client, baseUrl, timeoutMillis);
+                        } catch (Exception e) {
+                            statuses.computeIfAbsent("session:" + e.getClass().getSimpleName(), k -> new LongAdder()).increment();
+                            return;
+                        }
+                    }
+                    while (System.nanoTime() < deadline) {
+                        long sent = System.nanoTime();
+                        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        String status;
+                        try {
+                            status = session != null
+                                    ? session.callSql(sql, profile)
+                                    : String.valueOf(client.send(query, HttpResponse.BodyHandlers.discarding()).statusCode());
+                        } catch (InterruptedException e) {
+                            throw e;
+                        } catch (Exception e) {
+                            status = e.getClass().getSimpleName();
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                        statuses.computeIfAbsent(status, k -> new LongAdder()).increment();
+                        if ("200".equals(status)) {
+                            latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sent));
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    if (session != null) {
+                        session.close();
+                    }
+                    finished.countDown();
+                }
+            });
+        }
+        finished.await();
+        clients.shutdown();
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        long total = statuses.values().stream().mapToLong(LongAdder::sum).sum();
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.printf("mode=%s, concurrency=%d, duration=%ds (+%ds ramp), sql=%s%n", mode, concurrency, durationSeconds, rampSeconds, sql);
+        System.out.printf("requests=%d, throughput=%.1f req/s%n", total, total / elapsedSeconds);
+        System.out.printf("peak client in-flight=%d, peak server running queries=%d%n", peakInFlight.get(), peakRunning.get());
+        Map<String, Long> byStatus = new TreeMap<>();
+        statuses.forEach((status, count) -> byStatus.put(status, count.sum()));
+        System.out.println("status=" + byStatus);
+        if (!sorted.isEmpty()) {
+            System.out.printf("latency ms (200): p50=%d, p95=%d, p99=%d, max=%d%n",
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99), sorted.get(sorted.size() - 1));
+        }
+        System.exit(0);
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        return sorted.get(Math.min(sorted.size() - 1, (int) Math.ceil(p * sorted.size()) - 1));
+    }
+
+    private static String json(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * 一个MCP SSE会话：GET /sse 的事件流由独立线程读取，endpoint事件给出消息地址，
+     * message事件按JSON-RPC id交给等待中的调用；一个会话同一时间只有一个调用在途
+     */
+    private static final class McpSession {
+
+        private final HttpClient client;
+        private final long timeoutMillis;
+        private final Stream<String> events;
+        private final CompletableFuture<String> endpoint = new CompletableFuture<>();
+        private final Map<Integer, CompletableFuture<String>> pending = new ConcurrentHashMap<>();
+        private final AtomicInteger nextId = new AtomicInteger();
+        private URI messageUri;
+
+        private McpSession(HttpClient client, long timeoutMillis, Stream<String> events) {
+            this.client = client;
+            this.timeoutMillis = timeoutMillis;
+            this.events = events;
+        }
+
+        static McpSession open(HttpClient client, String baseUrl, long timeoutMillis) throws Exception {
+            HttpRequest sse = HttpRequest.newBuilder(URI.create(baseUrl + "/sse"))
+                    .header("Accept", "text/event-stream")
+                    .GET()
+                    .build();
+            HttpResponse<Stream<String>> response = client.send(sse, HttpResponse.BodyHandlers.ofLines());
+            if (response.statusCode() != 200) {
+                response.body().close();
+                throw new IllegalStateException("SSE status " + response.statusCode());
+            }
+            McpSession session = new McpSession(client, timeoutMillis, response.body());
+            Thread reader = new Thread(session::readEvents, "mcp-sse-reader");
+            reader.setDaemon(true);
+            reader.start();
+            session.messageUri = URI.create(baseUrl).resolve(session.endpoint.get(timeoutMillis, TimeUnit.MILLISECONDS));
+            String initialized = session.request("initialize", "{\"protocolVersion\":\"2024-11-05\",\"capabilities\":{},"
+                    + "\"clientInfo\":{\"name\":\"concurrent-query-load\",\"version\":\"1.0\"}}");
+            if (initialized.contains("\"error\"")) {
+                throw new IllegalStateException("initialize failed: " + initialized);
+            }
+            session.post("{\"jsonrpc\":\"2.0\",\"method\":\"notifications/initialized\"}");
+            return session;
+        }
+
+        /**
+         * 调用sql执行器，返回与REST模式可比的状态：查询成功为200，被准入控制或熔断拒绝时为rejected:错误代码，
+         * 其他失败为failed，JSON-RPC错误为rpc-error
+         */
+        String callSql(String sql, String profile) throws Exception {
+            String result = request("tools/call", "{\"name\":" + json(SQL_TOOL) + ",\"arguments\":{\"sql\":" + json(sql)
+                    + ",\"profile\":" + json(profile) + "}}");
+            if (result.startsWith("http-")) {
+                return result;
+            }
+            if (result.contains("\"error\"") && !result.contains("\"result\"")) {
+                return "rpc-error";
+            }
+            // 工具结果是内容文本中的JSON，引号被转义
+            if (result.contains("\\\"success\\\":true")) {
+                return "200";
+            }
+            Matcher errorCode = TOOL_ERROR_CODE.matcher(result);
+            return errorCode.find() ? "rejected:" + errorCode.group(1) : "failed";
+        }
+
+        private String request(String method, String params) throws Exception {
+            int id = nextId.getAndIncrement();
+            CompletableFuture<String> future = new CompletableFuture<>();
+            pending.put(id, future);
+            try {
+                int status = post("{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"method\":\"" + method + "\",\"params\":" + params + "}");
+                if (status != 200) {
+                    return "http-" + status;
+                }
+                return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } finally {
+                pending.remove(id);
+            }
+        }
+
+        private int post(String body) throws Exception {
+            HttpRequest request = HttpRequest.newBuilder(messageUri)
+                    .timeout(Duration.ofMillis(timeoutMillis))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+
+        private void readEvents() {
+            String event = "message";
+            StringBuilder data = new StringBuilder();
+            try {
+                Iterator<String> lines = events.iterator();
+                while (lines.hasNext()) {
+                    String line = lines.next();
+                    if (line.isEmpty()) {
+                        dispatch(event, data.toString());
+                        event = "message";
+                        data.setLength(0);
+                    } else if (line.startsWith("event:")) {
+                        event = line.substring(6).trim();
+                    } else if (line.startsWith("data:")) {
+                        if (data.length() > 0) {
+                            data.append('\n');
+                        }
+                        data.append(line.substring(5).trim());
+                    }
+                }
+            } catch (RuntimeException e) {
+                // 会话关闭或连接断开，等待中的调用按超时处理
+            }
+            endpoint.completeExceptionally(new IllegalStateException("SSE stream closed"));
+        }
+
+        private void dispatch(String event, String data) {
+            if (event.equals("endpoint")) {
+                endpoint.complete(data);
+                return;
+            }
+            Matcher matcher = RPC_ID.matcher(data);
+            if (matcher.find()) {
+                CompletableFuture<String> future = pending.get(Integer.parseInt(matcher.group(1)));
+                if (future != null) {
+                    future.complete(data);
+                }
+            }
+        }
+
+        void close() {
+            events.close();
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new TreeMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+}
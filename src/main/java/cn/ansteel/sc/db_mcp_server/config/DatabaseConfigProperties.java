@@ -2,6 +2,8 @@ package cn.ansteel.sc.db_mcp_server.config;
 
 import lombok.Data;
 
+import java.util.List;
+
 /**
  * 数据库配置数据模型类
  * 用于JSON文件存储和数据传输
@@ -19,7 +21,37 @@ public class DatabaseConfigProperties {
         private String username;
         private String password;
         private PoolConfig pool;
+        /**
+         * 只读副本列表，配置后工具调用按最少在途请求在健康副本间负载均衡
+         */
+        private List<ReplicaConfig> replicas;
+        /**
+         * 没有可用副本时是否回退到主库，未配置时默认回退
+         */
+        private Boolean fallbackToPrimary;
+        /**
+         * 副本允许的最大复制延迟（秒），超过后不再路由到该副本，0表示不限制
+         */
+        private long maxReplicationLagSeconds;
+        /**
+         * 查询结果缓存时间（秒），0表示不缓存该配置的查询结果
+         */
+        private long resultCacheTtlSeconds;
+        /**
+         * 查询超时时间（秒），0表示使用全局db-mcp.query-timeout.default-timeout
+         */
+        private long queryTimeoutSeconds;
+
+    }
 
+    /**
+     * 只读副本配置，用户名和密码为空时沿用主库配置
+     */
+    @Data
+    public static class ReplicaConfig {
+        private String url;
+        private String username;
+        private String password;
     }
 
     /**
@@ -32,6 +64,22 @@ public class DatabaseConfigProperties {
         private long connectionTimeout;
         private long idleTimeout;
         private long maxLifetime;
+        /**
+         * 是否根据连接池运行指标自动调整连接池大小
+         */
+        private boolean adaptive;
+        /**
+         * 自适应模式下连接池最大连接数的下限，未设置时为1
+         */
+        private int adaptiveFloor;
+        /**
+         * 自适应模式下连接池最大连接数的上限，未设置时为maximumPoolSize，两者都未设置时为Hikari默认的10
+         */
+        private int adaptiveCeiling;
+        /**
+         * 该配置的最大并发查询数，0表示使用全局db-mcp.bulkhead配置
+         */
+        private int maxConcurrentQueries;
 
     }
 
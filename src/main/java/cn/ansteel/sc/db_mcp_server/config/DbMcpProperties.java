@@ -0,0 +1,370 @@
+package cn.ansteel.sc.db_mcp_server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 服务运行参数
+ * 对应application.yml中db-mcp前缀的配置，与database-configs.json中的数据源配置相互独立
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "db-mcp")
+public class DbMcpProperties {
+
+    private Warmup warmup = new Warmup();
+    private AdaptivePool adaptivePool = new AdaptivePool();
+    private HealthCheck healthCheck = new HealthCheck();
+    private Bulkhead bulkhead = new Bulkhead();
+    private Replica replica = new Replica();
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private PoolEviction poolEviction = new PoolEviction();
+    private PoolSwap poolSwap = new PoolSwap();
+    private Streaming streaming = new Streaming();
+    private Fetch fetch = new Fetch();
+    private Cursor cursor = new Cursor();
+    private ResultCache resultCache = new ResultCache();
+    private StatementCache statementCache = new StatementCache();
+    private Batch batch = new Batch();
+    private QueryTimeout queryTimeout = new QueryTimeout();
+    private PinningMonitor pinningMonitor = new PinningMonitor();
+    private McpTools mcpTools = new McpTools();
+    private MetadataCache metadataCache = new MetadataCache();
+    private TableStatistics tableStatistics = new TableStatistics();
+
+    /**
+     * 启动预热配置
+     */
+    @Data
+    public static class Warmup {
+        /**
+         * 是否在启动时预热连接池
+         */
+        private boolean enabled = true;
+        /**
+         * 需要预热的配置名称，为空时只预热活跃配置，"*"表示预热全部配置
+         */
+        private List<String> profiles = new ArrayList<>();
+        /**
+         * 并行预热的最大线程数
+         */
+        private int parallelism = 4;
+        /**
+         * 整体预热超时时间（毫秒），超时后未完成的配置不再等待
+         */
+        private long timeout = 60000;
+    }
+
+    /**
+     * 自适应连接池配置，仅对pool.adaptive为true的数据源生效
+     */
+    @Data
+    public static class AdaptivePool {
+        /**
+         * 采样间隔（毫秒）
+         */
+        private long sampleInterval = 10000;
+        /**
+         * 活跃连接占比达到该值时扩容
+         */
+        private double growUtilization = 0.8;
+        /**
+         * 活跃连接占比低于该值时视为空闲
+         */
+        private double shrinkUtilization = 0.3;
+        /**
+         * 平均借出等待时间超过该值（毫秒）时扩容
+         */
+        private long acquireWaitThreshold = 50;
+        /**
+         * 连续空闲的采样次数达到该值后缩容
+         */
+        private int shrinkAfterSamples = 6;
+    }
+
+    /**
+     * 连接健康检查配置
+     */
+    @Data
+    public static class HealthCheck {
+        /**
+         * 单个配置检查的截止时间（毫秒）
+         */
+        private long timeout = 5000;
+        /**
+         * 检查结果缓存时间（毫秒）
+         */
+        private long cacheTtl = 10000;
+        /**
+         * 并行检查的最大线程数
+         */
+        private int parallelism = 16;
+    }
+
+    /**
+     * 每个配置的并发隔离配置，作用于SQL执行和元数据查询
+     */
+    @Data
+    public static class Bulkhead {
+        /**
+         * 单个配置的最大并发查询数，0表示与连接池maximumPoolSize一致
+         */
+        private int maxConcurrent = 0;
+        /**
+         * 单个配置的最大排队数，超出后立即拒绝
+         */
+        private int maxQueue = 20;
+        /**
+         * 排队最长等待时间（毫秒），超时后拒绝
+         */
+        private long maxWait = 2000;
+    }
+
+    /**
+     * 只读副本配置
+     */
+    @Data
+    public static class Replica {
+        /**
+         * 副本可用性和复制延迟的探测间隔（毫秒）
+         */
+        private long probeInterval = 5000;
+    }
+
+    /**
+     * 每个配置的熔断器配置
+     */
+    @Data
+    public static class CircuitBreaker {
+        /**
+         * 是否启用熔断
+         */
+        private boolean enabled = true;
+        /**
+         * 连续失败达到该次数后熔断
+         */
+        private int failureThreshold = 5;
+        /**
+         * 熔断后等待多久（毫秒）开始后台探测
+         */
+        private long openDuration = 30000;
+        /**
+         * 后台探测检查间隔（毫秒）
+         */
+        private long probeInterval = 5000;
+    }
+
+    /**
+     * 空闲连接池淘汰配置
+     */
+    @Data
+    public static class PoolEviction {
+        /**
+         * 连接池多久（毫秒）未被使用后关闭，0表示不按空闲时间淘汰
+         */
+        private long idleTimeout = 1800000;
+        /**
+         * 同时打开的连接池数量上限（含副本连接池），0表示不限制，超出时淘汰最近最少使用的空闲连接池
+         */
+        private int maxOpenPools = 0;
+        /**
+         * 空闲检查间隔（毫秒）
+         */
+        private long sweepInterval = 60000;
+    }
+
+    /**
+     * 配置更新时的连接池切换配置
+     */
+    @Data
+    public static class PoolSwap {
+        /**
+         * 旧连接池等待借出连接归还的最长时间（毫秒），超时后强制关闭
+         */
+        private long drainTimeout = 60000;
+    }
+
+    /**
+     * 流式查询结果配置
+     */
+    @Data
+    public static class Streaming {
+        /**
+         * 每块推送的行数，HTTP流式响应每块刷新一次，MCP每块发送一条通知
+         */
+        private int chunkSize = 500;
+    }
+
+    /**
+     * 查询抓取行数配置，实际抓取行数 = targetBytes / 观测到的平均行宽，并限制在minFetchSize~maxFetchSize之间
+     */
+    @Data
+    public static class Fetch {
+        /**
+         * 每次往返期望抓取的字节数
+         */
+        private long targetBytes = 1048576;
+        private int minFetchSize = 50;
+        private int maxFetchSize = 10000;
+    }
+
+    /**
+     * 续查游标配置，结果被截断时保留游标供续查令牌读取下一页
+     */
+    @Data
+    public static class Cursor {
+        /**
+         * 单个配置同时保留的游标数量上限，每个游标占用一个连接，0表示不保留游标
+         */
+        private int maxPerProfile = 2;
+        /**
+         * 游标空闲多久（毫秒）后关闭
+         */
+        private long idleTimeout = 60000;
+        /**
+         * 空闲检查间隔（毫秒）
+         */
+        private long sweepInterval = 10000;
+    }
+
+    /**
+     * 查询结果缓存配置，各配置的缓存时间由database-configs.json中的resultCacheTtlSeconds开启
+     */
+    @Data
+    public static class ResultCache {
+        /**
+         * 缓存结果序列化后的总字节数上限，单条结果超过四分之一时不缓存
+         */
+        private long maxBytes = 67108864;
+    }
+
+    /**
+     * 驱动预编译语句缓存配置，带绑定参数的查询以PreparedStatement执行时复用
+     */
+    @Data
+    public static class StatementCache {
+        /**
+         * 是否按方言开启驱动的语句缓存
+         */
+        private boolean enabled = true;
+        /**
+         * 每个连接缓存的语句数量，同时作为复用统计跟踪的语句数量
+         */
+        private int size = 250;
+    }
+
+    /**
+     * 批量查询配置
+     */
+    @Data
+    public static class Batch {
+        /**
+         * 单次批量查询最多包含的条目数
+         */
+        private int maxItems = 50;
+        /**
+         * 批量执行线程池大小，所有批量请求共享
+         */
+        private int parallelism = 16;
+        /**
+         * 同一批次中每个配置同时执行的最大条目数，实际并发还受该配置的准入控制限制
+         */
+        private int maxPerProfile = 4;
+        /**
+         * 整批超时时间（毫秒），超时未完成的条目返回timeout
+         */
+        private long timeout = 60000;
+    }
+
+    /**
+     * 查询超时配置，各配置可通过database-configs.json中的queryTimeoutSeconds覆盖默认值
+     */
+    @Data
+    public static class QueryTimeout {
+        /**
+         * 调用和数据源配置都未指定时的超时时间（毫秒），0表示不限制
+         */
+        private long defaultTimeout = 300000;
+        /**
+         * 超时时间上限（毫秒），调用指定更长的时间时按该值截断，0表示不限制
+         */
+        private long maxTimeout = 0;
+        /**
+         * 检查超时语句的间隔（毫秒）
+         */
+        private long watchdogInterval = 1000;
+        /**
+         * Statement.cancel失败时是否从另一个连接按方言终止语句，开启后每个物理连接首次使用时查询一次会话标识
+         */
+        private boolean killOnCancelFailure = true;
+    }
+
+    /**
+     * 虚拟线程钉住监控配置，仅在spring.threads.virtual.enabled为true时生效
+     */
+    @Data
+    public static class PinningMonitor {
+        /**
+         * 是否通过JFR记录虚拟线程钉住事件
+         */
+        private boolean enabled = true;
+        /**
+         * 记录的最短钉住时长（毫秒）
+         */
+        private long threshold = 20;
+        /**
+         * 统计中返回的钉住位置数量
+         */
+        private int topSites = 20;
+    }
+
+    /**
+     * MCP工具调用执行配置，仅在spring.threads.virtual.enabled为true时生效。
+     * 同步工具由MCP SDK放到Reactor的boundedElastic调度器上执行，启动时据此设置该调度器的系统属性
+     */
+    @Data
+    public static class McpTools {
+        /**
+         * 同时执行的MCP工具调用上限（boundedElastic调度器的任务数上限），超出的调用在调度器队列中等待
+         */
+        private int maxConcurrent = 1000;
+    }
+
+    /**
+     * 表结构元数据缓存配置
+     */
+    @Data
+    public static class MetadataCache {
+        /**
+         * 是否缓存表列表和表结构
+         */
+        private boolean enabled = true;
+        /**
+         * 后台检查DDL变更的间隔（毫秒），只重新加载变更的表
+         */
+        private long refreshInterval = 60000;
+        /**
+         * 缓存整体重新加载的最长间隔（毫秒），数据库不支持读取DDL时间时依赖此项，0表示不整体重新加载
+         */
+        private long maxAge = 3600000;
+        /**
+         * search_schema默认返回的结果数量
+         */
+        private int searchLimit = 20;
+    }
+
+    /**
+     * table_statistics配置
+     */
+    @Data
+    public static class TableStatistics {
+        /**
+         * 调用未指定时精确计数（COUNT(*)）的超时时间（毫秒），0表示使用query-timeout.default-timeout，同样受max-timeout限制
+         */
+        private long exactCountTimeout = 30000;
+    }
+}
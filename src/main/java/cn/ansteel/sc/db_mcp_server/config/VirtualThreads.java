@@ -0,0 +1,42 @@
+package cn.ansteel.sc.db_mcp_server.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 虚拟线程工具
+ * <p>
+ * spring.threads.virtual.enabled为true且运行在Java 21及以上时，Tomcat请求、MCP工具调用（见VirtualThreadsEnvironmentPostProcessor）
+ * 和定时任务都运行在虚拟线程上，服务内部执行JDBC调用的线程池也改用虚拟线程
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 是否开启了虚拟线程执行模式
+     */
+    public static boolean isEnabled(Environment environment) {
+        return Threading.VIRTUAL.isActive(environment);
+    }
+
+    /**
+     * 创建线程工厂，虚拟线程模式下返回虚拟线程工厂，否则返回以prefix加序号命名的守护线程工厂
+     */
+    public static ThreadFactory threadFactory(String prefix, boolean virtual) {
+        if (virtual) {
+            return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
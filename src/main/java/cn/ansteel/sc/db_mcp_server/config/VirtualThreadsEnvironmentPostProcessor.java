@@ -0,0 +1,38 @@
+package cn.ansteel.sc.db_mcp_server.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+/**
+ * 虚拟线程模式下让MCP工具调用运行在虚拟线程上
+ * <p>
+ * MCP SDK把同步工具放到Reactor的Schedulers.boundedElastic()上执行，默认是最多10倍CPU核数的平台线程，
+ * 开启spring.threads.virtual.enabled后工具调用仍被这些线程限制。Reactor只在Schedulers类初始化时读取系统属性，
+ * 因此在环境准备完成、任何Bean创建之前设置：boundedElastic改为每个任务一个虚拟线程，
+ * 任务数上限取db-mcp.mcp-tools.max-concurrent。通过-D显式指定的系统属性不被覆盖
+ */
+public class VirtualThreadsEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    static final String ON_VIRTUAL_THREADS = "reactor.schedulers.defaultBoundedElasticOnVirtualThreads";
+    static final String BOUNDED_ELASTIC_SIZE = "reactor.schedulers.defaultBoundedElasticSize";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (!VirtualThreads.isEnabled(environment)) {
+            return;
+        }
+        DbMcpProperties.McpTools settings = Binder.get(environment)
+                .bind("db-mcp.mcp-tools", DbMcpProperties.McpTools.class)
+                .orElseGet(DbMcpProperties.McpTools::new);
+        setIfAbsent(ON_VIRTUAL_THREADS, "true");
+        setIfAbsent(BOUNDED_ELASTIC_SIZE, String.valueOf(Math.max(1, settings.getMaxConcurrent())));
+    }
+
+    private static void setIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+}
@@ -19,6 +19,8 @@ public final class DatabaseConstant {
      */
     public static final class ConnectionPool {
         public static final String PREFIX = "HikariPool-";
+        public static final long DEFAULT_CONNECTION_TIMEOUT = 30000;
+        public static final long VALIDATION_TIMEOUT = 3000;
 
         private ConnectionPool() {}
     }
@@ -35,6 +37,260 @@ public final class DatabaseConstant {
         private TestStatements() {}
     }
 
+    /**
+     * 副本复制延迟探测语句，结果为延迟秒数
+     */
+    public static final class ReplicationLagStatements {
+        public static final String MYSQL = "SHOW REPLICA STATUS";
+        public static final String MYSQL_LEGACY = "SHOW SLAVE STATUS";
+        public static final String MYSQL_LAG_COLUMN = "Seconds_Behind_Source";
+        public static final String MYSQL_LEGACY_LAG_COLUMN = "Seconds_Behind_Master";
+        public static final String POSTGRESQL = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+                "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+                "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+        public static final String ORACLE = "SELECT value FROM v$dataguard_stats WHERE name = 'apply lag'";
+        public static final String SQLSERVER = "SELECT MAX(secondary_lag_seconds) FROM sys.dm_hadr_database_replica_states WHERE is_local = 1";
+
+        private ReplicationLagStatements() {}
+    }
+
+    /**
+     * 会话标识查询语句，结果用于Statement.cancel失败时从另一个连接终止正在执行的语句
+     */
+    public static final class SessionIdStatements {
+        public static final String MYSQL = "SELECT CONNECTION_ID()";
+        public static final String POSTGRESQL = "SELECT pg_backend_pid()";
+        public static final String ORACLE = "SELECT sid || ',' || serial# FROM v$session WHERE sid = SYS_CONTEXT('USERENV', 'SID')";
+
+        private SessionIdStatements() {}
+    }
+
+    /**
+     * 终止指定会话当前语句的语句模板，%s为会话标识。
+     * SQL Server没有只终止当前语句的命令（KILL会结束整个会话并回滚事务），因此不在此列，只依赖Statement.cancel
+     */
+    public static final class KillQueryStatements {
+        public static final String MYSQL = "KILL QUERY %s";
+        public static final String POSTGRESQL = "SELECT pg_cancel_backend(%s)";
+        public static final String ORACLE = "ALTER SYSTEM CANCEL SQL '%s'";
+
+        private KillQueryStatements() {}
+    }
+
+    /**
+     * 表结构变更标记查询语句，每行返回表名和变更标记，参数为数据库（MySQL）或模式名称
+     */
+    public static final class DdlChangeStatements {
+        /**
+         * MySQL的UPDATE_TIME随数据写入变化，不能作为DDL标记；ALTER TABLE的INSTANT算法不改变CREATE_TIME，
+         * 因此加上列定义、索引（STATISTICS）和外键（KEY_COLUMN_USAGE）的校验和
+         */
+        public static final String MYSQL = "SELECT t.TABLE_NAME, CONCAT_WS('|', t.CREATE_TIME, t.TABLE_COMMENT, " +
+                "COALESCE(c.checksum, 0), COALESCE(i.checksum, 0), COALESCE(k.checksum, 0)) " +
+                "FROM information_schema.TABLES t LEFT JOIN (SELECT TABLE_NAME, " +
+                "SUM(CRC32(CONCAT_WS(',', ORDINAL_POSITION, COLUMN_NAME, COLUMN_TYPE, IS_NULLABLE, COLUMN_DEFAULT, COLUMN_COMMENT))) AS checksum " +
+                "FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = ? GROUP BY TABLE_NAME) c ON c.TABLE_NAME = t.TABLE_NAME " +
+                "LEFT JOIN (SELECT TABLE_NAME, " +
+                "SUM(CRC32(CONCAT_WS(',', INDEX_NAME, SEQ_IN_INDEX, COLUMN_NAME, NON_UNIQUE))) AS checksum " +
+                "FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = ? GROUP BY TABLE_NAME) i ON i.TABLE_NAME = t.TABLE_NAME " +
+                "LEFT JOIN (SELECT TABLE_NAME, " +
+                "SUM(CRC32(CONCAT_WS(',', CONSTRAINT_NAME, ORDINAL_POSITION, COLUMN_NAME, REFERENCED_TABLE_SCHEMA, " +
+                "REFERENCED_TABLE_NAME, REFERENCED_COLUMN_NAME))) AS checksum " +
+                "FROM information_schema.KEY_COLUMN_USAGE WHERE TABLE_SCHEMA = ? GROUP BY TABLE_NAME) k ON k.TABLE_NAME = t.TABLE_NAME " +
+                "WHERE t.TABLE_SCHEMA = ?";
+        /**
+         * PostgreSQL没有DDL时间，ALTER TABLE会产生新的pg_class/pg_attribute行版本，创建或删除索引改变pg_index行数
+         */
+        public static final String POSTGRESQL = "SELECT c.relname, c.xmin::text || ':' || " +
+                "(SELECT COALESCE(MAX(a.xmin::text::bigint), 0) FROM pg_attribute a WHERE a.attrelid = c.oid) || ':' || " +
+                "(SELECT COUNT(*) FROM pg_index i WHERE i.indrelid = c.oid) " +
+                "FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                "WHERE n.nspname = ? AND c.relkind IN ('r', 'v', 'm', 'p', 'f')";
+        public static final String ORACLE = "SELECT OBJECT_NAME, TO_CHAR(LAST_DDL_TIME, 'YYYYMMDDHH24MISS') " +
+                "FROM ALL_OBJECTS WHERE OWNER = ? AND OBJECT_TYPE IN ('TABLE', 'VIEW') AND OBJECT_NAME NOT LIKE 'BIN$%'";
+        public static final String SQLSERVER = "SELECT o.name, CONVERT(VARCHAR(33), o.modify_date, 126) " +
+                "FROM sys.objects o JOIN sys.schemas s ON s.schema_id = o.schema_id " +
+                "WHERE s.name = ? AND o.type IN ('U', 'V')";
+
+        private DdlChangeStatements() {}
+    }
+
+    /**
+     * 模式中的表和视图查询语句，返回TABLE_CAT、TABLE_SCHEM、TABLE_NAME、TABLE_TYPE、REMARKS；
+     * 第一个参数为数据库（MySQL）或模式名称，%s替换为表名条件（IS NOT NULL或IN (?, ...)）
+     */
+    public static final class SchemaTableStatements {
+        public static final String MYSQL = "SELECT TABLE_SCHEMA AS TABLE_CAT, NULL AS TABLE_SCHEM, TABLE_NAME, " +
+                "CASE TABLE_TYPE WHEN 'BASE TABLE' THEN 'TABLE' ELSE TABLE_TYPE END AS TABLE_TYPE, TABLE_COMMENT AS REMARKS " +
+                "FROM information_schema.TABLES WHERE TABLE_SCHEMA = ? AND TABLE_NAME %s " +
+                "AND TABLE_TYPE IN ('BASE TABLE', 'VIEW') ORDER BY TABLE_NAME";
+        public static final String POSTGRESQL = "SELECT current_database() AS TABLE_CAT, n.nspname AS TABLE_SCHEM, c.relname AS TABLE_NAME, " +
+                "CASE c.relkind WHEN 'v' THEN 'VIEW' WHEN 'm' THEN 'MATERIALIZED VIEW' WHEN 'f' THEN 'FOREIGN TABLE' " +
+                "ELSE 'TABLE' END AS TABLE_TYPE, obj_description(c.oid, 'pg_class') AS REMARKS " +
+                "FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                "WHERE n.nspname = ? AND c.relname %s AND c.relkind IN ('r', 'v', 'm', 'p', 'f') ORDER BY c.relname";
+        public static final String ORACLE = "SELECT NULL AS TABLE_CAT, o.OWNER AS TABLE_SCHEM, o.OBJECT_NAME AS TABLE_NAME, " +
+                "o.OBJECT_TYPE AS TABLE_TYPE, c.COMMENTS AS REMARKS FROM ALL_OBJECTS o " +
+                "LEFT JOIN ALL_TAB_COMMENTS c ON c.OWNER = o.OWNER AND c.TABLE_NAME = o.OBJECT_NAME " +
+                "WHERE o.OWNER = ? AND o.OBJECT_NAME %s AND o.OBJECT_TYPE IN ('TABLE', 'VIEW') " +
+                "AND o.OBJECT_NAME NOT LIKE 'BIN$%%' ORDER BY o.OBJECT_NAME";
+        public static final String SQLSERVER = "SELECT DB_NAME() AS TABLE_CAT, s.name AS TABLE_SCHEM, o.name AS TABLE_NAME, " +
+                "CASE o.type WHEN 'V' THEN 'VIEW' ELSE 'TABLE' END AS TABLE_TYPE, CAST(ep.value AS NVARCHAR(4000)) AS REMARKS " +
+                "FROM sys.objects o JOIN sys.schemas s ON s.schema_id = o.schema_id " +
+                "LEFT JOIN sys.extended_properties ep ON ep.class = 1 AND ep.major_id = o.object_id " +
+                "AND ep.minor_id = 0 AND ep.name = 'MS_Description' " +
+                "WHERE s.name = ? AND o.name %s AND o.type IN ('U', 'V') ORDER BY o.name";
+
+        private SchemaTableStatements() {}
+    }
+
+    /**
+     * 整个模式的列查询语句，返回TABLE_NAME、COLUMN_NAME、TYPE_NAME、COLUMN_SIZE、NULLABLE（1/0）、COLUMN_DEF、REMARKS；
+     * 第一个参数为数据库（MySQL）或模式名称，%s替换为表名条件（IS NOT NULL或IN (?, ...)）
+     */
+    public static final class SchemaColumnStatements {
+        public static final String MYSQL = "SELECT TABLE_NAME, COLUMN_NAME, " +
+                "CONCAT(UPPER(DATA_TYPE), IF(INSTR(COLUMN_TYPE, 'unsigned') > 0, ' UNSIGNED', '')) AS TYPE_NAME, " +
+                "LEAST(COALESCE(CHARACTER_MAXIMUM_LENGTH, NUMERIC_PRECISION, DATETIME_PRECISION, 0), 2147483647) AS COLUMN_SIZE, " +
+                "CASE IS_NULLABLE WHEN 'YES' THEN 1 ELSE 0 END AS NULLABLE, COLUMN_DEFAULT AS COLUMN_DEF, COLUMN_COMMENT AS REMARKS " +
+                "FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = ? AND TABLE_NAME %s ORDER BY TABLE_NAME, ORDINAL_POSITION";
+        public static final String POSTGRESQL = "SELECT c.relname AS TABLE_NAME, a.attname AS COLUMN_NAME, t.typname AS TYPE_NAME, " +
+                "COALESCE(information_schema._pg_char_max_length(a.atttypid, a.atttypmod), " +
+                "information_schema._pg_numeric_precision(a.atttypid, a.atttypmod), 0) AS COLUMN_SIZE, " +
+                "CASE WHEN a.attnotnull THEN 0 ELSE 1 END AS NULLABLE, pg_get_expr(d.adbin, d.adrelid) AS COLUMN_DEF, " +
+                "col_description(c.oid, a.attnum) AS REMARKS " +
+                "FROM pg_attribute a JOIN pg_class c ON c.oid = a.attrelid JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                "JOIN pg_type t ON t.oid = a.atttypid LEFT JOIN pg_attrdef d ON d.adrelid = a.attrelid AND d.adnum = a.attnum " +
+                "WHERE n.nspname = ? AND c.relname %s AND a.attnum > 0 AND NOT a.attisdropped " +
+                "AND c.relkind IN ('r', 'v', 'm', 'p', 'f') ORDER BY c.relname, a.attnum";
+        /**
+         * DATA_DEFAULT是LONG类型，会让驱动逐行抓取，改用12.2起提供的DATA_DEFAULT_VC
+         */
+        public static final String ORACLE = "SELECT c.TABLE_NAME, c.COLUMN_NAME, c.DATA_TYPE AS TYPE_NAME, " +
+                "CASE WHEN c.CHAR_LENGTH > 0 THEN c.CHAR_LENGTH ELSE NVL(c.DATA_PRECISION, c.DATA_LENGTH) END AS COLUMN_SIZE, " +
+                "CASE c.NULLABLE WHEN 'Y' THEN 1 ELSE 0 END AS NULLABLE, c.DATA_DEFAULT_VC AS COLUMN_DEF, m.COMMENTS AS REMARKS " +
+                "FROM ALL_TAB_COLUMNS c LEFT JOIN ALL_COL_COMMENTS m " +
+                "ON m.OWNER = c.OWNER AND m.TABLE_NAME = c.TABLE_NAME AND m.COLUMN_NAME = c.COLUMN_NAME " +
+                "WHERE c.OWNER = ? AND c.TABLE_NAME %s ORDER BY c.TABLE_NAME, c.COLUMN_ID";
+        public static final String SQLSERVER = "SELECT o.name AS TABLE_NAME, c.name AS COLUMN_NAME, ty.name AS TYPE_NAME, " +
+                "CASE WHEN ty.name IN ('nchar', 'nvarchar') AND c.max_length > 0 THEN c.max_length / 2 " +
+                "WHEN c.precision > 0 THEN c.precision ELSE c.max_length END AS COLUMN_SIZE, " +
+                "CAST(c.is_nullable AS INT) AS NULLABLE, dc.definition AS COLUMN_DEF, CAST(ep.value AS NVARCHAR(4000)) AS REMARKS " +
+                "FROM sys.columns c JOIN sys.objects o ON o.object_id = c.object_id AND o.type IN ('U', 'V') " +
+                "JOIN sys.schemas s ON s.schema_id = o.schema_id JOIN sys.types ty ON ty.user_type_id = c.user_type_id " +
+                "LEFT JOIN sys.default_constraints dc ON dc.object_id = c.default_object_id " +
+                "LEFT JOIN sys.extended_properties ep ON ep.class = 1 AND ep.major_id = c.object_id " +
+                "AND ep.minor_id = c.column_id AND ep.name = 'MS_Description' " +
+                "WHERE s.name = ? AND o.name %s ORDER BY o.name, c.column_id";
+
+        private SchemaColumnStatements() {}
+    }
+
+    /**
+     * 整个模式的主键查询语句，返回TABLE_NAME、COLUMN_NAME、KEY_SEQ、PK_NAME，参数同{@link SchemaColumnStatements}
+     */
+    public static final class SchemaPrimaryKeyStatements {
+        public static final String MYSQL = "SELECT TABLE_NAME, COLUMN_NAME, ORDINAL_POSITION AS KEY_SEQ, CONSTRAINT_NAME AS PK_NAME " +
+                "FROM information_schema.KEY_COLUMN_USAGE WHERE TABLE_SCHEMA = ? AND TABLE_NAME %s " +
+                "AND CONSTRAINT_NAME = 'PRIMARY' ORDER BY TABLE_NAME, ORDINAL_POSITION";
+        public static final String POSTGRESQL = "SELECT c.relname AS TABLE_NAME, a.attname AS COLUMN_NAME, k.n AS KEY_SEQ, " +
+                "con.conname AS PK_NAME FROM pg_constraint con JOIN pg_class c ON c.oid = con.conrelid " +
+                "JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                "CROSS JOIN LATERAL unnest(con.conkey) WITH ORDINALITY AS k(attnum, n) " +
+                "JOIN pg_attribute a ON a.attrelid = con.conrelid AND a.attnum = k.attnum " +
+                "WHERE n.nspname = ? AND c.relname %s AND con.contype = 'p' ORDER BY c.relname, k.n";
+        public static final String ORACLE = "SELECT c.TABLE_NAME, cc.COLUMN_NAME, cc.POSITION AS KEY_SEQ, c.CONSTRAINT_NAME AS PK_NAME " +
+                "FROM ALL_CONSTRAINTS c JOIN ALL_CONS_COLUMNS cc ON cc.OWNER = c.OWNER " +
+                "AND cc.CONSTRAINT_NAME = c.CONSTRAINT_NAME AND cc.TABLE_NAME = c.TABLE_NAME " +
+                "WHERE c.OWNER = ? AND c.TABLE_NAME %s AND c.CONSTRAINT_TYPE = 'P' ORDER BY c.TABLE_NAME, cc.POSITION";
+        public static final String SQLSERVER = "SELECT t.name AS TABLE_NAME, c.name AS COLUMN_NAME, ic.key_ordinal AS KEY_SEQ, " +
+                "i.name AS PK_NAME FROM sys.indexes i JOIN sys.tables t ON t.object_id = i.object_id " +
+                "JOIN sys.schemas s ON s.schema_id = t.schema_id " +
+                "JOIN sys.index_columns ic ON ic.object_id = i.object_id AND ic.index_id = i.index_id " +
+                "JOIN sys.columns c ON c.object_id = ic.object_id AND c.column_id = ic.column_id " +
+                "WHERE s.name = ? AND t.name %s AND i.is_primary_key = 1 ORDER BY t.name, ic.key_ordinal";
+
+        private SchemaPrimaryKeyStatements() {}
+    }
+
+    /**
+     * 整个模式的索引查询语句，返回TABLE_NAME、INDEX_NAME、COLUMN_NAME、NON_UNIQUE（1/0）、TYPE（索引类型名称）、
+     * ORDINAL_POSITION，参数同{@link SchemaColumnStatements}
+     */
+    public static final class SchemaIndexStatements {
+        public static final String MYSQL = "SELECT TABLE_NAME, INDEX_NAME, COLUMN_NAME, NON_UNIQUE, INDEX_TYPE AS TYPE, " +
+                "SEQ_IN_INDEX AS ORDINAL_POSITION FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = ? AND TABLE_NAME %s " +
+                "ORDER BY TABLE_NAME, NON_UNIQUE, INDEX_NAME, SEQ_IN_INDEX";
+        /**
+         * 表达式索引的列为0，COLUMN_NAME返回null
+         */
+        public static final String POSTGRESQL = "SELECT c.relname AS TABLE_NAME, ic.relname AS INDEX_NAME, a.attname AS COLUMN_NAME, " +
+                "CASE WHEN i.indisunique THEN 0 ELSE 1 END AS NON_UNIQUE, am.amname AS TYPE, k.n AS ORDINAL_POSITION " +
+                "FROM pg_index i JOIN pg_class c ON c.oid = i.indrelid JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                "JOIN pg_class ic ON ic.oid = i.indexrelid JOIN pg_am am ON am.oid = ic.relam " +
+                "CROSS JOIN LATERAL unnest(i.indkey::int2[]) WITH ORDINALITY AS k(attnum, n) " +
+                "LEFT JOIN pg_attribute a ON a.attrelid = c.oid AND a.attnum = k.attnum " +
+                "WHERE n.nspname = ? AND c.relname %s ORDER BY c.relname, NON_UNIQUE, ic.relname, k.n";
+        public static final String ORACLE = "SELECT i.TABLE_NAME, i.INDEX_NAME, ic.COLUMN_NAME, " +
+                "CASE i.UNIQUENESS WHEN 'UNIQUE' THEN 0 ELSE 1 END AS NON_UNIQUE, i.INDEX_TYPE AS TYPE, " +
+                "ic.COLUMN_POSITION AS ORDINAL_POSITION FROM ALL_INDEXES i " +
+                "JOIN ALL_IND_COLUMNS ic ON ic.INDEX_OWNER = i.OWNER AND ic.INDEX_NAME = i.INDEX_NAME " +
+                "WHERE i.TABLE_OWNER = ? AND i.TABLE_NAME %s ORDER BY i.TABLE_NAME, NON_UNIQUE, i.INDEX_NAME, ic.COLUMN_POSITION";
+        public static final String SQLSERVER = "SELECT t.name AS TABLE_NAME, i.name AS INDEX_NAME, c.name AS COLUMN_NAME, " +
+                "CASE WHEN i.is_unique = 1 THEN 0 ELSE 1 END AS NON_UNIQUE, i.type_desc AS TYPE, ic.key_ordinal AS ORDINAL_POSITION " +
+                "FROM sys.indexes i JOIN sys.tables t ON t.object_id = i.object_id JOIN sys.schemas s ON s.schema_id = t.schema_id " +
+                "JOIN sys.index_columns ic ON ic.object_id = i.object_id AND ic.index_id = i.index_id " +
+                "JOIN sys.columns c ON c.object_id = ic.object_id AND c.column_id = ic.column_id " +
+                "WHERE s.name = ? AND t.name %s AND i.type > 0 AND ic.is_included_column = 0 " +
+                "ORDER BY t.name, NON_UNIQUE, i.name, ic.key_ordinal";
+
+        private SchemaIndexStatements() {}
+    }
+
+    /**
+     * 整个模式的外键查询语句，返回PKTABLE_NAME、PKCOLUMN_NAME、FKTABLE_NAME、FKCOLUMN_NAME、FK_NAME、PK_NAME；
+     * 外键表属于该模式，%1$s同时作用于外键表和被引用表，匹配任一侧的外键都会返回
+     */
+    public static final class SchemaForeignKeyStatements {
+        public static final String MYSQL = "SELECT k.REFERENCED_TABLE_NAME AS PKTABLE_NAME, k.REFERENCED_COLUMN_NAME AS PKCOLUMN_NAME, " +
+                "k.TABLE_NAME AS FKTABLE_NAME, k.COLUMN_NAME AS FKCOLUMN_NAME, k.CONSTRAINT_NAME AS FK_NAME, " +
+                "rc.UNIQUE_CONSTRAINT_NAME AS PK_NAME FROM information_schema.KEY_COLUMN_USAGE k " +
+                "JOIN information_schema.REFERENTIAL_CONSTRAINTS rc ON rc.CONSTRAINT_SCHEMA = k.CONSTRAINT_SCHEMA " +
+                "AND rc.CONSTRAINT_NAME = k.CONSTRAINT_NAME AND rc.TABLE_NAME = k.TABLE_NAME " +
+                "WHERE k.TABLE_SCHEMA = ? AND (k.TABLE_NAME %1$s OR k.REFERENCED_TABLE_NAME %1$s) " +
+                "ORDER BY k.TABLE_NAME, k.CONSTRAINT_NAME, k.ORDINAL_POSITION";
+        public static final String POSTGRESQL = "SELECT pc.relname AS PKTABLE_NAME, pa.attname AS PKCOLUMN_NAME, " +
+                "fc.relname AS FKTABLE_NAME, fa.attname AS FKCOLUMN_NAME, con.conname AS FK_NAME, pk.conname AS PK_NAME " +
+                "FROM pg_constraint con JOIN pg_class fc ON fc.oid = con.conrelid JOIN pg_namespace n ON n.oid = fc.relnamespace " +
+                "JOIN pg_class pc ON pc.oid = con.confrelid " +
+                "CROSS JOIN LATERAL unnest(con.conkey, con.confkey) WITH ORDINALITY AS k(fkattnum, pkattnum, n) " +
+                "JOIN pg_attribute fa ON fa.attrelid = con.conrelid AND fa.attnum = k.fkattnum " +
+                "JOIN pg_attribute pa ON pa.attrelid = con.confrelid AND pa.attnum = k.pkattnum " +
+                "LEFT JOIN pg_constraint pk ON pk.conrelid = con.confrelid AND pk.conindid = con.conindid AND pk.contype IN ('p', 'u') " +
+                "WHERE n.nspname = ? AND (fc.relname %1$s OR pc.relname %1$s) AND con.contype = 'f' " +
+                "ORDER BY fc.relname, con.conname, k.n";
+        public static final String ORACLE = "SELECT pk.TABLE_NAME AS PKTABLE_NAME, pcc.COLUMN_NAME AS PKCOLUMN_NAME, " +
+                "fk.TABLE_NAME AS FKTABLE_NAME, fcc.COLUMN_NAME AS FKCOLUMN_NAME, fk.CONSTRAINT_NAME AS FK_NAME, " +
+                "pk.CONSTRAINT_NAME AS PK_NAME FROM ALL_CONSTRAINTS fk " +
+                "JOIN ALL_CONSTRAINTS pk ON pk.OWNER = fk.R_OWNER AND pk.CONSTRAINT_NAME = fk.R_CONSTRAINT_NAME " +
+                "JOIN ALL_CONS_COLUMNS fcc ON fcc.OWNER = fk.OWNER AND fcc.CONSTRAINT_NAME = fk.CONSTRAINT_NAME " +
+                "JOIN ALL_CONS_COLUMNS pcc ON pcc.OWNER = pk.OWNER AND pcc.CONSTRAINT_NAME = pk.CONSTRAINT_NAME " +
+                "AND pcc.POSITION = fcc.POSITION " +
+                "WHERE fk.OWNER = ? AND (fk.TABLE_NAME %1$s OR pk.TABLE_NAME %1$s) AND fk.CONSTRAINT_TYPE = 'R' " +
+                "ORDER BY fk.TABLE_NAME, fk.CONSTRAINT_NAME, fcc.POSITION";
+        public static final String SQLSERVER = "SELECT pt.name AS PKTABLE_NAME, pc.name AS PKCOLUMN_NAME, ft.name AS FKTABLE_NAME, " +
+                "fc.name AS FKCOLUMN_NAME, f.name AS FK_NAME, ki.name AS PK_NAME FROM sys.foreign_keys f " +
+                "JOIN sys.foreign_key_columns fkc ON fkc.constraint_object_id = f.object_id " +
+                "JOIN sys.tables ft ON ft.object_id = f.parent_object_id JOIN sys.schemas s ON s.schema_id = ft.schema_id " +
+                "JOIN sys.tables pt ON pt.object_id = f.referenced_object_id " +
+                "JOIN sys.columns fc ON fc.object_id = fkc.parent_object_id AND fc.column_id = fkc.parent_column_id " +
+                "JOIN sys.columns pc ON pc.object_id = fkc.referenced_object_id AND pc.column_id = fkc.referenced_column_id " +
+                "LEFT JOIN sys.indexes ki ON ki.object_id = f.referenced_object_id AND ki.index_id = f.key_index_id " +
+                "WHERE s.name = ? AND (ft.name %1$s OR pt.name %1$s) ORDER BY ft.name, f.name, fkc.constraint_column_id";
+
+        private SchemaForeignKeyStatements() {}
+    }
+
     /**
      * SQL关键字
      */
@@ -65,13 +321,74 @@ public final class DatabaseConstant {
 
 
     /**
-     * SQL查询模板
+     * 单表统计信息查询语句，读取优化器统计和目录中的估算值而不扫描表；参数依次为数据库/模式名称和表名，成对重复。
+     * 主语句返回ROW_ESTIMATE、TOTAL_BYTES、DATA_BYTES、INDEX_BYTES、LAST_ANALYZED、LAST_MODIFIED，
+     * 补充语句返回其中一部分列并覆盖主语句的结果，补充语句失败（如缺少权限）时忽略
      */
-    public static final class SqlTemplates {
-        public static final String TABLE_SIZE_QUERY = "SELECT ROUND(((data_length + index_length) / 1024 / 1024), 2) AS 'size_mb' " +
-                "FROM information_schema.TABLES WHERE table_schema = DATABASE() AND table_name = '%s'";
-        public static final String ROW_COUNT_QUERY = "SELECT COUNT(*) as row_count FROM %s";
+    public static final class TableStatisticsStatements {
+        /**
+         * information_schema.TABLES的统计值按information_schema_stats_expiry缓存，可能滞后于实际
+         */
+        public static final String MYSQL = "SELECT TABLE_ROWS AS ROW_ESTIMATE, DATA_LENGTH + INDEX_LENGTH AS TOTAL_BYTES, " +
+                "DATA_LENGTH AS DATA_BYTES, INDEX_LENGTH AS INDEX_BYTES, CAST(NULL AS DATETIME) AS LAST_ANALYZED, " +
+                "UPDATE_TIME AS LAST_MODIFIED FROM information_schema.TABLES WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ?";
+        /**
+         * InnoDB持久化统计的收集时间，需要mysql库的查询权限
+         */
+        public static final String MYSQL_ANALYZED = "SELECT MAX(last_update) AS LAST_ANALYZED FROM mysql.innodb_table_stats " +
+                "WHERE database_name = ? AND table_name = ?";
+        /**
+         * reltuples为-1表示从未分析，此时使用统计收集器的n_live_tup
+         */
+        public static final String POSTGRESQL = "SELECT CASE WHEN c.reltuples >= 0 THEN CAST(c.reltuples AS BIGINT) " +
+                "ELSE s.n_live_tup END AS ROW_ESTIMATE, pg_total_relation_size(c.oid) AS TOTAL_BYTES, " +
+                "pg_table_size(c.oid) AS DATA_BYTES, pg_indexes_size(c.oid) AS INDEX_BYTES, " +
+                "GREATEST(s.last_analyze, s.last_autoanalyze) AS LAST_ANALYZED, CAST(NULL AS TIMESTAMP) AS LAST_MODIFIED " +
+                "FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                "LEFT JOIN pg_stat_all_tables s ON s.relid = c.oid WHERE n.nspname = ? AND c.relname = ?";
+        /**
+         * 未能读取段大小时DATA_BYTES按NUM_ROWS * AVG_ROW_LEN估算
+         */
+        public static final String ORACLE = "SELECT t.NUM_ROWS AS ROW_ESTIMATE, CAST(NULL AS NUMBER) AS TOTAL_BYTES, " +
+                "t.NUM_ROWS * t.AVG_ROW_LEN AS DATA_BYTES, CAST(NULL AS NUMBER) AS INDEX_BYTES, t.LAST_ANALYZED, " +
+                "(SELECT MAX(m.TIMESTAMP) FROM ALL_TAB_MODIFICATIONS m WHERE m.TABLE_OWNER = t.OWNER " +
+                "AND m.TABLE_NAME = t.TABLE_NAME) AS LAST_MODIFIED FROM ALL_TABLES t WHERE t.OWNER = ? AND t.TABLE_NAME = ?";
+        /**
+         * 表、索引和LOB段的实际分配大小，需要DBA_SEGMENTS的查询权限
+         */
+        public static final String ORACLE_SEGMENTS = "SELECT SUM(s.BYTES) AS TOTAL_BYTES, " +
+                "SUM(CASE WHEN s.SEGMENT_TYPE LIKE 'INDEX%' THEN 0 ELSE s.BYTES END) AS DATA_BYTES, " +
+                "SUM(CASE WHEN s.SEGMENT_TYPE LIKE 'INDEX%' THEN s.BYTES ELSE 0 END) AS INDEX_BYTES " +
+                "FROM DBA_SEGMENTS s WHERE s.OWNER = ? AND (s.SEGMENT_NAME = ? " +
+                "OR s.SEGMENT_NAME IN (SELECT i.INDEX_NAME FROM ALL_INDEXES i WHERE i.TABLE_OWNER = ? AND i.TABLE_NAME = ?) " +
+                "OR s.SEGMENT_NAME IN (SELECT l.SEGMENT_NAME FROM ALL_LOBS l WHERE l.OWNER = ? AND l.TABLE_NAME = ?)) " +
+                "HAVING COUNT(*) > 0";
+        /**
+         * 需要VIEW DATABASE STATE权限，失败时使用{@link #SQLSERVER_PARTITIONS}
+         */
+        public static final String SQLSERVER = "SELECT SUM(CASE WHEN ps.index_id < 2 THEN ps.row_count ELSE 0 END) AS ROW_ESTIMATE, " +
+                "SUM(ps.reserved_page_count) * 8192 AS TOTAL_BYTES, " +
+                "SUM(CASE WHEN ps.index_id < 2 THEN ps.used_page_count ELSE 0 END) * 8192 AS DATA_BYTES, " +
+                "SUM(CASE WHEN ps.index_id >= 2 THEN ps.used_page_count ELSE 0 END) * 8192 AS INDEX_BYTES, " +
+                "(SELECT MAX(STATS_DATE(st.object_id, st.stats_id)) FROM sys.stats st WHERE st.object_id = o.object_id) AS LAST_ANALYZED, " +
+                "CAST(NULL AS DATETIME) AS LAST_MODIFIED FROM sys.objects o JOIN sys.schemas s ON s.schema_id = o.schema_id " +
+                "JOIN sys.dm_db_partition_stats ps ON ps.object_id = o.object_id WHERE s.name = ? AND o.name = ? " +
+                "GROUP BY o.object_id";
+        /**
+         * 只依赖元数据可见性的sys.partitions和sys.allocation_units
+         */
+        public static final String SQLSERVER_PARTITIONS = "SELECT (SELECT SUM(p.rows) FROM sys.partitions p " +
+                "WHERE p.object_id = o.object_id AND p.index_id < 2) AS ROW_ESTIMATE, " +
+                "(SELECT CAST(SUM(a.total_pages) AS BIGINT) * 8192 FROM sys.partitions p JOIN sys.allocation_units a " +
+                "ON a.container_id = p.partition_id WHERE p.object_id = o.object_id) AS TOTAL_BYTES, " +
+                "(SELECT CAST(SUM(a.used_pages) AS BIGINT) * 8192 FROM sys.partitions p JOIN sys.allocation_units a " +
+                "ON a.container_id = p.partition_id WHERE p.object_id = o.object_id AND p.index_id < 2) AS DATA_BYTES, " +
+                "(SELECT CAST(SUM(a.used_pages) AS BIGINT) * 8192 FROM sys.partitions p JOIN sys.allocation_units a " +
+                "ON a.container_id = p.partition_id WHERE p.object_id = o.object_id AND p.index_id >= 2) AS INDEX_BYTES, " +
+                "(SELECT MAX(STATS_DATE(st.object_id, st.stats_id)) FROM sys.stats st WHERE st.object_id = o.object_id) AS LAST_ANALYZED, " +
+                "CAST(NULL AS DATETIME) AS LAST_MODIFIED FROM sys.objects o JOIN sys.schemas s ON s.schema_id = o.schema_id " +
+                "WHERE s.name = ? AND o.name = ?";
 
-        private SqlTemplates() {}
+        private TableStatisticsStatements() {}
     }
 }
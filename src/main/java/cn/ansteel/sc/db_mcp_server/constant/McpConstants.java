@@ -25,6 +25,8 @@ public final class McpConstants {
         public static final String TABLE_CONSTRAINTS = "table_constraints";
         public static final String TABLE_STATISTICS = "table_statistics";
         public static final String COLUMN_INFO = "column_info";
+        public static final String DESCRIBE_SCHEMA = "describe_schema";
+        public static final String SEARCH_SCHEMA = "search_schema";
         public static final String EXECUTE_SQL = "execute_sql";
 
         private Operations() {}
@@ -143,6 +145,18 @@ public final class McpConstants {
         private ErrorMessages() {}
     }
 
+    /**
+     * 错误代码，随失败响应返回，REST接口据此映射HTTP状态码
+     */
+    public static final class ErrorCodes {
+        public static final String BULKHEAD_FULL = "BULKHEAD_FULL";
+        public static final String REPLICA_UNAVAILABLE = "REPLICA_UNAVAILABLE";
+        public static final String CIRCUIT_OPEN = "CIRCUIT_OPEN";
+        public static final String QUERY_CANCELLED = "QUERY_CANCELLED";
+
+        private ErrorCodes() {}
+    }
+
     /**
      * 成功消息
      */
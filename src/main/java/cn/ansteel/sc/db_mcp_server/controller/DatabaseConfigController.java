@@ -3,13 +3,28 @@ package cn.ansteel.sc.db_mcp_server.controller;
 import cn.ansteel.sc.db_mcp_server.config.DatabaseConfigProperties;
 import cn.ansteel.sc.db_mcp_server.dto.Result;
 import cn.ansteel.sc.db_mcp_server.dto.resp.*;
+import cn.ansteel.sc.db_mcp_server.factory.DataSourceFactory;
+import cn.ansteel.sc.db_mcp_server.mcp.tool.DatabaseConnectionManager;
+import cn.ansteel.sc.db_mcp_server.mcp.tool.QueryCursorRegistry;
+import cn.ansteel.sc.db_mcp_server.service.AdaptivePoolSizer;
+import cn.ansteel.sc.db_mcp_server.service.CircuitBreakerService;
 import cn.ansteel.sc.db_mcp_server.service.DatabaseConfigService;
+import cn.ansteel.sc.db_mcp_server.service.DataSourceWarmupService;
+import cn.ansteel.sc.db_mcp_server.service.MetadataProviderBenchmark;
+import cn.ansteel.sc.db_mcp_server.service.ProfileBulkheadService;
+import cn.ansteel.sc.db_mcp_server.service.PinningMonitor;
+import cn.ansteel.sc.db_mcp_server.service.SchemaMetadataCache;
+import cn.ansteel.sc.db_mcp_server.service.QueryCancellationService;
+import cn.ansteel.sc.db_mcp_server.service.QueryResultCache;
+import cn.ansteel.sc.db_mcp_server.service.StatementReuseTracker;
+import cn.ansteel.sc.db_mcp_server.service.ReplicaRouter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 
 import javax.sql.DataSource;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -22,6 +37,20 @@ import java.util.Map;
 public class DatabaseConfigController {
 
     private final DatabaseConfigService databaseConfigService;
+    private final DatabaseConnectionManager connectionManager;
+    private final DataSourceWarmupService warmupService;
+    private final AdaptivePoolSizer adaptivePoolSizer;
+    private final ProfileBulkheadService bulkheadService;
+    private final ReplicaRouter replicaRouter;
+    private final CircuitBreakerService circuitBreakerService;
+    private final DataSourceFactory dataSourceFactory;
+    private final QueryCursorRegistry cursorRegistry;
+    private final QueryResultCache resultCache;
+    private final StatementReuseTracker statementReuseTracker;
+    private final QueryCancellationService queryCancellationService;
+    private final PinningMonitor pinningMonitor;
+    private final SchemaMetadataCache metadataCache;
+    private final MetadataProviderBenchmark metadataProviderBenchmark;
 
     /**
      * 前端页面API - 获取所有数据源配置
@@ -150,6 +179,186 @@ public class DatabaseConfigController {
         return Result.success(resp);
     }
 
+    /**
+     * 获取各配置的连接租约统计
+     */
+    @GetMapping("/leases")
+    public Result<Map<String, DatabaseConnectionManager.LeaseStats>> getLeaseStats() {
+        return Result.success(connectionManager.getLeaseStats());
+    }
+
+    /**
+     * 获取各配置的并发准入统计
+     */
+    @GetMapping("/bulkheads")
+    public Result<Map<String, ProfileBulkheadService.BulkheadStats>> getBulkheadStats() {
+        return Result.success(bulkheadService.getStats());
+    }
+
+    /**
+     * 获取各配置的熔断器状态和状态转换次数
+     */
+    @GetMapping("/circuit-breakers")
+    public Result<Map<String, CircuitBreakerService.BreakerStats>> getCircuitBreakerStats() {
+        return Result.success(circuitBreakerService.getStats());
+    }
+
+    /**
+     * 获取只读副本的路由状态和复制延迟
+     */
+    @GetMapping("/replicas")
+    public Result<Map<String, ReplicaRouter.ReplicaStats>> getReplicaStats() {
+        return Result.success(replicaRouter.getStats());
+    }
+
+    /**
+     * 获取已创建连接池的运行指标
+     */
+    @GetMapping("/pools")
+    public Result<Map<String, AdaptivePoolSizer.PoolSample>> getPoolSamples() {
+        return Result.success(adaptivePoolSizer.getPoolSamples());
+    }
+
+    /**
+     * 获取查询结果缓存的大小和各配置的命中统计
+     */
+    @GetMapping("/result-cache")
+    public Result<QueryResultCache.CacheStats> getResultCacheStats() {
+        return Result.success(resultCache.getStats());
+    }
+
+    /**
+     * 清除某个配置的查询结果缓存
+     */
+    @DeleteMapping("/result-cache/{profile}")
+    public Result<String> invalidateResultCache(@PathVariable String profile) {
+        resultCache.invalidate(profile);
+        return Result.success(profile);
+    }
+
+    /**
+     * 清除全部查询结果缓存
+     */
+    @DeleteMapping("/result-cache")
+    public Result<String> invalidateAllResultCache() {
+        resultCache.invalidateAll();
+        return Result.success("cleared");
+    }
+
+    /**
+     * 获取各配置带绑定参数查询的语句复用统计
+     */
+    @GetMapping("/statements")
+    public Result<Map<String, StatementReuseTracker.ReuseStats>> getStatementStats() {
+        return Result.success(statementReuseTracker.getStats());
+    }
+
+    /**
+     * 获取执行中的查询，按开始时间排列
+     */
+    @GetMapping("/queries")
+    public Result<List<QueryCancellationService.RunningQueryInfo>> getRunningQueries() {
+        return Result.success(queryCancellationService.getRunning());
+    }
+
+    /**
+     * 获取超时、取消和按方言终止语句的累计次数
+     */
+    @GetMapping("/queries/stats")
+    public Result<Map<String, Long>> getQueryCancellationStats() {
+        return Result.success(queryCancellationService.getCounters());
+    }
+
+    /**
+     * 取消执行中的查询，已读取的行作为部分结果返回给调用方
+     */
+    @DeleteMapping("/queries/{id}")
+    public Result<String> cancelQuery(@PathVariable String id) {
+        return queryCancellationService.cancel(id) ? Result.success(id) : Result.fail(404, "Query not found: " + id);
+    }
+
+    /**
+     * 获取虚拟线程钉住统计，用于发现JDBC驱动和连接池中阻塞在synchronized块内的调用
+     */
+    @GetMapping("/virtual-threads")
+    public Result<PinningMonitor.PinningStats> getPinningStats() {
+        return Result.success(pinningMonitor.getStats());
+    }
+
+    /**
+     * 获取元数据缓存统计，包括各范围的表数量、命中次数和增量刷新的变更表数量
+     */
+    @GetMapping("/metadata-cache")
+    public Result<Map<String, SchemaMetadataCache.ScopeStats>> getMetadataCacheStats() {
+        return Result.success(metadataCache.getStats());
+    }
+
+    /**
+     * 立即刷新某个配置的元数据缓存，full为true时整体重新加载
+     */
+    @PostMapping("/metadata-cache/{profile}/refresh")
+    public Result<Integer> refreshMetadataCache(@PathVariable String profile,
+                                                @RequestParam(defaultValue = "false") boolean full) {
+        return Result.success(metadataCache.refresh(profile, full));
+    }
+
+    /**
+     * 对比JDBC DatabaseMetaData和方言目录查询读取元数据的耗时，不经过元数据缓存
+     */
+    @GetMapping("/metadata-cache/{profile}/benchmark")
+    public Result<MetadataProviderBenchmark.BenchmarkResult> benchmarkMetadataProviders(
+            @PathVariable String profile,
+            @RequestParam(required = false) String schemaName,
+            @RequestParam(required = false) String tableName,
+            @RequestParam(defaultValue = "3") int iterations,
+            @RequestParam(defaultValue = "20") int tables) {
+        try {
+            return Result.success(metadataProviderBenchmark.run(profile, schemaName, tableName, iterations, tables));
+        } catch (Exception e) {
+            log.error("元数据读取方式对比失败: profile={}", profile, e);
+            return Result.fail("Metadata benchmark failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 清除某个配置的元数据缓存
+     */
+    @DeleteMapping("/metadata-cache/{profile}")
+    public Result<String> invalidateMetadataCache(@PathVariable String profile) {
+        metadataCache.invalidate(profile);
+        return Result.success(profile);
+    }
+
+    /**
+     * 获取各配置当前保留的续查游标数量
+     */
+    @GetMapping("/cursors")
+    public Result<Map<String, Integer>> getCursorCounts() {
+        return Result.success(cursorRegistry.getOpenCounts());
+    }
+
+    /**
+     * 获取当前打开的连接池数量和累计空闲淘汰次数
+     */
+    @GetMapping("/pools/registry")
+    public Result<Map<String, Object>> getPoolRegistryStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("openPools", dataSourceFactory.getOpenPoolCount());
+        stats.put("evictions", dataSourceFactory.getEvictionCount());
+        return Result.success(stats);
+    }
+
+    /**
+     * 获取连接池启动预热结果
+     */
+    @GetMapping("/warmup")
+    public Result<Map<String, DataSourceWarmupService.WarmupResult>> getWarmupResults() {
+        if (!warmupService.isCompleted()) {
+            return Result.fail(503, "Warm-up in progress");
+        }
+        return Result.success(warmupService.getResults());
+    }
+
     /**
      * 切换数据库配置
      */
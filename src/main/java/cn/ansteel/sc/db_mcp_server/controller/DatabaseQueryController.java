@@ -1,13 +1,31 @@
 package cn.ansteel.sc.db_mcp_server.controller;
 
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import cn.ansteel.sc.db_mcp_server.constant.McpConstants;
 import cn.ansteel.sc.db_mcp_server.dto.Result;
+import cn.ansteel.sc.db_mcp_server.dto.req.BatchQueryReq;
 import cn.ansteel.sc.db_mcp_server.dto.req.ExecuteQueryReq;
 import cn.ansteel.sc.db_mcp_server.dto.req.MetadataQueryReq;
+import cn.ansteel.sc.db_mcp_server.mcp.tool.BatchSqlExecution;
 import cn.ansteel.sc.db_mcp_server.mcp.tool.MetadataQuery;
 import cn.ansteel.sc.db_mcp_server.mcp.tool.SqlExecution;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 数据库查询控制器
@@ -21,18 +39,136 @@ public class DatabaseQueryController {
 
     private final MetadataQuery metadataQuery;
     private final SqlExecution sqlExecution;
+    private final BatchSqlExecution batchSqlExecution;
+    private final DbMcpProperties properties;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/{profile}")
-    public Result<SqlExecution.Response> executeQuery(@PathVariable String profile,
-                                                      @RequestBody ExecuteQueryReq req) {
-        SqlExecution.Response resp = sqlExecution.executeSql(req.getSql(), profile, req.getLimit());
-        return Result.success(resp);
+    public ResponseEntity<Result<SqlExecution.Response>> executeQuery(@PathVariable String profile,
+                                                                      @RequestBody ExecuteQueryReq req) {
+        SqlExecution.Response resp = req.getContinuationToken() != null && !req.getContinuationToken().isBlank()
+                ? sqlExecution.continueSql(req.getContinuationToken(), profile)
+                : sqlExecution.executeSql(req.getSql(), req.getParams(), profile, req.getLimit(), req.getFormat(),
+                        req.getTimeoutMillis());
+        return toResponse(resp, resp.getErrorCode());
+    }
+
+    /**
+     * 流式执行查询，以NDJSON逐行返回：首行为列信息，随后每行一条结果，末行为结束或错误信息
+     * <p>
+     * 响应开始后HTTP状态码固定为200，准入拒绝等错误通过末行的errorCode返回
+     */
+    @PostMapping(value = "/{profile}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamQuery(@PathVariable String profile,
+                                                             @RequestBody ExecuteQueryReq req) {
+        StreamingResponseBody body = out -> {
+            NdjsonRowSink sink = new NdjsonRowSink(out);
+            SqlExecution.Response resp = sqlExecution.streamSql(req.getSql(), req.getParams(), profile, req.getLimit(),
+                    req.getTimeoutMillis(), sink);
+            sink.finish(resp);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * 并发执行一批互不依赖的查询，条目可通过profile指定其他配置；各条目的状态和耗时见返回的items
+     */
+    @PostMapping("/{profile}/batch")
+    public ResponseEntity<Result<BatchSqlExecution.BatchResponse>> executeBatch(@PathVariable String profile,
+                                                                               @RequestBody BatchQueryReq req) {
+        return ResponseEntity.ok(Result.success(batchSqlExecution.executeBatch(req.getItems(), profile)));
     }
 
     @PostMapping("/{profile}/metadata")
-    public Result<MetadataQuery.Response> executeMetadataQuery(@PathVariable String profile,
-                                                               @RequestBody MetadataQueryReq req) {
-        MetadataQuery.Response resp = metadataQuery.queryMetadata(req.getOperation(), req.getTableName(), req.getSchemaName(), profile);
-        return Result.success(resp);
+    public ResponseEntity<Result<MetadataQuery.Response>> executeMetadataQuery(@PathVariable String profile,
+                                                                               @RequestBody MetadataQueryReq req) {
+        MetadataQuery.Response resp = metadataQuery.queryMetadata(req.getOperation(), req.getTableName(), req.getSchemaName(), profile,
+                req.getTableNames(), req.getKeyword(), req.getLimit(), req.getExactCount(), req.getTimeoutMillis());
+        return toResponse(resp, resp.getErrorCode());
+    }
+
+    /**
+     * 被准入控制拒绝的请求映射为对应的HTTP状态码，其余保持200
+     */
+    private <T> ResponseEntity<Result<T>> toResponse(T resp, String errorCode) {
+        HttpStatus status = statusOf(errorCode);
+        if (status == HttpStatus.OK) {
+            return ResponseEntity.ok(Result.success(resp));
+        }
+        Result<T> result = Result.<T>builder()
+                .code(status.value())
+                .message(errorCode)
+                .data(resp)
+                .build();
+        return ResponseEntity.status(status).body(result);
+    }
+
+    private HttpStatus statusOf(String errorCode) {
+        if (errorCode == null) {
+            return HttpStatus.OK;
+        }
+        return switch (errorCode) {
+            case McpConstants.ErrorCodes.BULKHEAD_FULL -> HttpStatus.TOO_MANY_REQUESTS;
+            case McpConstants.ErrorCodes.REPLICA_UNAVAILABLE, McpConstants.ErrorCodes.CIRCUIT_OPEN -> HttpStatus.SERVICE_UNAVAILABLE;
+            default -> HttpStatus.OK;
+        };
+    }
+
+    /**
+     * 把结果行写成NDJSON，第一行和之后每chunkSize行刷新一次输出
+     */
+    private class NdjsonRowSink implements SqlExecution.RowSink {
+        private final OutputStream out;
+        private final ObjectWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        private final int chunkSize = Math.max(1, properties.getStreaming().getChunkSize());
+        private int pending;
+        private boolean firstRow = true;
+        private List<String> columns;
+
+        private NdjsonRowSink(OutputStream out) {
+            this.out = new BufferedOutputStream(out);
+        }
+
+        @Override
+        public void onColumns(List<String> columns) throws IOException {
+            this.columns = columns;
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("type", "columns");
+            line.put("columns", columns);
+            write(line);
+        }
+
+        @Override
+        public boolean onRow(Object[] values) throws IOException {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("type", "row");
+            line.put("data", SqlExecution.toRow(columns, values));
+            write(line);
+            if (firstRow || ++pending >= chunkSize) {
+                out.flush();
+                firstRow = false;
+                pending = 0;
+            }
+            return true;
+        }
+
+        private void finish(SqlExecution.Response resp) throws IOException {
+            Map<String, Object> line = new LinkedHashMap<>();
+            if (resp.isSuccess()) {
+                line.put("type", "end");
+                line.put("rowCount", resp.getRowCount());
+            } else {
+                line.put("type", "error");
+                line.put("message", resp.getMessage());
+                line.put("errorCode", resp.getErrorCode());
+            }
+            write(line);
+            out.flush();
+        }
+
+        private void write(Object line) throws IOException {
+            writer.writeValue(out, line);
+            out.write('\n');
+        }
     }
 }
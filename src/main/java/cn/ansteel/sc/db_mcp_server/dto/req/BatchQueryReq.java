@@ -0,0 +1,18 @@
+package cn.ansteel.sc.db_mcp_server.dto.req;
+
+import cn.ansteel.sc.db_mcp_server.mcp.tool.BatchSqlExecution;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量查询入参
+ */
+@Data
+public class BatchQueryReq {
+
+    /**
+     * 查询列表，未指定profile的条目使用路径中的配置
+     */
+    private List<BatchSqlExecution.BatchItem> items;
+}
@@ -2,6 +2,8 @@ package cn.ansteel.sc.db_mcp_server.dto.req;
 
 import lombok.Data;
 
+import java.util.List;
+
 /**
  * @author 15566
  * @version 0.0.1
@@ -12,5 +14,21 @@ import lombok.Data;
 public class ExecuteQueryReq {
 
     private String sql;
+    /**
+     * 绑定参数，按顺序对应sql中的?占位符
+     */
+    private List<Object> params;
     private Integer limit;
+    /**
+     * 结果格式：rows（默认）、columnar、csv、tsv
+     */
+    private String format;
+    /**
+     * 上一次结果被截断时返回的续查令牌，传入后读取下一页，忽略sql和limit
+     */
+    private String continuationToken;
+    /**
+     * 本次查询的超时时间（毫秒），为空时使用配置的默认值
+     */
+    private Integer timeoutMillis;
 }
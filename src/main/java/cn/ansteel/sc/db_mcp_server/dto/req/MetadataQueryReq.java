@@ -2,6 +2,8 @@ package cn.ansteel.sc.db_mcp_server.dto.req;
 
 import lombok.Data;
 
+import java.util.List;
+
 /**
  * @author 15566
  * @version 0.0.1
@@ -15,6 +17,8 @@ public class MetadataQueryReq {
      * 操作类型：
      * list_tables,
      * describe_table,
+     * describe_schema,
+     * search_schema,
      * list_databases,
      * table_indexes,
      * table_constraints,
@@ -25,4 +29,24 @@ public class MetadataQueryReq {
 
     private String tableName;
     private String schemaName;
+    /**
+     * describe_schema一次返回的表名称，为空时返回整个模式
+     */
+    private List<String> tableNames;
+    /**
+     * search_schema的搜索词
+     */
+    private String keyword;
+    /**
+     * search_schema返回的最大结果数
+     */
+    private Integer limit;
+    /**
+     * table_statistics是否另外执行COUNT(*)精确计数
+     */
+    private Boolean exactCount;
+    /**
+     * 精确计数的超时时间（毫秒）
+     */
+    private Integer timeoutMillis;
 }
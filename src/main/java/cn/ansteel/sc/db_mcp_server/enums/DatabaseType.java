@@ -1,5 +1,6 @@
 package cn.ansteel.sc.db_mcp_server.enums;
 
+import cn.ansteel.sc.db_mcp_server.constant.DatabaseConstant;
 import com.fasterxml.jackson.annotation.JsonValue;
 
 /**
@@ -46,6 +47,29 @@ public enum DatabaseType {
         throw new IllegalArgumentException("Unknown database type: " + code);
     }
 
+    /**
+     * 根据JDBC元数据中的产品名称获取数据库类型，无法识别时返回null
+     */
+    public static DatabaseType fromProductName(String productName) {
+        if (productName == null) {
+            return null;
+        }
+        String name = productName.toLowerCase();
+        if (name.contains(DatabaseConstant.ProductNames.MYSQL)) {
+            return MYSQL;
+        }
+        if (name.contains(DatabaseConstant.ProductNames.ORACLE)) {
+            return ORACLE;
+        }
+        if (name.contains(DatabaseConstant.ProductNames.POSTGRESQL)) {
+            return POSTGRESQL;
+        }
+        if (name.contains(DatabaseConstant.ProductNames.SQL_SERVER)) {
+            return SQLSERVER;
+        }
+        return null;
+    }
+
     /**
      * 根据驱动类名获取数据库类型
      */
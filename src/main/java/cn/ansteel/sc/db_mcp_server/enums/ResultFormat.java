@@ -0,0 +1,48 @@
+package cn.ansteel.sc.db_mcp_server.enums;
+
+/**
+ * 查询结果编码格式
+ */
+public enum ResultFormat {
+    /**
+     * 每行一个以列名为键的对象
+     */
+    ROWS("rows"),
+    /**
+     * 列名只出现一次，按列存放取值，低基数字符串列字典编码
+     */
+    COLUMNAR("columnar"),
+    /**
+     * 逗号分隔文本，首行为列名
+     */
+    CSV("csv"),
+    /**
+     * 制表符分隔文本，首行为列名
+     */
+    TSV("tsv");
+
+    private final String code;
+
+    ResultFormat(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * 根据代码获取结果格式，为空时返回ROWS
+     */
+    public static ResultFormat fromCode(String code) {
+        if (code == null || code.isBlank()) {
+            return ROWS;
+        }
+        for (ResultFormat format : values()) {
+            if (format.code.equalsIgnoreCase(code.trim())) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown result format: " + code);
+    }
+}
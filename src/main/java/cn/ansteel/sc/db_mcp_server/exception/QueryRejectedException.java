@@ -0,0 +1,22 @@
+package cn.ansteel.sc.db_mcp_server.exception;
+
+import lombok.Getter;
+
+/**
+ * 查询被准入控制拒绝时抛出，不会占用数据库连接
+ */
+@Getter
+public class QueryRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 拒绝原因代码，见{@link cn.ansteel.sc.db_mcp_server.constant.McpConstants.ErrorCodes}
+     */
+    private final String errorCode;
+
+    public QueryRejectedException(String errorCode, String message) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+}
@@ -1,21 +1,54 @@
 package cn.ansteel.sc.db_mcp_server.factory;
 
 import cn.ansteel.sc.db_mcp_server.config.DatabaseConfigProperties;
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
 import cn.ansteel.sc.db_mcp_server.constant.DatabaseConstant;
 import cn.ansteel.sc.db_mcp_server.enums.DatabaseType;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.pool.HikariPool;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * 数据源工厂 - 纯粹的数据源创建工厂，不依赖其他服务
+ * 连接池注册表 - 按配置名称（副本为"配置名#replica-序号"）管理Hikari连接池的创建、替换和关闭
+ * <p>
+ * 生命周期：
+ * <ul>
+ *     <li>创建：同一配置的并发请求由创建锁合并为一次创建，新连接池执行测试语句并探测服务端信息后才注册</li>
+ *     <li>复用：注册时记录驱动、URL、账号和连接池参数的指纹，指纹不变时直接返回已注册的连接池</li>
+ *     <li>替换：指纹变化或显式刷新时先创建并验证新连接池再原子切换，验证失败时旧连接池保持不变；
+ *     被替换的连接池软淘汰空闲连接，等借出的连接归还或超过pool-swap.drain-timeout后关闭</li>
+ *     <li>淘汰：定时关闭超过pool-eviction.idle-timeout未使用的连接池，打开的连接池超过max-open-pools时
+ *     按最近使用时间关闭最久未用的，下次使用时透明地重新创建</li>
+ * </ul>
+ * 另外提供不经过连接池、带连接和读取超时的直连，用于健康检查和熔断、副本探测
  */
 @Order(1)
 @Slf4j
@@ -23,13 +56,39 @@ import java.util.concurrent.ConcurrentMap;
 public class DataSourceFactory {
 
     /**
-     * 缓存已创建的数据源
+     * 已创建的连接池，按配置名称注册
      */
-    private final ConcurrentMap<String, DataSource> dataSourceCache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, PoolEntry> dataSourceCache = new ConcurrentHashMap<>();
+
+    /**
+     * 每个配置一把创建锁，保证并发请求同一配置时只创建一个连接池
+     */
+    private final ConcurrentMap<String, ReentrantLock> creationLocks = new ConcurrentHashMap<>();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * 已被替换、正在排空借出连接的旧连接池
+     */
+    private final Set<HikariDataSource> drainingPools = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService drainExecutor;
+
+    private static final String REPLICA_SEPARATOR = "#replica-";
+
+    private static final long DRAIN_POLL_INTERVAL = 200;
+
+    private final DbMcpProperties properties;
 
     private String activeProfile;
 
-    public DataSourceFactory() {
+    public DataSourceFactory(DbMcpProperties properties) {
+        this.properties = properties;
+        this.drainExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "pool-drain");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     /**
@@ -43,16 +102,158 @@ public class DataSourceFactory {
     }
 
     /**
-     * 根据配置名称获取数据源
+     * 根据配置名称获取已创建的数据源
      */
     public DataSource getDataSource(String profile) {
-        return dataSourceCache.computeIfAbsent(profile, this::createDataSource);
+        PoolEntry entry = dataSourceCache.get(profile);
+        if (entry == null) {
+            throw new IllegalStateException("Data source not initialized for profile: " + profile);
+        }
+        return entry.dataSource;
+    }
+
+    /**
+     * 副本连接池在注册表中的名称
+     */
+    public static String replicaKey(String profile, int index) {
+        return profile + REPLICA_SEPARATOR + index;
+    }
+
+    /**
+     * 获取副本连接池，不存在或副本配置变化时创建
+     */
+    public DataSource getReplicaDataSource(String profile, int index, DatabaseConfigProperties.ConnectionConfig config) {
+        return getDataSource(replicaKey(profile, index), replicaConfig(config, index));
+    }
+
+    /**
+     * 副本的连接配置，未指定的用户名和密码沿用主库配置
+     */
+    public static DatabaseConfigProperties.ConnectionConfig replicaConfig(DatabaseConfigProperties.ConnectionConfig config, int index) {
+        DatabaseConfigProperties.ReplicaConfig replica = config.getReplicas().get(index);
+        DatabaseConfigProperties.ConnectionConfig replicaConfig = new DatabaseConfigProperties.ConnectionConfig();
+        replicaConfig.setDriverClassName(config.getDriverClassName());
+        replicaConfig.setUrl(replica.getUrl());
+        replicaConfig.setUsername(replica.getUsername() != null ? replica.getUsername() : config.getUsername());
+        replicaConfig.setPassword(replica.getPassword() != null ? replica.getPassword() : config.getPassword());
+        replicaConfig.setPool(config.getPool());
+        return replicaConfig;
+    }
+
+    /**
+     * 从连接池借出连接，最多等待timeoutMillis而不是连接池的connectionTimeout，用于后台任务在连接池繁忙时尽快放弃；
+     * 连接池尚未启动时按普通方式借出
+     */
+    public static Connection checkout(HikariDataSource dataSource, long timeoutMillis) throws SQLException {
+        if (dataSource.getHikariPoolMXBean() instanceof HikariPool pool) {
+            return pool.getConnection(timeoutMillis);
+        }
+        return dataSource.getConnection();
+    }
+
+    /**
+     * 不经过连接池建立单个物理连接，用于探测不可用或尚未创建连接池的数据库；
+     * 按方言通过驱动属性限制建立连接和读取的时间，不修改全局的DriverManager登录超时
+     */
+    public static Connection openDirectConnection(DatabaseConfigProperties.ConnectionConfig config, long timeoutMillis) throws SQLException {
+        try {
+            Class.forName(config.getDriverClassName());
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("Driver class not found: " + config.getDriverClassName(), e);
+        }
+        Properties props = new Properties();
+        if (config.getUsername() != null) {
+            props.setProperty("user", config.getUsername());
+        }
+        if (config.getPassword() != null) {
+            props.setProperty("password", config.getPassword());
+        }
+        long millis = Math.max(1000, timeoutMillis);
+        String seconds = String.valueOf(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(millis)));
+        switch (DatabaseType.fromDriverClassName(config.getDriverClassName())) {
+            case MYSQL -> {
+                props.setProperty("connectTimeout", String.valueOf(millis));
+                props.setProperty("socketTimeout", String.valueOf(millis));
+            }
+            case POSTGRESQL -> {
+                props.setProperty("connectTimeout", seconds);
+                props.setProperty("loginTimeout", seconds);
+                props.setProperty("socketTimeout", seconds);
+            }
+            case ORACLE -> {
+                props.setProperty("oracle.net.CONNECT_TIMEOUT", String.valueOf(millis));
+                props.setProperty("oracle.jdbc.ReadTimeout", String.valueOf(millis));
+            }
+            case SQLSERVER -> {
+                props.setProperty("loginTimeout", seconds);
+                props.setProperty("socketTimeout", String.valueOf(millis));
+            }
+        }
+        return DriverManager.getConnection(config.getUrl(), props);
+    }
+
+    /**
+     * 查找已创建的连接池，不存在时返回null且不会触发创建
+     */
+    public HikariDataSource findDataSource(String profile) {
+        PoolEntry entry = dataSourceCache.get(profile);
+        return entry == null ? null : entry.dataSource;
+    }
+
+    /**
+     * 根据配置名称获取数据源，不存在或配置指纹变化时按配置创建
+     */
+    public DataSource getDataSource(String profile, DatabaseConfigProperties.ConnectionConfig config) {
+        String fingerprint = fingerprint(config);
+        PoolEntry entry = dataSourceCache.get(profile);
+        if (entry != null && entry.fingerprint.equals(fingerprint)) {
+            entry.touch();
+            return entry.dataSource;
+        }
+
+        ReentrantLock lock = creationLocks.computeIfAbsent(profile, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            // 持锁后再次检查，等待期间其他线程可能已经创建完成
+            entry = dataSourceCache.get(profile);
+            if (entry != null && entry.fingerprint.equals(fingerprint)) {
+                return entry.dataSource;
+            }
+            if (entry != null) {
+                log.info("Configuration changed for profile: {}, replacing data source", profile);
+            }
+            return register(profile, config, fingerprint);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * 根据配置创建数据源
+     * 根据配置获取或创建数据源，配置未变化时复用已有连接池
      */
     public DataSource createDataSource(String profile, DatabaseConfigProperties.ConnectionConfig config) {
+        return getDataSource(profile, config);
+    }
+
+    /**
+     * 创建并验证新连接池后注册，替换下来的旧连接池排空后关闭，调用方需持有创建锁
+     */
+    private DataSource register(String profile, DatabaseConfigProperties.ConnectionConfig config, String fingerprint) {
+        HikariDataSource dataSource = buildDataSource(profile, config);
+        DatabaseServerInfo serverInfo = validate(profile, dataSource, getTestQuery(config));
+        PoolEntry previous = dataSourceCache.put(profile, new PoolEntry(dataSource, fingerprint, serverInfo));
+        if (previous != null) {
+            retire(profile, previous);
+        } else {
+            enforcePoolLimit(profile);
+        }
+        return dataSource;
+    }
+
+    /**
+     * 根据配置构建Hikari连接池
+     */
+    private HikariDataSource buildDataSource(String profile, DatabaseConfigProperties.ConnectionConfig config) {
         try {
             log.info("Creating data source for profile: {}", profile);
 
@@ -62,14 +263,28 @@ public class DataSourceFactory {
             hikariConfig.setUsername(config.getUsername());
             hikariConfig.setPassword(config.getPassword());
 
-            // 设置连接池参数
+            // 设置连接验证，连接池配置中未指定超时时使用默认值
+            hikariConfig.setValidationTimeout(DatabaseConstant.ConnectionPool.VALIDATION_TIMEOUT);
+            hikariConfig.setConnectionTimeout(DatabaseConstant.ConnectionPool.DEFAULT_CONNECTION_TIMEOUT);
+
+            // 设置连接池参数，未配置（为0）的项保持Hikari默认值
             if (config.getPool() != null) {
                 DatabaseConfigProperties.PoolConfig poolConfig = config.getPool();
-                hikariConfig.setMaximumPoolSize(poolConfig.getMaximumPoolSize());
-                hikariConfig.setMinimumIdle(poolConfig.getMinimumIdle());
-                hikariConfig.setConnectionTimeout(poolConfig.getConnectionTimeout());
-                hikariConfig.setIdleTimeout(poolConfig.getIdleTimeout());
-                hikariConfig.setMaxLifetime(poolConfig.getMaxLifetime());
+                if (poolConfig.getMaximumPoolSize() > 0) {
+                    hikariConfig.setMaximumPoolSize(poolConfig.getMaximumPoolSize());
+                }
+                if (poolConfig.getMinimumIdle() > 0) {
+                    hikariConfig.setMinimumIdle(poolConfig.getMinimumIdle());
+                }
+                if (poolConfig.getConnectionTimeout() > 0) {
+                    hikariConfig.setConnectionTimeout(poolConfig.getConnectionTimeout());
+                }
+                if (poolConfig.getIdleTimeout() > 0) {
+                    hikariConfig.setIdleTimeout(poolConfig.getIdleTimeout());
+                }
+                if (poolConfig.getMaxLifetime() > 0) {
+                    hikariConfig.setMaxLifetime(poolConfig.getMaxLifetime());
+                }
             }
 
             // 设置连接池名称
@@ -78,14 +293,9 @@ public class DataSourceFactory {
             // 设置连接测试查询
             DatabaseType dbType = DatabaseType.fromDriverClassName(config.getDriverClassName());
             hikariConfig.setConnectionTestQuery(getTestQuery(dbType));
+            applyStatementCache(hikariConfig, dbType);
 
-            // 设置连接验证
-            hikariConfig.setValidationTimeout(3000);
-            hikariConfig.setConnectionTimeout(30000);
-
-            DataSource dataSource = new HikariDataSource(hikariConfig);
-            dataSourceCache.put(profile, dataSource);
-            return dataSource;
+            return new HikariDataSource(hikariConfig);
 
         } catch (Exception e) {
             log.error("Failed to create data source for profile: {}", profile, e);
@@ -94,11 +304,72 @@ public class DataSourceFactory {
     }
 
     /**
-     * 创建数据源（从缓存中获取配置）
+     * 在新连接池接收流量前借出一个连接执行测试语句并探测服务端能力，失败时关闭新连接池，已注册的旧连接池保持不变
+     */
+    private DatabaseServerInfo validate(String profile, HikariDataSource dataSource, String testQuery) {
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute(testQuery);
+            DatabaseServerInfo serverInfo = DatabaseServerInfo.from(connection);
+            log.info("Detected {} {} for profile: {}", serverInfo.getProductName(), serverInfo.getProductVersion(), profile);
+            return serverInfo;
+        } catch (SQLException e) {
+            dataSource.close();
+            throw new RuntimeException("Validation failed for new data source of profile: " + profile, e);
+        }
+    }
+
+    /**
+     * 退役被替换的连接池：空闲连接立即关闭，借出的连接归还后关闭，全部归还或超过排空时间后关闭连接池
      */
-    private DataSource createDataSource(String profile) {
-        // 这个方法现在不应该被直接调用，因为工厂不再存储配置
-        throw new UnsupportedOperationException("Use createDataSource(String profile, DatabaseConfigProperties.ConnectionConfig config) instead");
+    private void retire(String profile, PoolEntry entry) {
+        HikariPoolMXBean poolBean = entry.dataSource.getHikariPoolMXBean();
+        if (poolBean != null) {
+            poolBean.softEvictConnections();
+        }
+        drainingPools.add(entry.dataSource);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getPoolSwap().getDrainTimeout());
+        drain(profile, entry, deadline);
+    }
+
+    private void drain(String profile, PoolEntry entry, long deadline) {
+        int active = entry.activeConnections();
+        if (active > 0 && System.nanoTime() < deadline && !drainExecutor.isShutdown()) {
+            drainExecutor.schedule(() -> drain(profile, entry, deadline), DRAIN_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+            return;
+        }
+        if (active > 0) {
+            log.warn("Drain timeout reached for retired data source of profile: {}, closing with {} active connections", profile, active);
+        }
+        drainingPools.remove(entry.dataSource);
+        entry.dataSource.close();
+        log.info("Retired data source for profile: {}", profile);
+    }
+
+    /**
+     * 计算连接配置指纹，用于判断是否需要重建连接池；只包含构建连接池用到的驱动、URL、账号和连接池参数，
+     * 只读副本、超时、并发和自适应等设置变化时不重建
+     */
+    static String fingerprint(DatabaseConfigProperties.ConnectionConfig config) {
+        StringBuilder source = new StringBuilder()
+                .append(config.getDriverClassName()).append('\n')
+                .append(config.getUrl()).append('\n')
+                .append(config.getUsername()).append('\n')
+                .append(config.getPassword());
+        DatabaseConfigProperties.PoolConfig pool = config.getPool();
+        if (pool != null) {
+            source.append('\n').append(pool.getMaximumPoolSize())
+                    .append(',').append(pool.getMinimumIdle())
+                    .append(',').append(pool.getConnectionTimeout())
+                    .append(',').append(pool.getIdleTimeout())
+                    .append(',').append(pool.getMaxLifetime());
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(source.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     /**
@@ -114,6 +385,69 @@ public class DataSourceFactory {
         };
     }
 
+    /**
+     * 按方言开启驱动的预编译语句缓存，JDBC URL中已指定的同名参数优先
+     */
+    private void applyStatementCache(HikariConfig hikariConfig, DatabaseType dbType) {
+        DbMcpProperties.StatementCache statementCache = properties.getStatementCache();
+        if (!statementCache.isEnabled()) {
+            return;
+        }
+        String size = String.valueOf(statementCache.getSize());
+        switch (dbType) {
+            case MYSQL -> {
+                hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
+                hikariConfig.addDataSourceProperty("prepStmtCacheSize", size);
+                hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+                hikariConfig.addDataSourceProperty("useServerPrepStmts", "true");
+            }
+            case ORACLE -> hikariConfig.addDataSourceProperty("oracle.jdbc.implicitStatementCacheSize", size);
+            case POSTGRESQL -> {
+                // 同一语句执行prepareThreshold次后切换为服务端命名语句
+                hikariConfig.addDataSourceProperty("prepareThreshold", "3");
+                hikariConfig.addDataSourceProperty("preparedStatementCacheQueries", size);
+            }
+            case SQLSERVER -> {
+                hikariConfig.addDataSourceProperty("disableStatementPooling", "false");
+                hikariConfig.addDataSourceProperty("statementPoolingCacheSize", size);
+            }
+        }
+    }
+
+    /**
+     * 获取配置对应数据库的服务端信息和方言能力，连接池创建时已探测并缓存
+     */
+    public DatabaseServerInfo getServerInfo(String profile) {
+        PoolEntry entry = dataSourceCache.get(profile);
+        if (entry == null) {
+            throw new IllegalStateException("Data source not initialized for profile: " + profile);
+        }
+        return entry.serverInfo;
+    }
+
+    /**
+     * 查找已创建连接池的服务端信息，连接池不存在时返回null且不会触发创建
+     */
+    public DatabaseServerInfo findServerInfo(String profile) {
+        PoolEntry entry = dataSourceCache.get(profile);
+        return entry == null ? null : entry.serverInfo;
+    }
+
+    /**
+     * 获取借出连接所属连接池的服务端信息，连接池恰好被淘汰或替换时从该连接重新探测
+     */
+    public DatabaseServerInfo getServerInfo(String profile, Connection connection) throws SQLException {
+        PoolEntry entry = dataSourceCache.get(profile);
+        return entry != null ? entry.serverInfo : DatabaseServerInfo.from(connection);
+    }
+
+    /**
+     * 获取配置对应数据库的连接测试语句
+     */
+    public String getTestQuery(DatabaseConfigProperties.ConnectionConfig config) {
+        return getTestQuery(DatabaseType.fromDriverClassName(config.getDriverClassName()));
+    }
+
     /**
      * 设置活跃的数据源配置名称
      */
@@ -133,32 +467,118 @@ public class DataSourceFactory {
      * 关闭所有数据源
      */
     public void closeAllDataSources() {
-        dataSourceCache.values().forEach(dataSource -> {
-            if (dataSource instanceof HikariDataSource) {
-                ((HikariDataSource) dataSource).close();
-            }
-        });
-        dataSourceCache.clear();
+        dataSourceCache.keySet().forEach(this::closePool);
         log.info("All data sources closed");
     }
 
     /**
-     * 关闭指定的数据源
+     * 关闭指定的数据源及其副本连接池
      */
     public void closeDataSource(String profile) {
-        DataSource dataSource = dataSourceCache.remove(profile);
-        if (dataSource instanceof HikariDataSource) {
-            ((HikariDataSource) dataSource).close();
-            log.info("Data source closed for profile: {}", profile);
+        dataSourceCache.keySet().stream()
+                .filter(key -> key.startsWith(profile + REPLICA_SEPARATOR))
+                .toList()
+                .forEach(this::closePool);
+        closePool(profile);
+    }
+
+    private void closePool(String profile) {
+        ReentrantLock lock = creationLocks.computeIfAbsent(profile, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            PoolEntry entry = dataSourceCache.remove(profile);
+            if (entry != null) {
+                entry.dataSource.close();
+                log.info("Data source closed for profile: {}", profile);
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
-     * 刷新数据源（重新创建）
+     * 刷新数据源（重新创建），新连接池验证通过并注册后旧连接池才开始排空
      */
     public DataSource refreshDataSource(String profile, DatabaseConfigProperties.ConnectionConfig config) {
-        closeDataSource(profile);
-        return createDataSource(profile, config);
+        ReentrantLock lock = creationLocks.computeIfAbsent(profile, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            return register(profile, config, fingerprint(config));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 关闭长时间未使用的连接池，下次调用时按需重新创建
+     */
+    @Scheduled(fixedDelayString = "${db-mcp.pool-eviction.sweep-interval:60000}")
+    public void evictIdlePools() {
+        long idleTimeout = properties.getPoolEviction().getIdleTimeout();
+        if (idleTimeout <= 0) {
+            return;
+        }
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+        dataSourceCache.forEach((profile, entry) -> {
+            if (System.nanoTime() - entry.lastAccess >= idleNanos) {
+                tryEvict(profile, entry, "idle for " + idleTimeout + " ms");
+            }
+        });
+    }
+
+    /**
+     * 超过全局连接池数量上限时，按最近最少使用淘汰空闲连接池
+     */
+    private void enforcePoolLimit(String justCreated) {
+        int maxOpenPools = properties.getPoolEviction().getMaxOpenPools();
+        if (maxOpenPools <= 0 || dataSourceCache.size() <= maxOpenPools) {
+            return;
+        }
+        List<Map.Entry<String, PoolEntry>> candidates = dataSourceCache.entrySet().stream()
+                .filter(e -> !e.getKey().equals(justCreated))
+                .sorted(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                .toList();
+        for (Map.Entry<String, PoolEntry> candidate : candidates) {
+            if (dataSourceCache.size() <= maxOpenPools) {
+                break;
+            }
+            tryEvict(candidate.getKey(), candidate.getValue(), "open pool limit " + maxOpenPools + " reached");
+        }
+    }
+
+    /**
+     * 在不阻塞的前提下淘汰连接池，有借出连接或正在被创建/替换的连接池跳过
+     */
+    private void tryEvict(String profile, PoolEntry entry, String reason) {
+        ReentrantLock lock = creationLocks.computeIfAbsent(profile, k -> new ReentrantLock());
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            if (dataSourceCache.get(profile) != entry || entry.activeConnections() > 0) {
+                return;
+            }
+            dataSourceCache.remove(profile);
+            entry.dataSource.close();
+            evictions.increment();
+            log.info("Evicted data source for profile: {} ({})", profile, reason);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 当前打开的连接池数量
+     */
+    public int getOpenPoolCount() {
+        return dataSourceCache.size();
+    }
+
+    /**
+     * 累计淘汰的连接池数量
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
     }
 
     /**
@@ -166,6 +586,34 @@ public class DataSourceFactory {
      */
     @PreDestroy
     public void destroy() {
+        drainExecutor.shutdownNow();
+        drainingPools.forEach(HikariDataSource::close);
+        drainingPools.clear();
         closeAllDataSources();
     }
+
+    /**
+     * 已注册的连接池及其配置指纹和服务端信息
+     */
+    private static final class PoolEntry {
+        private final HikariDataSource dataSource;
+        private final String fingerprint;
+        private final DatabaseServerInfo serverInfo;
+        private volatile long lastAccess = System.nanoTime();
+
+        private PoolEntry(HikariDataSource dataSource, String fingerprint, DatabaseServerInfo serverInfo) {
+            this.dataSource = dataSource;
+            this.fingerprint = fingerprint;
+            this.serverInfo = serverInfo;
+        }
+
+        private void touch() {
+            lastAccess = System.nanoTime();
+        }
+
+        private int activeConnections() {
+            HikariPoolMXBean poolBean = dataSource.getHikariPoolMXBean();
+            return poolBean == null ? 0 : poolBean.getActiveConnections();
+        }
+    }
 }
\ No newline at end of file
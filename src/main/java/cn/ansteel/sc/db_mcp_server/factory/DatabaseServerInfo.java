@@ -0,0 +1,86 @@
+package cn.ansteel.sc.db_mcp_server.factory;
+
+import cn.ansteel.sc.db_mcp_server.enums.DatabaseType;
+import lombok.Data;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+/**
+ * 数据库服务端信息和方言能力描述 - 连接池创建时探测一次并缓存，连接池替换时随之重建
+ */
+@Data
+public class DatabaseServerInfo {
+
+    private String productName;
+    private String productVersion;
+    private int majorVersion;
+    private int minorVersion;
+    private String driverVersion;
+    /**
+     * 按产品名称识别的数据库类型，无法识别时为null
+     */
+    private DatabaseType databaseType;
+    /**
+     * 连接的默认catalog和schema，元数据查询未指定时使用
+     */
+    private String defaultCatalog;
+    private String defaultSchema;
+    private boolean supportsFetchFirst;
+    private boolean supportsTableSample;
+    private boolean supportsWindowFunctions;
+    private boolean supportsServerCursors;
+
+    /**
+     * 从连接中读取服务端信息并推断方言能力
+     */
+    public static DatabaseServerInfo from(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        DatabaseServerInfo info = new DatabaseServerInfo();
+        info.setProductName(metaData.getDatabaseProductName());
+        info.setProductVersion(metaData.getDatabaseProductVersion());
+        info.setMajorVersion(metaData.getDatabaseMajorVersion());
+        info.setMinorVersion(metaData.getDatabaseMinorVersion());
+        info.setDriverVersion(metaData.getDriverVersion());
+        info.setDefaultCatalog(connection.getCatalog());
+        info.setDefaultSchema(connection.getSchema());
+
+        DatabaseType type = DatabaseType.fromProductName(info.getProductName());
+        info.setDatabaseType(type);
+        if (type == null) {
+            return info;
+        }
+        int major = info.getMajorVersion();
+        int minor = info.getMinorVersion();
+        switch (type) {
+            case MYSQL -> {
+                info.setSupportsWindowFunctions(major >= 8);
+                // MySQL只有开启useCursorFetch时才使用服务端游标
+                String url = metaData.getURL();
+                info.setSupportsServerCursors(url != null && url.toLowerCase().contains("usecursorfetch=true"));
+            }
+            case ORACLE -> {
+                info.setSupportsFetchFirst(major >= 12);
+                // Oracle使用SAMPLE子句
+                info.setSupportsTableSample(true);
+                info.setSupportsWindowFunctions(true);
+                info.setSupportsServerCursors(true);
+            }
+            case POSTGRESQL -> {
+                info.setSupportsFetchFirst(major > 8 || (major == 8 && minor >= 4));
+                info.setSupportsTableSample(major > 9 || (major == 9 && minor >= 5));
+                info.setSupportsWindowFunctions(major > 8 || (major == 8 && minor >= 4));
+                info.setSupportsServerCursors(true);
+            }
+            case SQLSERVER -> {
+                // OFFSET ... FETCH 从SQL Server 2012（11.x）开始支持
+                info.setSupportsFetchFirst(major >= 11);
+                info.setSupportsTableSample(true);
+                info.setSupportsWindowFunctions(true);
+                info.setSupportsServerCursors(true);
+            }
+        }
+        return info;
+    }
+}
@@ -1,12 +1,24 @@
 package cn.ansteel.sc.db_mcp_server.mcp;
 
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import cn.ansteel.sc.db_mcp_server.config.VirtualThreads;
+import cn.ansteel.sc.db_mcp_server.mcp.tool.BatchSqlExecution;
 import cn.ansteel.sc.db_mcp_server.mcp.tool.DatabaseConnectionManager;
 import cn.ansteel.sc.db_mcp_server.mcp.tool.MetadataQuery;
+import cn.ansteel.sc.db_mcp_server.mcp.tool.QueryCursorRegistry;
 import cn.ansteel.sc.db_mcp_server.mcp.tool.SqlExecution;
+import cn.ansteel.sc.db_mcp_server.service.DatabaseConfigService;
+import cn.ansteel.sc.db_mcp_server.service.FetchSizeAdvisor;
+import cn.ansteel.sc.db_mcp_server.service.QueryCancellationService;
+import cn.ansteel.sc.db_mcp_server.service.QueryResultCache;
+import cn.ansteel.sc.db_mcp_server.service.SchemaMetadataCache;
+import cn.ansteel.sc.db_mcp_server.service.StatementReuseTracker;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.ai.tool.ToolCallbackProvider;
 import org.springframework.ai.tool.method.MethodToolCallbackProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 /**
  * SpringAI MCP工具提供者
@@ -22,9 +34,10 @@ public class McpToolsProvider {
     @Bean
     public ToolCallbackProvider databaseToolCallbackProvider(
             SqlExecution sqlExecution,
+            BatchSqlExecution batchSqlExecution,
             MetadataQuery metadataQuery) {
         return MethodToolCallbackProvider.builder()
-                .toolObjects(sqlExecution, metadataQuery)
+                .toolObjects(sqlExecution, batchSqlExecution, metadataQuery)
                 .build();
     }
 
@@ -32,15 +45,31 @@ public class McpToolsProvider {
      * SqlExecution工具Bean
      */
     @Bean
-    public SqlExecution sqlExecution(DatabaseConnectionManager connectionManager) {
-        return new SqlExecution(connectionManager);
+    public SqlExecution sqlExecution(DatabaseConnectionManager connectionManager, FetchSizeAdvisor fetchSizeAdvisor,
+                                     QueryCursorRegistry cursorRegistry, QueryResultCache resultCache,
+                                     DatabaseConfigService databaseConfigService,
+                                     StatementReuseTracker statementReuseTracker,
+                                     QueryCancellationService queryCancellationService, DbMcpProperties properties,
+                                     ObjectMapper objectMapper) {
+        return new SqlExecution(connectionManager, fetchSizeAdvisor, cursorRegistry, resultCache,
+                databaseConfigService, statementReuseTracker, queryCancellationService, properties, objectMapper);
+    }
+
+    /**
+     * BatchSqlExecution工具Bean，应用关闭时停止批量执行线程池
+     */
+    @Bean(destroyMethod = "shutdown")
+    public BatchSqlExecution batchSqlExecution(SqlExecution sqlExecution, DbMcpProperties properties,
+                                               Environment environment) {
+        return new BatchSqlExecution(sqlExecution, properties, VirtualThreads.isEnabled(environment));
     }
 
     /**
      * MetadataQuery工具Bean
      */
     @Bean
-    public MetadataQuery metadataQuery(DatabaseConnectionManager connectionManager) {
-        return new MetadataQuery(connectionManager);
+    public MetadataQuery metadataQuery(DatabaseConnectionManager connectionManager, SchemaMetadataCache metadataCache,
+                                       QueryCancellationService queryCancellationService, DbMcpProperties properties) {
+        return new MetadataQuery(connectionManager, metadataCache, queryCancellationService, properties);
     }
 }
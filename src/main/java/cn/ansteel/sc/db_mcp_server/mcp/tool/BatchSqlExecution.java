@@ -0,0 +1,238 @@
+package cn.ansteel.sc.db_mcp_server.mcp.tool;
+
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import cn.ansteel.sc.db_mcp_server.config.VirtualThreads;
+import cn.ansteel.sc.db_mcp_server.constant.McpConstants;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * SQL批量执行函数 - 一次调用并发执行多条互不依赖的查询
+ * <p>
+ * 按配置分组，每个配置同时执行的条目数不超过db-mcp.batch.max-per-profile，
+ * 单条查询仍经过SqlExecution的准入控制、熔断和结果缓存；整批耗时约等于最慢的一条。
+ * 条目不保留游标，超过1000行的结果由服务端截断并标记truncated，整批超时后才完成的条目也不会留下占用连接的游标
+ */
+@Slf4j
+public class BatchSqlExecution {
+
+    static final String STATUS_SUCCESS = "success";
+    static final String STATUS_ERROR = "error";
+    static final String STATUS_REJECTED = "rejected";
+    static final String STATUS_TIMEOUT = "timeout";
+
+    private final SqlExecution sqlExecution;
+    private final DbMcpProperties properties;
+    private final ExecutorService executor;
+
+    /**
+     * @param virtualThreads 是否使用虚拟线程，开启时每个工作任务一个虚拟线程，不再受parallelism限制
+     */
+    public BatchSqlExecution(SqlExecution sqlExecution, DbMcpProperties properties, boolean virtualThreads) {
+        this.sqlExecution = sqlExecution;
+        this.properties = properties;
+        ThreadFactory threadFactory = VirtualThreads.threadFactory("sql-batch-", virtualThreads);
+        this.executor = virtualThreads
+                ? Executors.newCachedThreadPool(threadFactory)
+                : Executors.newFixedThreadPool(Math.max(1, properties.getBatch().getParallelism()), threadFactory);
+    }
+
+    /**
+     * 并发执行一批查询，结果顺序与提交顺序一致；整批超过db-mcp.batch.timeout时未完成的条目标记为timeout
+     */
+    @Tool(name = "sql批量执行器", description = "一次并发执行多条互不依赖的只读SQL查询（可跨配置），按提交顺序返回每条的结果、状态和耗时")
+    public BatchResponse executeBatch(
+            @ToolParam(description = "查询列表，每项包含sql、可选的profile、limit、params和format") List<BatchItem> items,
+            @ToolParam(description = "未指定profile的条目使用的配置名称", required = false) String defaultProfile) {
+        DbMcpProperties.Batch settings = properties.getBatch();
+        if (items == null || items.isEmpty()) {
+            return BatchResponse.error("查询列表不能为空");
+        }
+        if (items.size() > settings.getMaxItems()) {
+            return BatchResponse.error(String.format("单次最多执行%d条查询，当前%d条", settings.getMaxItems(), items.size()));
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(settings.getTimeout());
+        AtomicReferenceArray<ItemResult> results = new AtomicReferenceArray<>(items.size());
+        String[] profiles = new String[items.size()];
+        Map<String, Queue<Integer>> byProfile = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            BatchItem item = items.get(i);
+            profiles[i] = item != null && item.getProfile() != null && !item.getProfile().isBlank()
+                    ? item.getProfile() : defaultProfile;
+            byProfile.computeIfAbsent(profiles[i] == null ? "" : profiles[i], k -> new ConcurrentLinkedQueue<>()).add(i);
+        }
+
+        // 每个配置启动有限个工作任务依次取出本配置的条目，避免同一配置的条目占满准入队列
+        List<Future<?>> workers = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(items.size());
+        byProfile.forEach((profile, queue) -> {
+            int workerCount = Math.max(1, Math.min(settings.getMaxPerProfile(), queue.size()));
+            String resolved = profile.isEmpty() ? null : profile;
+            for (int w = 0; w < workerCount; w++) {
+                workers.add(executor.submit(() -> {
+                    Integer index;
+                    while ((index = queue.poll()) != null && !Thread.currentThread().isInterrupted()) {
+                        results.set(index, runItem(index, items.get(index), resolved, deadline));
+                        done.countDown();
+                    }
+                }));
+            }
+        });
+
+        boolean finished;
+        try {
+            finished = done.await(settings.getTimeout(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finished = false;
+        }
+        if (!finished) {
+            workers.forEach(worker -> worker.cancel(true));
+            log.warn("批量查询超过{} ms，未完成的条目已取消", settings.getTimeout());
+        }
+
+        BatchResponse response = new BatchResponse();
+        List<ItemResult> itemResults = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            ItemResult result = results.get(i);
+            if (result == null) {
+                result = ItemResult.timeout(i, profiles[i], settings.getTimeout());
+            }
+            itemResults.add(result);
+        }
+        response.setItems(itemResults);
+        response.setSucceeded((int) itemResults.stream().filter(r -> STATUS_SUCCESS.equals(r.getStatus())).count());
+        response.setFailed(itemResults.size() - response.getSucceeded());
+        response.setSuccess(response.getFailed() == 0);
+        response.setMessage(String.format("批量查询完成：成功%d条，失败%d条", response.getSucceeded(), response.getFailed()));
+        response.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return response;
+    }
+
+    /**
+     * 执行一条查询，超时时间不超过整批剩余的时间，整批超时时语句随之被取消
+     */
+    private ItemResult runItem(int index, BatchItem item, String profile, long deadline) {
+        long start = System.nanoTime();
+        ItemResult result = new ItemResult();
+        result.setIndex(index);
+        result.setProfile(profile);
+        if (item == null) {
+            result.setStatus(STATUS_ERROR);
+            result.setResult(SqlExecution.Response.error("查询条目不能为空"));
+            return result;
+        }
+        int remaining = (int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+        Integer timeout = item.getTimeoutMillis() != null && item.getTimeoutMillis() > 0
+                ? Math.min(item.getTimeoutMillis(), remaining) : remaining;
+        try {
+            SqlExecution.Response response = sqlExecution.executeSql(item.getSql(), item.getParams(), profile,
+                    item.getLimit(), item.getFormat(), timeout, false);
+            result.setResult(response);
+            result.setStatus(statusOf(response));
+        } catch (Exception e) {
+            log.error("批量查询第{}条执行失败: {}", index, e.getMessage(), e);
+            result.setStatus(STATUS_ERROR);
+            result.setResult(SqlExecution.Response.error("SQL执行失败: " + e.getMessage()));
+        }
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+
+    private String statusOf(SqlExecution.Response response) {
+        if (response.getCancelReason() != null || McpConstants.ErrorCodes.QUERY_CANCELLED.equals(response.getErrorCode())) {
+            return STATUS_TIMEOUT;
+        }
+        if (response.isSuccess()) {
+            return STATUS_SUCCESS;
+        }
+        return response.getErrorCode() != null ? STATUS_REJECTED : STATUS_ERROR;
+    }
+
+    /**
+     * 关闭批量执行线程池
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 批量查询中的一条
+     */
+    @Data
+    public static class BatchItem {
+        private String profile;
+        private String sql;
+        private Integer limit;
+        private List<Object> params;
+        private String format;
+        /**
+         * 该条查询的超时时间（毫秒），不超过整批剩余的时间
+         */
+        private Integer timeoutMillis;
+    }
+
+    /**
+     * 单条查询的执行结果
+     */
+    @Data
+    public static class ItemResult {
+        /**
+         * 在提交列表中的位置，从0开始
+         */
+        private int index;
+        private String profile;
+        /**
+         * success、error、rejected（被准入控制或熔断拒绝）或timeout（超时取消，result中可能包含部分结果）
+         */
+        private String status;
+        private long elapsedMillis;
+        private SqlExecution.Response result;
+
+        static ItemResult timeout(int index, String profile, long timeout) {
+            ItemResult result = new ItemResult();
+            result.setIndex(index);
+            result.setProfile(profile);
+            result.setStatus(STATUS_TIMEOUT);
+            result.setElapsedMillis(timeout);
+            result.setResult(SqlExecution.Response.error("批量查询超时，该条目未完成"));
+            return result;
+        }
+    }
+
+    @Data
+    public static class BatchResponse {
+        private boolean success;
+        private String message;
+        private int succeeded;
+        private int failed;
+        private long elapsedMillis;
+        private List<ItemResult> items;
+
+        public static BatchResponse error(String message) {
+            BatchResponse response = new BatchResponse();
+            response.setSuccess(false);
+            response.setMessage(message);
+            response.setItems(List.of());
+            return response;
+        }
+    }
+}
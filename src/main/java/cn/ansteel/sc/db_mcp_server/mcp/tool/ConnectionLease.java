@@ -0,0 +1,98 @@
+package cn.ansteel.sc.db_mcp_server.mcp.tool;
+
+import cn.ansteel.sc.db_mcp_server.factory.DatabaseServerInfo;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 连接租约 - 每次工具调用从连接池借出一个连接，close时归还连接池
+ * <p>
+ * 租约只能释放一次，重复close不会重复归还连接或重复统计
+ */
+@Slf4j
+public class ConnectionLease implements AutoCloseable {
+
+    @Getter
+    private final String profile;
+    /**
+     * 实际借出连接的连接池，主库时与profile相同，副本时为副本连接池名称
+     */
+    @Getter
+    private final String target;
+    private final Connection connection;
+    /**
+     * 目标连接池缓存的服务端信息和方言能力，避免每次调用读取连接元数据
+     */
+    @Getter
+    private final DatabaseServerInfo serverInfo;
+    @Getter
+    private final long acquireNanos;
+    @Getter
+    private final long queueMillis;
+    private final long leasedAt;
+    private final Consumer<ConnectionLease> releaseCallback;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+    /**
+     * 使用连接期间发生的SQL异常，释放时用于熔断统计
+     */
+    @Getter
+    private volatile Throwable failure;
+
+    ConnectionLease(String profile, String target, Connection connection, DatabaseServerInfo serverInfo,
+                    long acquireNanos, long queueMillis, Consumer<ConnectionLease> releaseCallback) {
+        this.profile = profile;
+        this.target = target;
+        this.connection = connection;
+        this.serverInfo = serverInfo;
+        this.acquireNanos = acquireNanos;
+        this.queueMillis = queueMillis;
+        this.leasedAt = System.nanoTime();
+        this.releaseCallback = releaseCallback;
+    }
+
+    /**
+     * 获取租约持有的连接，调用方不要自行关闭该连接
+     */
+    public Connection getConnection() {
+        if (released.get()) {
+            throw new IllegalStateException("连接租约已释放: " + profile);
+        }
+        return connection;
+    }
+
+    /**
+     * 记录使用连接期间发生的异常
+     */
+    public void markFailed(Throwable failure) {
+        this.failure = failure;
+    }
+
+    /**
+     * 租约已持有的时长（毫秒）
+     */
+    public long getHoldMillis() {
+        return (System.nanoTime() - leasedAt) / 1_000_000;
+    }
+
+    /**
+     * 归还连接到连接池
+     */
+    @Override
+    public void close() {
+        if (!released.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.warn("归还数据库连接失败: profile={}, error={}", profile, e.getMessage());
+        } finally {
+            releaseCallback.accept(this);
+        }
+    }
+}
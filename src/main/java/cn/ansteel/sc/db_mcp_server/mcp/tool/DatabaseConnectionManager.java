@@ -1,20 +1,32 @@
 package cn.ansteel.sc.db_mcp_server.mcp.tool;
 
 import cn.ansteel.sc.db_mcp_server.config.DatabaseConfigProperties;
+import cn.ansteel.sc.db_mcp_server.exception.QueryRejectedException;
 import cn.ansteel.sc.db_mcp_server.factory.DataSourceFactory;
+import cn.ansteel.sc.db_mcp_server.factory.DatabaseServerInfo;
+import cn.ansteel.sc.db_mcp_server.service.CircuitBreakerService;
 import cn.ansteel.sc.db_mcp_server.service.DatabaseConfigService;
-import lombok.CustomLog;
+import cn.ansteel.sc.db_mcp_server.service.ProfileBulkheadService;
+import cn.ansteel.sc.db_mcp_server.service.ReplicaRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import org.springframework.stereotype.Service;
 
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 数据库连接管理器 - 使用DatabaseConfigService配置
+ * <p>
+ * 每次工具调用通过{@link #acquire(String)}从连接池借出一个连接，租约关闭即归还，
+ * 同一配置下的并发调用各自持有独立的池化连接；配置了只读副本时由{@link ReplicaRouter}选择目标连接池
  */
 @Slf4j
 @RequiredArgsConstructor
@@ -23,33 +35,115 @@ public class DatabaseConnectionManager {
 
     private final DatabaseConfigService databaseConfigService;
     private final DataSourceFactory dataSourceFactory;
-    private final Map<String, Connection> connectionMap = new ConcurrentHashMap<>();
+    private final ProfileBulkheadService bulkheadService;
+    private final ReplicaRouter replicaRouter;
+    private final CircuitBreakerService circuitBreakerService;
+    private final Map<String, LeaseCounter> leaseCounters = new ConcurrentHashMap<>();
 
-    public Connection getConnection(String profile) throws Exception {
-        log.info("获取数据库连接: profile={}", profile);
-        Connection cc = connectionMap.get(profile);
-        if (cc != null) {
-            return cc;
-        }
+    /**
+     * 借出一个连接租约，调用方需使用try-with-resources释放
+     * <p>
+     * 先检查熔断状态并经过该配置的并发准入控制，再从连接池借出连接，租约关闭时归还连接并释放许可
+     *
+     * @throws QueryRejectedException 该配置已熔断或并发已满
+     */
+    public ConnectionLease acquire(String profile) throws Exception {
+        log.debug("借出数据库连接: profile={}", profile);
+        DatabaseConfigProperties.ConnectionConfig config = getConfig(profile);
+        circuitBreakerService.checkAllowed(profile);
+        ProfileBulkheadService.Permit permit = bulkheadService.admit(profile, config);
+
+        LeaseCounter counter = leaseCounters.computeIfAbsent(profile, k -> new LeaseCounter());
+        long start = System.nanoTime();
+        ReplicaRouter.Route route = null;
         try {
-            // 通过DatabaseConfigService获取配置
-            DatabaseConfigProperties.ConnectionConfig config = databaseConfigService.getConnectionConfig(profile);
-            if (config == null) {
-                throw new IllegalArgumentException("数据源配置不存在: " + profile);
+            route = replicaRouter.route(profile, config);
+            Connection connection;
+            try {
+                connection = route.getDataSource().getConnection();
+            } catch (SQLException e) {
+                if (isClosed(route)) {
+                    // 连接池恰好在路由后被空闲淘汰，重新路由一次以透明地重新打开
+                    route.release();
+                    route = replicaRouter.route(profile, config);
+                    connection = route.getDataSource().getConnection();
+                } else if (!route.isReplica()) {
+                    throw e;
+                } else {
+                    route.release();
+                    route = replicaRouter.onReplicaFailure(profile, config, route, e);
+                    connection = route.getDataSource().getConnection();
+                }
             }
-
-            // 使用DataSourceFactory创建数据源并获取连接
-            javax.sql.DataSource dataSource = dataSourceFactory.createDataSource(profile, config);
-            Connection connection = dataSource.getConnection();
-            log.info("成功创建数据库连接: profile={}", profile);
-            connectionMap.put(profile, connection);
-            return connection;
+            long acquireNanos = System.nanoTime() - start;
+            counter.onAcquire(acquireNanos);
+            ReplicaRouter.Route leased = route;
+            DatabaseServerInfo serverInfo;
+            try {
+                serverInfo = dataSourceFactory.getServerInfo(route.getTarget(), connection);
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+            return new ConnectionLease(profile, route.getTarget(), connection, serverInfo, acquireNanos, permit.getQueueMillis(), lease -> {
+                counter.onRelease(lease.getHoldMillis());
+                leased.release();
+                permit.release();
+                if (lease.getFailure() == null) {
+                    circuitBreakerService.onSuccess(profile);
+                } else {
+                    circuitBreakerService.onFailure(profile, lease.getFailure());
+                }
+            });
         } catch (Exception e) {
+            if (route != null) {
+                route.release();
+            }
+            permit.release();
+            counter.failedAcquires.increment();
+            circuitBreakerService.onFailure(profile, e);
             log.error("获取数据库连接失败: profile={}, error={}", profile, e.getMessage(), e);
             throw e;
         }
     }
 
+    /**
+     * 获取各配置的连接租约统计
+     */
+    public Map<String, LeaseStats> getLeaseStats() {
+        Map<String, LeaseStats> stats = new TreeMap<>();
+        leaseCounters.forEach((profile, counter) -> stats.put(profile, counter.snapshot()));
+        return stats;
+    }
+
+    /**
+     * 获取某个配置的连接租约统计，未使用过时返回null
+     */
+    public LeaseStats getLeaseStats(String profile) {
+        LeaseCounter counter = leaseCounters.get(profile);
+        return counter == null ? null : counter.snapshot();
+    }
+
+    /**
+     * 获取配置主连接池的服务端信息，连接池尚未创建或已被淘汰时返回null，不借出连接
+     */
+    public DatabaseServerInfo findServerInfo(String profile) {
+        return dataSourceFactory.findServerInfo(profile);
+    }
+
+    private boolean isClosed(ReplicaRouter.Route route) {
+        return route.getDataSource() instanceof HikariDataSource dataSource && dataSource.isClosed();
+    }
+
+    private DatabaseConfigProperties.ConnectionConfig getConfig(String profile) {
+        // 通过DatabaseConfigService获取配置
+        DatabaseConfigProperties.ConnectionConfig config = databaseConfigService.getConnectionConfig(profile);
+        if (config == null) {
+            throw new IllegalArgumentException("数据源配置不存在: " + profile);
+        }
+        return config;
+    }
+
     /**
      * 添加数据源配置 - 委托给DatabaseConfigService
      */
@@ -66,4 +160,62 @@ public class DatabaseConnectionManager {
         // 委托给DatabaseConfigService来添加配置
         databaseConfigService.addDataSource(profile, config);
     }
-}
\ No newline at end of file
+
+    /**
+     * 单个配置的租约计数器
+     */
+    private static class LeaseCounter {
+        private final AtomicLong activeLeases = new AtomicLong();
+        private final AtomicLong peakActiveLeases = new AtomicLong();
+        private final LongAdder totalLeases = new LongAdder();
+        private final LongAdder failedAcquires = new LongAdder();
+        private final LongAdder totalAcquireNanos = new LongAdder();
+        private final LongAdder releasedLeases = new LongAdder();
+        private final LongAdder totalHoldMillis = new LongAdder();
+        private final AtomicLong maxHoldMillis = new AtomicLong();
+
+        void onAcquire(long acquireNanos) {
+            long active = activeLeases.incrementAndGet();
+            peakActiveLeases.accumulateAndGet(active, Math::max);
+            totalLeases.increment();
+            totalAcquireNanos.add(acquireNanos);
+        }
+
+        void onRelease(long holdMillis) {
+            activeLeases.decrementAndGet();
+            releasedLeases.increment();
+            totalHoldMillis.add(holdMillis);
+            maxHoldMillis.accumulateAndGet(holdMillis, Math::max);
+        }
+
+        LeaseStats snapshot() {
+            long total = totalLeases.sum();
+            long released = releasedLeases.sum();
+            LeaseStats stats = new LeaseStats();
+            stats.setActiveLeases(activeLeases.get());
+            stats.setPeakActiveLeases(peakActiveLeases.get());
+            stats.setTotalLeases(total);
+            stats.setFailedAcquires(failedAcquires.sum());
+            stats.setTotalAcquireMillis(totalAcquireNanos.sum() / 1_000_000.0);
+            stats.setAvgAcquireMillis(total == 0 ? 0 : totalAcquireNanos.sum() / 1_000_000.0 / total);
+            stats.setAvgHoldMillis(released == 0 ? 0 : (double) totalHoldMillis.sum() / released);
+            stats.setMaxHoldMillis(maxHoldMillis.get());
+            return stats;
+        }
+    }
+
+    /**
+     * 连接租约统计
+     */
+    @Data
+    public static class LeaseStats {
+        private long activeLeases;
+        private long peakActiveLeases;
+        private long totalLeases;
+        private long failedAcquires;
+        private double totalAcquireMillis;
+        private double avgAcquireMillis;
+        private double avgHoldMillis;
+        private long maxHoldMillis;
+    }
+}
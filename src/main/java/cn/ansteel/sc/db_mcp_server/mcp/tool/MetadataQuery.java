@@ -1,6 +1,17 @@
 package cn.ansteel.sc.db_mcp_server.mcp.tool;
 
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
 import cn.ansteel.sc.db_mcp_server.constant.McpConstants;
+import cn.ansteel.sc.db_mcp_server.enums.DatabaseType;
+import cn.ansteel.sc.db_mcp_server.exception.QueryRejectedException;
+import cn.ansteel.sc.db_mcp_server.factory.DatabaseServerInfo;
+import cn.ansteel.sc.db_mcp_server.metadata.SchemaScope;
+import cn.ansteel.sc.db_mcp_server.metadata.SchemaSearchIndex;
+import cn.ansteel.sc.db_mcp_server.metadata.TableDetails;
+import cn.ansteel.sc.db_mcp_server.metadata.TableMetadata;
+import cn.ansteel.sc.db_mcp_server.metadata.TableStatistics;
+import cn.ansteel.sc.db_mcp_server.service.QueryCancellationService;
+import cn.ansteel.sc.db_mcp_server.service.SchemaMetadataCache;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.tool.annotation.Tool;
@@ -9,10 +20,16 @@ import org.springframework.ai.tool.annotation.ToolParam;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 元数据查询函数 - 真实数据库操作版本
@@ -20,18 +37,35 @@ import java.util.Map;
 @Slf4j
 public class MetadataQuery {
 
+    /**
+     * search_schema单次返回结果数量的上限
+     */
+    private static final int MAX_SEARCH_LIMIT = 200;
+
     private final DatabaseConnectionManager connectionManager;
+    private final SchemaMetadataCache metadataCache;
+    private final QueryCancellationService queryCancellationService;
+    private final DbMcpProperties properties;
 
-    public MetadataQuery(DatabaseConnectionManager connectionManager) {
+    public MetadataQuery(DatabaseConnectionManager connectionManager, SchemaMetadataCache metadataCache,
+                         QueryCancellationService queryCancellationService, DbMcpProperties properties) {
         this.connectionManager = connectionManager;
+        this.metadataCache = metadataCache;
+        this.queryCancellationService = queryCancellationService;
+        this.properties = properties;
     }
 
     @Tool(name = "元数据查询器", description = "查询数据库元数据信息，包括表列表、表结构、索引、约束等")
     public Response queryMetadata(
-            @ToolParam(description = "操作类型：list_tables, describe_table, list_databases, table_indexes, table_constraints, table_statistics, column_info") String operation,
+            @ToolParam(description = "操作类型：list_tables, describe_table, describe_schema, search_schema, list_databases, table_indexes, table_constraints, table_statistics, column_info") String operation,
             @ToolParam(description = "表名称") String tableName,
             @ToolParam(description = "模式名称") String schemaName,
-            @ToolParam(description = "数据库连接配置名称") String profile) {
+            @ToolParam(description = "数据库连接配置名称") String profile,
+            @ToolParam(description = "describe_schema一次返回的表名称列表，为空时返回整个模式", required = false) List<String> tableNames,
+            @ToolParam(description = "search_schema的搜索词，匹配表名、列名和备注，支持下划线/驼峰拆分、前缀、拼写容错和中文备注", required = false) String keyword,
+            @ToolParam(description = "search_schema返回的最大结果数", required = false) Integer limit,
+            @ToolParam(description = "table_statistics是否另外执行COUNT(*)精确计数，默认只返回数据库统计信息中的估算行数，大表计数需要全表扫描", required = false) Boolean exactCount,
+            @ToolParam(description = "精确计数的超时时间（毫秒），超时后取消计数并只返回估算值；不填使用配置的默认值", required = false) Integer timeoutMillis) {
 
         // 创建Request对象来保持兼容性
         Request request = new Request();
@@ -39,100 +73,218 @@ public class MetadataQuery {
         request.setTableName(tableName);
         request.setSchemaName(schemaName);
         request.setProfile(profile);
+        request.setTableNames(tableNames);
+        request.setKeyword(keyword);
+        request.setLimit(limit);
+        request.setExactCount(exactCount);
+        request.setTimeoutMillis(timeoutMillis);
         log.info(McpConstants.LogMessages.METADATA_QUERY, request.getOperation(), request.getTableName());
 
         try {
             // 使用传入的profile参数，如果为空则使用默认值
             String profileToUse = request.getProfile() != null ? request.getProfile() : McpConstants.Defaults.DEFAULT_PROFILE;
-            try (Connection conn = connectionManager.getConnection(profileToUse)) {
-                DatabaseMetaData metaData = conn.getMetaData();
-
-                // 从连接URL中提取数据库名称
-                String databaseName = extractDatabaseName(conn);
-                log.info(McpConstants.LogMessages.USING_DATABASE, databaseName);
-
-                return switch (request.getOperation()) {
-                    case McpConstants.Operations.LIST_TABLES -> listTables(metaData, databaseName, request.getSchemaName());
-                    case McpConstants.Operations.DESCRIBE_TABLE -> describeTable(metaData, databaseName, request.getSchemaName(), request.getTableName());
-                    case McpConstants.Operations.LIST_DATABASES -> listDatabases(metaData);
-                    case McpConstants.Operations.TABLE_INDEXES -> getTableIndexes(metaData, databaseName, request.getSchemaName(), request.getTableName());
-                    case McpConstants.Operations.TABLE_CONSTRAINTS -> getTableConstraints(metaData, databaseName, request.getSchemaName(), request.getTableName());
-                    case McpConstants.Operations.TABLE_STATISTICS -> getTableStatistics(conn, databaseName, request.getSchemaName(), request.getTableName());
-                    case McpConstants.Operations.COLUMN_INFO -> getColumnInfo(metaData, databaseName, request.getSchemaName(), request.getTableName());
-                    default -> Response.error(String.format(McpConstants.ErrorMessages.UNSUPPORTED_OPERATION, request.getOperation()));
-                };
+
+            // 表结构类操作先查元数据缓存，命中时不借出连接
+            DatabaseServerInfo cachedServerInfo = connectionManager.findServerInfo(profileToUse);
+            if (cachedServerInfo != null) {
+                Response cached = fromCache(request, metadataCache.scopeOf(profileToUse, cachedServerInfo, request.getSchemaName()), cachedServerInfo);
+                if (cached != null) {
+                    return cached;
+                }
             }
+
+            try (ConnectionLease lease = connectionManager.acquire(profileToUse)) {
+                Connection conn = lease.getConnection();
+                try {
+                    DatabaseMetaData metaData = conn.getMetaData();
+                    DatabaseServerInfo serverInfo = lease.getServerInfo();
+
+                    // 使用连接池创建时探测的默认catalog
+                    String databaseName = serverInfo != null ? serverInfo.getDefaultCatalog() : null;
+                    log.info(McpConstants.LogMessages.USING_DATABASE, databaseName);
+                    SchemaScope scope = metadataCache.scopeOf(profileToUse, serverInfo, request.getSchemaName());
+
+                    return switch (request.getOperation()) {
+                        case McpConstants.Operations.LIST_TABLES -> listTables(metadataCache.getTables(scope, conn, serverInfo), serverInfo);
+                        case McpConstants.Operations.DESCRIBE_TABLE, McpConstants.Operations.COLUMN_INFO,
+                             McpConstants.Operations.TABLE_INDEXES, McpConstants.Operations.TABLE_CONSTRAINTS -> {
+                            if (isBlank(request.getTableName())) {
+                                yield Response.error(McpConstants.ErrorMessages.TABLE_NAME_EMPTY);
+                            }
+                            TableMetadata table = metadataCache.getTable(scope, request.getTableName(), conn, serverInfo);
+                            yield describe(request.getOperation(), request.getTableName(), table);
+                        }
+                        case McpConstants.Operations.DESCRIBE_SCHEMA ->
+                                describeSchema(metadataCache.describe(scope, tableNamesOf(request), conn, serverInfo), scope, serverInfo, request);
+                        case McpConstants.Operations.SEARCH_SCHEMA -> {
+                            if (isBlank(request.getKeyword())) {
+                                yield Response.error("搜索词不能为空");
+                            }
+                            long start = System.nanoTime();
+                            yield searchSchema(metadataCache.search(scope, request.getKeyword(), searchLimitOf(request), conn, serverInfo),
+                                    request, start);
+                        }
+                        case McpConstants.Operations.LIST_DATABASES -> listDatabases(metaData);
+                        case McpConstants.Operations.TABLE_STATISTICS -> getTableStatistics(lease, scope, serverInfo, request);
+                        default -> Response.error(String.format(McpConstants.ErrorMessages.UNSUPPORTED_OPERATION, request.getOperation()));
+                    };
+                } catch (SQLException e) {
+                    lease.markFailed(e);
+                    throw e;
+                }
+            }
+        } catch (QueryRejectedException e) {
+            log.warn("元数据查询被拒绝: {}", e.getMessage());
+            return Response.rejected(e.getErrorCode(), e.getMessage());
         } catch (Exception e) {
             log.error("元数据查询失败: {}", e.getMessage(), e);
             return Response.error(String.format(McpConstants.ErrorMessages.QUERY_FAILED, e.getMessage()));
         }
     }
 
-    private Response listTables(DatabaseMetaData metaData, String databaseName, String schemaName) throws Exception {
-        List<Map<String, Object>> tables = new ArrayList<>();
+    /**
+     * 从元数据缓存返回结果，未缓存或不是表结构类操作时返回null
+     */
+    private Response fromCache(Request request, SchemaScope scope, DatabaseServerInfo serverInfo) {
+        String operation = request.getOperation();
+        if (McpConstants.Operations.LIST_TABLES.equals(operation)) {
+            List<TableMetadata> tables = metadataCache.findTables(scope);
+            return tables != null ? listTables(tables, serverInfo) : null;
+        }
+        if (McpConstants.Operations.DESCRIBE_TABLE.equals(operation) || McpConstants.Operations.COLUMN_INFO.equals(operation)
+                || McpConstants.Operations.TABLE_INDEXES.equals(operation) || McpConstants.Operations.TABLE_CONSTRAINTS.equals(operation)) {
+            TableMetadata table = isBlank(request.getTableName()) ? null : metadataCache.findTable(scope, request.getTableName());
+            return table != null ? describe(operation, request.getTableName(), table) : null;
+        }
+        if (McpConstants.Operations.DESCRIBE_SCHEMA.equals(operation)) {
+            List<TableMetadata> tables = metadataCache.findDescribed(scope, tableNamesOf(request));
+            return tables != null ? describeSchema(tables, scope, serverInfo, request) : null;
+        }
+        if (McpConstants.Operations.SEARCH_SCHEMA.equals(operation) && !isBlank(request.getKeyword())) {
+            long start = System.nanoTime();
+            List<SchemaSearchIndex.SearchHit> hits = metadataCache.findSearch(scope, request.getKeyword(), searchLimitOf(request));
+            return hits != null ? searchSchema(hits, request, start) : null;
+        }
+        return null;
+    }
 
-        log.info(McpConstants.LogMessages.QUERY_TABLES, databaseName, schemaName);
+    private int searchLimitOf(Request request) {
+        int limit = request.getLimit() != null && request.getLimit() > 0 ? request.getLimit() : metadataCache.getSearchLimit();
+        return Math.min(limit, MAX_SEARCH_LIMIT);
+    }
 
-        try (ResultSet rs = metaData.getTables(databaseName, schemaName, McpConstants.Defaults.WILDCARD, McpConstants.TableTypes.SUPPORTED_TYPES)) {
-            while (rs.next()) {
-                Map<String, Object> table = new LinkedHashMap<>();
-                table.put(McpConstants.JsonFields.TABLE_NAME, rs.getString(McpConstants.DatabaseFields.TABLE_NAME));
-                table.put(McpConstants.JsonFields.TABLE_TYPE, rs.getString(McpConstants.DatabaseFields.TABLE_TYPE));
-                table.put(McpConstants.JsonFields.REMARKS, rs.getString(McpConstants.DatabaseFields.REMARKS));
-                table.put(McpConstants.JsonFields.CATALOG, rs.getString(McpConstants.DatabaseFields.TABLE_CAT));
-                table.put(McpConstants.JsonFields.SCHEMA, rs.getString(McpConstants.DatabaseFields.TABLE_SCHEM));
-                tables.add(table);
+    /**
+     * 输出按相关度排列的表和列，首次搜索包含加载整个模式和建立索引的耗时
+     */
+    private Response searchSchema(List<SchemaSearchIndex.SearchHit> hits, Request request, long start) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put(McpConstants.JsonFields.OPERATION, McpConstants.Operations.SEARCH_SCHEMA);
+        data.put("keyword", request.getKeyword());
+        data.put("hitCount", hits.size());
+        data.put("searchMillis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        data.put("hits", hits);
+        return Response.success("模式搜索成功", data);
+    }
+
+    /**
+     * describe_schema的表名称列表，未指定时返回null表示整个模式
+     */
+    private List<String> tableNamesOf(Request request) {
+        if (request.getTableNames() == null) {
+            return null;
+        }
+        List<String> names = request.getTableNames().stream()
+                .filter(name -> !isBlank(name))
+                .map(String::trim)
+                .distinct()
+                .toList();
+        return names.isEmpty() ? null : names;
+    }
+
+    /**
+     * 按表分组输出多张表的列、主键、索引和外键，外键只列出本表引用其他表的部分，每个外键关系只出现一次
+     */
+    private Response describeSchema(List<TableMetadata> tableMetadata, SchemaScope scope, DatabaseServerInfo serverInfo, Request request) {
+        List<Map<String, Object>> tables = new ArrayList<>();
+        Set<String> found = new HashSet<>();
+        for (TableMetadata metadata : tableMetadata) {
+            TableDetails details = metadata.details() != null ? metadata.details() : TableDetails.EMPTY;
+            Map<String, Object> table = new LinkedHashMap<>();
+            table.put(McpConstants.JsonFields.TABLE_NAME, metadata.name());
+            table.put(McpConstants.JsonFields.TABLE_TYPE, metadata.type());
+            table.put(McpConstants.JsonFields.REMARKS, metadata.remarks());
+            table.put(McpConstants.JsonFields.COLUMNS, details.columns());
+            table.put(McpConstants.JsonFields.PRIMARY_KEYS, details.primaryKeys());
+            table.put(McpConstants.JsonFields.INDEXES, details.indexes());
+            table.put("foreignKeys", details.importedKeys());
+            tables.add(table);
+            found.add(metadata.name().toLowerCase());
+        }
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put(McpConstants.JsonFields.OPERATION, McpConstants.Operations.DESCRIBE_SCHEMA);
+        data.put(McpConstants.JsonFields.SCHEMA, scope.schema() != null ? scope.schema() : scope.catalog());
+        data.put(McpConstants.JsonFields.DATABASE_TYPE, getDatabaseType(serverInfo));
+        data.put(McpConstants.JsonFields.TABLE_COUNT, tables.size());
+        List<String> requested = tableNamesOf(request);
+        if (requested != null) {
+            List<String> missing = requested.stream().filter(name -> !found.contains(name.toLowerCase())).toList();
+            if (!missing.isEmpty()) {
+                data.put("missingTables", missing);
             }
         }
+        data.put(McpConstants.JsonFields.TABLES, tables);
+        return Response.success("模式结构查询成功", data);
+    }
+
+    private Response listTables(List<TableMetadata> tableMetadata, DatabaseServerInfo serverInfo) {
+        List<Map<String, Object>> tables = new ArrayList<>();
+        for (TableMetadata metadata : tableMetadata) {
+            Map<String, Object> table = new LinkedHashMap<>();
+            table.put(McpConstants.JsonFields.TABLE_NAME, metadata.name());
+            table.put(McpConstants.JsonFields.TABLE_TYPE, metadata.type());
+            table.put(McpConstants.JsonFields.REMARKS, metadata.remarks());
+            table.put(McpConstants.JsonFields.CATALOG, metadata.catalog());
+            table.put(McpConstants.JsonFields.SCHEMA, metadata.schema());
+            tables.add(table);
+        }
 
         Map<String, Object> data = new LinkedHashMap<>();
         data.put(McpConstants.JsonFields.OPERATION, McpConstants.Operations.LIST_TABLES);
         data.put(McpConstants.JsonFields.TABLE_COUNT, tables.size());
-        data.put(McpConstants.JsonFields.DATABASE_TYPE, getDatabaseType(metaData));
+        data.put(McpConstants.JsonFields.DATABASE_TYPE, getDatabaseType(serverInfo));
         data.put(McpConstants.JsonFields.TABLES, tables);
 
         return Response.success(McpConstants.SuccessMessages.TABLE_LIST_SUCCESS, data);
     }
 
-    private Response describeTable(DatabaseMetaData metaData, String databaseName, String schemaName, String tableName) throws Exception {
-        if (tableName == null || tableName.trim().isEmpty()) {
-            return Response.error("表名不能为空");
-        }
-
-        List<Map<String, Object>> columns = new ArrayList<>();
-        try (ResultSet rs = metaData.getColumns(databaseName, schemaName, tableName, "%")) {
-            while (rs.next()) {
-                Map<String, Object> column = new LinkedHashMap<>();
-                column.put("name", rs.getString("COLUMN_NAME"));
-                column.put("type", rs.getString("TYPE_NAME"));
-                column.put("size", rs.getInt("COLUMN_SIZE"));
-                column.put("nullable", rs.getInt("NULLABLE") == DatabaseMetaData.columnNullable);
-                column.put("defaultValue", rs.getString("COLUMN_DEF"));
-                column.put("remarks", rs.getString("REMARKS"));
-                columns.add(column);
+    /**
+     * 按操作类型输出表的列、索引或外键，表不存在时返回空列表
+     */
+    private Response describe(String operation, String tableName, TableMetadata table) {
+        TableDetails details = table != null && table.details() != null ? table.details() : TableDetails.EMPTY;
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put(McpConstants.JsonFields.OPERATION, McpConstants.Operations.COLUMN_INFO.equals(operation)
+                ? McpConstants.Operations.DESCRIBE_TABLE : operation);
+        data.put(McpConstants.JsonFields.TABLE_NAME, tableName);
+        switch (operation) {
+            case McpConstants.Operations.TABLE_INDEXES -> {
+                data.put(McpConstants.JsonFields.INDEXES, details.indexes());
+                data.put(McpConstants.JsonFields.INDEX_COUNT, details.indexes().size());
+                return Response.success("索引信息查询成功", data);
             }
-        }
-
-        // 获取主键信息
-        List<Map<String, Object>> primaryKeys = new ArrayList<>();
-        try (ResultSet rs = metaData.getPrimaryKeys(databaseName, schemaName, tableName)) {
-            while (rs.next()) {
-                Map<String, Object> pk = new LinkedHashMap<>();
-                pk.put("columnName", rs.getString("COLUMN_NAME"));
-                pk.put("keySeq", rs.getInt("KEY_SEQ"));
-                pk.put("pkName", rs.getString("PK_NAME"));
-                primaryKeys.add(pk);
+            case McpConstants.Operations.TABLE_CONSTRAINTS -> {
+                data.put(McpConstants.JsonFields.CONSTRAINTS, details.exportedKeys());
+                data.put(McpConstants.JsonFields.CONSTRAINT_COUNT, details.exportedKeys().size());
+                return Response.success("约束信息查询成功", data);
+            }
+            default -> {
+                data.put(McpConstants.JsonFields.COLUMNS, details.columns());
+                data.put(McpConstants.JsonFields.PRIMARY_KEYS, details.primaryKeys());
+                data.put(McpConstants.JsonFields.COLUMN_COUNT, details.columns().size());
+                return Response.success("表结构查询成功", data);
             }
         }
-
-        Map<String, Object> data = new LinkedHashMap<>();
-        data.put("operation", "describe_table");
-        data.put("tableName", tableName);
-        data.put("columns", columns);
-        data.put("primaryKeys", primaryKeys);
-        data.put("columnCount", columns.size());
-
-        return Response.success("表结构查询成功", data);
     }
 
     private Response listDatabases(DatabaseMetaData metaData) throws Exception {
@@ -153,159 +305,113 @@ public class MetadataQuery {
         return Response.success("获取数据库列表成功", data);
     }
 
-    private Response getTableIndexes(DatabaseMetaData metaData, String databaseName, String schemaName, String tableName) throws Exception {
-        if (tableName == null || tableName.trim().isEmpty()) {
-            return Response.error("表名不能为空");
-        }
-
-        List<Map<String, Object>> indexes = new ArrayList<>();
-        try (ResultSet rs = metaData.getIndexInfo(databaseName, schemaName, tableName, false, true)) {
-            while (rs.next()) {
-                Map<String, Object> index = new LinkedHashMap<>();
-                index.put("name", rs.getString("INDEX_NAME"));
-                index.put("columnName", rs.getString("COLUMN_NAME"));
-                index.put("nonUnique", rs.getBoolean("NON_UNIQUE"));
-                index.put("type", rs.getString("TYPE"));
-                index.put("ordinalPosition", rs.getInt("ORDINAL_POSITION"));
-                indexes.add(index);
-            }
-        }
-
-        Map<String, Object> data = new LinkedHashMap<>();
-        data.put("operation", "table_indexes");
-        data.put("tableName", tableName);
-        data.put("indexes", indexes);
-        data.put("indexCount", indexes.size());
-
-        return Response.success("索引信息查询成功", data);
-    }
-
-    private Response getTableConstraints(DatabaseMetaData metaData, String databaseName, String schemaName, String tableName) throws Exception {
-        if (tableName == null || tableName.trim().isEmpty()) {
-            return Response.error("表名不能为空");
+    /**
+     * 返回数据库统计信息中的估算行数、空间占用和统计收集时间，不扫描表；exactCount为true时另外在超时时间内执行COUNT(*)
+     */
+    private Response getTableStatistics(ConnectionLease lease, SchemaScope scope, DatabaseServerInfo serverInfo, Request request) throws SQLException {
+        if (isBlank(request.getTableName())) {
+            return Response.error(McpConstants.ErrorMessages.TABLE_NAME_EMPTY);
         }
-
-        List<Map<String, Object>> constraints = new ArrayList<>();
-        try (ResultSet rs = metaData.getExportedKeys(databaseName, schemaName, tableName)) {
-            while (rs.next()) {
-                Map<String, Object> constraint = new LinkedHashMap<>();
-                constraint.put("pkTable", rs.getString("PKTABLE_NAME"));
-                constraint.put("pkColumn", rs.getString("PKCOLUMN_NAME"));
-                constraint.put("fkTable", rs.getString("FKTABLE_NAME"));
-                constraint.put("fkColumn", rs.getString("FKCOLUMN_NAME"));
-                constraint.put("fkName", rs.getString("FK_NAME"));
-                constraint.put("pkName", rs.getString("PK_NAME"));
-                constraints.add(constraint);
-            }
+        Connection conn = lease.getConnection();
+        TableMetadata table = metadataCache.resolveTable(scope, request.getTableName().trim(), conn, serverInfo);
+        if (table == null) {
+            return Response.error("表不存在: " + request.getTableName());
         }
-
-        Map<String, Object> data = new LinkedHashMap<>();
-        data.put("operation", "table_constraints");
-        data.put("tableName", tableName);
-        data.put("constraints", constraints);
-        data.put("constraintCount", constraints.size());
-
-        return Response.success("约束信息查询成功", data);
-    }
-
-    private Response getTableStatistics(Connection conn, String databaseName, String schemaName, String tableName) throws Exception {
-        if (tableName == null || tableName.trim().isEmpty()) {
-            return Response.error("表名不能为空");
+        DatabaseType type = serverInfo != null ? serverInfo.getDatabaseType() : null;
+        String owner = type == DatabaseType.MYSQL ? table.catalog() : table.schema();
+        if (owner == null && type != null) {
+            owner = scope.owner(type);
         }
+        TableStatistics estimate = TableStatistics.load(conn, type, owner, table.name());
 
         Map<String, Object> stats = new LinkedHashMap<>();
-        try (var stmt = conn.createStatement();
-             var rs = stmt.executeQuery("SELECT COUNT(*) as row_count FROM " + tableName)) {
-            if (rs.next()) {
-                stats.put("rowCount", rs.getLong("row_count"));
-            }
+        stats.put("rowCount", estimate != null ? estimate.rowEstimate() : null);
+        stats.put("rowCountExact", false);
+        if (estimate != null) {
+            stats.put("estimatedRowCount", estimate.rowEstimate());
+            stats.put("totalBytes", estimate.totalBytes());
+            stats.put("dataBytes", estimate.dataBytes());
+            stats.put("indexBytes", estimate.indexBytes());
+            Long bytes = estimate.totalBytes() != null ? estimate.totalBytes() : estimate.dataBytes();
+            stats.put("sizeMB", bytes != null ? Math.round(bytes / 1024.0 / 1024.0 * 100) / 100.0 : null);
+            stats.put("lastAnalyzed", estimate.lastAnalyzed());
+            stats.put("lastModified", estimate.lastModified());
         }
-
-        // 获取表大小信息（MySQL特有）
-        try (var stmt = conn.createStatement();
-             var rs = stmt.executeQuery("SELECT ROUND(((data_length + index_length) / 1024 / 1024), 2) AS 'size_mb' " +
-                     "FROM information_schema.TABLES WHERE table_schema = DATABASE() AND table_name = '" + tableName + "'")) {
-            if (rs.next()) {
-                stats.put("sizeMB", rs.getDouble("size_mb"));
-            }
-        } catch (Exception e) {
-            log.debug("获取表大小信息失败", e);
+        if (Boolean.TRUE.equals(request.getExactCount())) {
+            countRows(lease, scope.profile(), owner, table.name(), request.getTimeoutMillis(), stats);
         }
 
         Map<String, Object> data = new LinkedHashMap<>();
-        data.put("operation", "table_statistics");
-        data.put("tableName", tableName);
+        data.put(McpConstants.JsonFields.OPERATION, McpConstants.Operations.TABLE_STATISTICS);
+        data.put(McpConstants.JsonFields.TABLE_NAME, table.name());
+        data.put(McpConstants.JsonFields.SCHEMA, owner);
+        data.put(McpConstants.JsonFields.DATABASE_TYPE, getDatabaseType(serverInfo));
+        data.put("statisticsSource", estimate != null ? "catalog" : "unavailable");
         data.put("statistics", stats);
 
         return Response.success("表统计信息查询成功", data);
     }
 
-    private Response getColumnInfo(DatabaseMetaData metaData, String databaseName, String schemaName, String tableName) throws Exception {
-        return describeTable(metaData, databaseName, schemaName, tableName);
-    }
-
-    private String getDatabaseType(DatabaseMetaData metaData) throws Exception {
-        String productName = metaData.getDatabaseProductName();
-        if (productName.toLowerCase().contains("mysql")) return "mysql";
-        if (productName.toLowerCase().contains("oracle")) return "oracle";
-        if (productName.toLowerCase().contains("postgresql")) return "postgresql";
-        if (productName.toLowerCase().contains("sql server")) return "sqlserver";
-        return "unknown";
-    }
-
     /**
-     * 从JDBC连接URL中提取数据库名称
+     * 执行COUNT(*)精确计数，语句登记到查询取消服务，超时或被取消时只记录原因，保留估算值
      */
-    private String extractDatabaseName(Connection conn) throws Exception {
-        String url = conn.getMetaData().getURL();
-        log.debug("JDBC URL: {}", url);
-
-        if (url == null || url.trim().isEmpty()) {
-            return null;
-        }
-
-        // 处理不同数据库类型的URL格式
-        if (url.startsWith("jdbc:mysql:")) {
-            // MySQL格式: jdbc:mysql://host:port/database
-            int lastSlash = url.lastIndexOf('/');
-            if (lastSlash != -1) {
-                String databasePart = url.substring(lastSlash + 1);
-                int questionMark = databasePart.indexOf('?');
-                if (questionMark != -1) {
-                    databasePart = databasePart.substring(0, questionMark);
-                }
-                return databasePart.isEmpty() ? null : databasePart;
+    private void countRows(ConnectionLease lease, String profile, String owner, String tableName, Integer timeoutMillis,
+                           Map<String, Object> stats) throws SQLException {
+        Connection conn = lease.getConnection();
+        String sql = "SELECT COUNT(*) FROM " + qualifiedName(conn.getMetaData(), owner, tableName);
+        long configured = properties.getTableStatistics().getExactCountTimeout();
+        Integer requested = timeoutMillis != null && timeoutMillis > 0 ? timeoutMillis
+                : configured > 0 ? Integer.valueOf((int) Math.min(Integer.MAX_VALUE, configured)) : null;
+        long timeout = queryCancellationService.resolveTimeout(requested, 0);
+        long start = System.nanoTime();
+        QueryCancellationService.RunningQuery running = null;
+        try (Statement stmt = conn.createStatement()) {
+            // 驱动的查询超时作为兜底，截止时间由后台检查并取消语句
+            if (timeout > 0) {
+                stmt.setQueryTimeout((int) Math.max(1, (timeout + 999) / 1000));
             }
-        } else if (url.startsWith("jdbc:postgresql:")) {
-            // PostgreSQL格式: jdbc:postgresql://host:port/database
-            int lastSlash = url.lastIndexOf('/');
-            if (lastSlash != -1) {
-                String databasePart = url.substring(lastSlash + 1);
-                int questionMark = databasePart.indexOf('?');
-                if (questionMark != -1) {
-                    databasePart = databasePart.substring(0, questionMark);
+            running = queryCancellationService.register(profile, lease.getTarget(), sql, stmt, conn, lease.getServerInfo(), timeout);
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                if (rs.next()) {
+                    stats.put("rowCount", rs.getLong(1));
+                    stats.put("rowCountExact", true);
                 }
-                return databasePart.isEmpty() ? null : databasePart;
             }
-        } else if (url.startsWith("jdbc:oracle:")) {
-            // Oracle格式: jdbc:oracle:thin:@host:port:SID
-            // 或者 jdbc:oracle:thin:@host:port/service_name
-            int lastColon = url.lastIndexOf(':');
-            if (lastColon != -1 && url.substring(0, lastColon).split(":").length >= 5) {
-                return url.substring(lastColon + 1);
-            }
-        } else if (url.startsWith("jdbc:sqlserver:")) {
-            // SQL Server格式: jdbc:sqlserver://host:port;databaseName=database
-            String[] parts = url.split(";");
-            for (String part : parts) {
-                if (part.startsWith("databaseName=")) {
-                    return part.substring("databaseName=".length());
-                }
+            stats.put("exactCountMillis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (SQLException e) {
+            if (e instanceof SQLTimeoutException || (running != null && running.isCancelled())) {
+                String reason = running != null && running.isCancelled() ? running.getCancelReason() : e.getMessage();
+                log.warn("精确计数被取消: {} {}", tableName, reason);
+                stats.put("exactCountError", "精确计数被取消: " + reason);
+                return;
             }
+            throw e;
+        } finally {
+            queryCancellationService.unregister(running);
         }
+    }
 
-        log.warn("无法从URL中提取数据库名称: {}", url);
-        return null;
+    /**
+     * 用驱动的标识符引号拼接带模式名称的表名，表名来自目录，引号字符按SQL规则双写
+     */
+    private String qualifiedName(DatabaseMetaData metaData, String owner, String tableName) throws SQLException {
+        String quote = metaData.getIdentifierQuoteString();
+        quote = quote == null ? "" : quote.trim();
+        String name = quoteIdentifier(quote, tableName);
+        return owner == null ? name : quoteIdentifier(quote, owner) + "." + name;
+    }
+
+    private String quoteIdentifier(String quote, String identifier) {
+        return quote.isEmpty() ? identifier : quote + identifier.replace(quote, quote + quote) + quote;
+    }
+
+    private boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private String getDatabaseType(DatabaseServerInfo serverInfo) {
+        DatabaseType type = serverInfo != null ? serverInfo.getDatabaseType() : null;
+        return type != null ? type.getCode() : "unknown";
     }
 
     @Data
@@ -314,12 +420,21 @@ public class MetadataQuery {
         private String tableName;
         private String schemaName;
         private String profile;
+        private List<String> tableNames;
+        private String keyword;
+        private Integer limit;
+        private Boolean exactCount;
+        private Integer timeoutMillis;
     }
 
     @Data
     public static class Response {
         private boolean success;
         private String message;
+        /**
+         * 失败原因代码，仅在被准入控制等机制拒绝时返回
+         */
+        private String errorCode;
         private Map<String, Object> data;
         private long executionTime;
 
@@ -338,5 +453,11 @@ public class MetadataQuery {
             response.setMessage(message);
             return response;
         }
+
+        public static Response rejected(String errorCode, String message) {
+            Response response = error(message);
+            response.setErrorCode(errorCode);
+            return response;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package cn.ansteel.sc.db_mcp_server.mcp.tool;
+
+import cn.ansteel.sc.db_mcp_server.enums.ResultFormat;
+import cn.ansteel.sc.db_mcp_server.service.FetchSizeAdvisor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * 结果被截断后保留的服务端游标 - 持有连接租约、语句和结果集，续查时从上次停下的位置继续读取
+ */
+@Slf4j
+class QueryCursor {
+
+    @Getter
+    private final String profile;
+    @Getter
+    private final String sql;
+    @Getter
+    private final ConnectionLease lease;
+    @Getter
+    private final Statement statement;
+    @Getter
+    private final ResultSet resultSet;
+    @Getter
+    private final List<String> columns;
+    @Getter
+    private final ResultFormat format;
+    private final FetchSizeAdvisor.FetchPlan plan;
+    private final boolean autoCommit;
+    /**
+     * 上一页读满后预读的下一行，续查时最先返回
+     */
+    @Getter
+    private Object[] pendingRow;
+    /**
+     * 下一页第一行在整个结果中的位置
+     */
+    @Getter
+    private long offset;
+    /**
+     * 结果已全部读完，关闭时无需中止读取
+     */
+    private boolean exhausted;
+    private volatile long lastAccess = System.nanoTime();
+
+    QueryCursor(String profile, String sql, ConnectionLease lease, Statement statement, ResultSet resultSet,
+                List<String> columns, ResultFormat format, FetchSizeAdvisor.FetchPlan plan, boolean autoCommit) {
+        this.profile = profile;
+        this.sql = sql;
+        this.lease = lease;
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.columns = columns;
+        this.format = format;
+        this.plan = plan;
+        this.autoCommit = autoCommit;
+    }
+
+    /**
+     * 记录读完一页后的位置和预读行
+     */
+    void advance(int rowCount, Object[] pendingRow) {
+        this.offset += rowCount;
+        this.pendingRow = pendingRow;
+        this.exhausted = pendingRow == null;
+        this.lastAccess = System.nanoTime();
+    }
+
+    long getIdleNanos() {
+        return System.nanoTime() - lastAccess;
+    }
+
+    /**
+     * 读取时发生的异常记录到租约上，用于熔断统计
+     */
+    void markFailed(Throwable failure) {
+        lease.markFailed(failure);
+    }
+
+    /**
+     * 关闭结果集和语句，结束游标事务并归还连接租约；结果未读完时先中止读取
+     */
+    void close() {
+        try {
+            if (exhausted) {
+                resultSet.close();
+                plan.restore(lease.getConnection(), autoCommit);
+                statement.close();
+            } else {
+                discard(statement, resultSet, plan, lease.getConnection(), autoCommit);
+            }
+        } catch (Exception e) {
+            log.warn("关闭查询游标失败: profile={}, error={}", profile, e.getMessage());
+        } finally {
+            lease.close();
+        }
+    }
+
+    /**
+     * 丢弃未读完的结果集：先取消语句再关闭，关闭时的异常只记录不抛出。
+     * MySQL流式读取在executeQuery返回后cancel不生效，驱动关闭结果集时会读完剩余的全部行，
+     * 因此直接中止物理连接，连接归还时由连接池淘汰
+     */
+    static void discard(Statement statement, ResultSet resultSet, FetchSizeAdvisor.FetchPlan plan,
+                        Connection connection, boolean autoCommit) {
+        try {
+            statement.cancel();
+        } catch (SQLException e) {
+            log.debug("取消未读完的语句失败: {}", e.getMessage());
+        }
+        if ("streaming".equals(plan.getMode())) {
+            try {
+                connection.unwrap(Connection.class).abort(Runnable::run);
+            } catch (SQLException e) {
+                log.warn("中止流式读取的连接失败: {}", e.getMessage());
+            }
+        }
+        try {
+            if (resultSet != null) {
+                resultSet.close();
+            }
+            plan.restore(connection, autoCommit);
+            statement.close();
+        } catch (SQLException e) {
+            log.debug("关闭未读完的结果集: {}", e.getMessage());
+        }
+    }
+}
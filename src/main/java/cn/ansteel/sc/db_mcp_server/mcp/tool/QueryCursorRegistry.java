@@ -0,0 +1,112 @@
+package cn.ansteel.sc.db_mcp_server.mcp.tool;
+
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 续查游标注册表 - 按续查令牌保存被截断查询的游标
+ * <p>
+ * 每个配置同时保留的游标数量有上限，游标空闲超过idle-timeout后关闭并归还连接；
+ * 续查期间游标从注册表中取出，同一令牌不会被并发读取
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueryCursorRegistry {
+
+    private final DbMcpProperties properties;
+    private final ConcurrentMap<String, QueryCursor> cursors = new ConcurrentHashMap<>();
+    /**
+     * 每个配置已保留（含正在续查）的游标数量
+     */
+    private final ConcurrentMap<String, Integer> openCounts = new ConcurrentHashMap<>();
+
+    /**
+     * 该配置是否还能保留新的游标
+     */
+    boolean hasCapacity(String profile) {
+        return openCounts.getOrDefault(profile, 0) < properties.getCursor().getMaxPerProfile();
+    }
+
+    /**
+     * 保留游标并返回续查令牌，超过配置上限时返回null，由调用方关闭游标
+     */
+    String open(QueryCursor cursor) {
+        int max = properties.getCursor().getMaxPerProfile();
+        boolean[] admitted = new boolean[1];
+        openCounts.compute(cursor.getProfile(), (key, count) -> {
+            int current = count == null ? 0 : count;
+            admitted[0] = current < max;
+            return admitted[0] ? current + 1 : current;
+        });
+        if (!admitted[0]) {
+            return null;
+        }
+        String token = UUID.randomUUID().toString().replace("-", "");
+        cursors.put(token, cursor);
+        return token;
+    }
+
+    /**
+     * 取出令牌对应的游标用于续查，令牌不存在或已过期时返回null
+     */
+    QueryCursor take(String token) {
+        return token == null ? null : cursors.remove(token);
+    }
+
+    /**
+     * 续查后还有剩余结果时放回游标
+     */
+    void park(String token, QueryCursor cursor) {
+        cursors.put(token, cursor);
+    }
+
+    /**
+     * 结果读完或出错时关闭游标
+     */
+    void close(QueryCursor cursor) {
+        cursor.close();
+        openCounts.computeIfPresent(cursor.getProfile(), (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * 关闭空闲超时的游标
+     */
+    @Scheduled(fixedDelayString = "${db-mcp.cursor.sweep-interval:10000}")
+    public void closeIdleCursors() {
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(properties.getCursor().getIdleTimeout());
+        cursors.forEach((token, cursor) -> {
+            if (cursor.getIdleNanos() >= idleNanos && cursors.remove(token, cursor)) {
+                close(cursor);
+                log.info("续查游标空闲超时已关闭: profile={}, offset={}", cursor.getProfile(), cursor.getOffset());
+            }
+        });
+    }
+
+    /**
+     * 获取各配置当前保留的游标数量
+     */
+    public Map<String, Integer> getOpenCounts() {
+        return new TreeMap<>(openCounts);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        cursors.forEach((token, cursor) -> {
+            if (cursors.remove(token, cursor)) {
+                close(cursor);
+            }
+        });
+    }
+}
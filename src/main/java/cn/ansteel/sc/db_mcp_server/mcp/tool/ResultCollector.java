@@ -0,0 +1,152 @@
+package cn.ansteel.sc.db_mcp_server.mcp.tool;
+
+import cn.ansteel.sc.db_mcp_server.enums.ResultFormat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 非流式查询的结果收集器 - 读取ResultSet时直接按目标格式构建结果，最多收集maxRows行
+ */
+class ResultCollector implements SqlExecution.RowSink {
+
+    /**
+     * 字典编码的最大字典大小
+     */
+    private static final int MAX_DICTIONARY_SIZE = 256;
+
+    private final ResultFormat format;
+    private final int maxRows;
+    private List<String> columns;
+    private List<Map<String, Object>> rows;
+    private List<List<Object>> columnValues;
+    private StringBuilder text;
+    private int rowCount;
+
+    ResultCollector(ResultFormat format, int maxRows) {
+        this.format = format;
+        this.maxRows = maxRows;
+    }
+
+    @Override
+    public void onColumns(List<String> columns) {
+        this.columns = columns;
+        switch (format) {
+            case ROWS -> rows = new ArrayList<>();
+            case COLUMNAR -> {
+                columnValues = new ArrayList<>(columns.size());
+                for (int i = 0; i < columns.size(); i++) {
+                    columnValues.add(new ArrayList<>());
+                }
+            }
+            case CSV, TSV -> {
+                text = new StringBuilder();
+                appendLine(columns.toArray());
+            }
+        }
+    }
+
+    @Override
+    public boolean onRow(Object[] values) {
+        switch (format) {
+            case ROWS -> rows.add(SqlExecution.toRow(columns, values));
+            case COLUMNAR -> {
+                for (int i = 0; i < values.length; i++) {
+                    columnValues.get(i).add(values[i]);
+                }
+            }
+            case CSV, TSV -> appendLine(values);
+        }
+        return ++rowCount < maxRows;
+    }
+
+    /**
+     * 把收集到的结果写入响应
+     */
+    void applyTo(SqlExecution.Response response) {
+        response.setFormat(format.getCode());
+        response.setRowCount(rowCount);
+        switch (format) {
+            case ROWS -> response.setRows(rows);
+            case COLUMNAR -> response.setColumnar(encodeColumnar());
+            case CSV, TSV -> response.setText(text.toString());
+        }
+    }
+
+    /**
+     * 低基数字符串列替换为字典下标，字典与列按位置对应，未编码的列对应null
+     */
+    private SqlExecution.ColumnarData encodeColumnar() {
+        List<List<String>> dictionaries = new ArrayList<>(columnValues.size());
+        boolean encoded = false;
+        for (List<Object> values : columnValues) {
+            List<String> dictionary = dictionaryOf(values);
+            if (dictionary != null) {
+                Map<String, Integer> index = new HashMap<>();
+                for (int i = 0; i < dictionary.size(); i++) {
+                    index.put(dictionary.get(i), i);
+                }
+                values.replaceAll(value -> value == null ? null : index.get((String) value));
+                encoded = true;
+            }
+            dictionaries.add(dictionary);
+        }
+
+        SqlExecution.ColumnarData data = new SqlExecution.ColumnarData();
+        data.setValues(columnValues);
+        data.setDictionaries(encoded ? dictionaries : null);
+        return data;
+    }
+
+    /**
+     * 列中全部非空值都是字符串且不同取值足够少时返回字典，否则返回null
+     */
+    private List<String> dictionaryOf(List<Object> values) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (Object value : values) {
+            if (value == null) {
+                continue;
+            }
+            if (!(value instanceof String str)) {
+                return null;
+            }
+            distinct.add(str);
+            if (distinct.size() > MAX_DICTIONARY_SIZE) {
+                return null;
+            }
+        }
+        // 不同取值至少要重复一次才值得编码
+        if (distinct.isEmpty() || distinct.size() * 2 > values.size()) {
+            return null;
+        }
+        return new ArrayList<>(distinct);
+    }
+
+    private void appendLine(Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                text.append(format == ResultFormat.CSV ? ',' : '\t');
+            }
+            if (values[i] != null) {
+                String value = values[i].toString();
+                text.append(format == ResultFormat.CSV ? escapeCsv(value) : escapeTsv(value));
+            }
+        }
+        text.append('\n');
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String escapeTsv(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+}
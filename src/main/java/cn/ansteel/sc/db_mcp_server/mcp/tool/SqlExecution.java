@@ -1,20 +1,40 @@
 package cn.ansteel.sc.db_mcp_server.mcp.tool;
 
-import cn.ansteel.sc.db_mcp_server.constant.DatabaseConstant;
+import cn.ansteel.sc.db_mcp_server.config.DatabaseConfigProperties;
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import cn.ansteel.sc.db_mcp_server.constant.McpConstants;
+import cn.ansteel.sc.db_mcp_server.enums.DatabaseType;
+import cn.ansteel.sc.db_mcp_server.enums.ResultFormat;
+import cn.ansteel.sc.db_mcp_server.exception.QueryRejectedException;
+import cn.ansteel.sc.db_mcp_server.factory.DatabaseServerInfo;
+import cn.ansteel.sc.db_mcp_server.service.DatabaseConfigService;
+import cn.ansteel.sc.db_mcp_server.service.FetchSizeAdvisor;
+import cn.ansteel.sc.db_mcp_server.service.QueryCancellationService;
+import cn.ansteel.sc.db_mcp_server.service.QueryResultCache;
+import cn.ansteel.sc.db_mcp_server.service.StatementReuseTracker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.server.McpSyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.mcp.McpToolUtils;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
 
 import java.sql.Connection;
-import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * SQL执行函数 - 使用SpringAI注解的真实数据库操作版本
@@ -22,41 +42,213 @@ import java.util.Map;
 @Slf4j
 public class SqlExecution {
 
+    /**
+     * 非流式查询最多返回的行数
+     */
+    private static final int MAX_BUFFERED_ROWS = 1000;
+
+    private static final String STREAM_LOGGER = "sql-stream";
+
+    /**
+     * 用于估算行宽的采样行数
+     */
+    private static final int WIDTH_SAMPLE_ROWS = 100;
+
     private final DatabaseConnectionManager connectionManager;
+    private final FetchSizeAdvisor fetchSizeAdvisor;
+    private final QueryCursorRegistry cursorRegistry;
+    private final QueryResultCache resultCache;
+    private final DatabaseConfigService databaseConfigService;
+    private final StatementReuseTracker statementReuseTracker;
+    private final QueryCancellationService queryCancellationService;
+    private final DbMcpProperties properties;
+    private final ObjectMapper objectMapper;
 
-    public SqlExecution(DatabaseConnectionManager connectionManager) {
+    public SqlExecution(DatabaseConnectionManager connectionManager, FetchSizeAdvisor fetchSizeAdvisor,
+                        QueryCursorRegistry cursorRegistry, QueryResultCache resultCache,
+                        DatabaseConfigService databaseConfigService, StatementReuseTracker statementReuseTracker,
+                        QueryCancellationService queryCancellationService, DbMcpProperties properties,
+                        ObjectMapper objectMapper) {
         this.connectionManager = connectionManager;
+        this.fetchSizeAdvisor = fetchSizeAdvisor;
+        this.cursorRegistry = cursorRegistry;
+        this.resultCache = resultCache;
+        this.databaseConfigService = databaseConfigService;
+        this.statementReuseTracker = statementReuseTracker;
+        this.queryCancellationService = queryCancellationService;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
     }
 
     @Tool(name = "sql执行器", description = "执行SQL查询语句，支持SELECT、SHOW、DESCRIBE、EXPLAIN等只读操作")
     public Response executeSql(
-            @ToolParam(description = "SQL查询语句") String sql,
+            @ToolParam(description = "SQL查询语句，使用续查令牌时可省略", required = false) String sql,
             @ToolParam(description = "数据库连接配置名称") String profile,
-            @ToolParam(description = "查询结果限制条数",required = false) Integer limit) {
+            @ToolParam(description = "查询结果限制条数",required = false) Integer limit,
+            @ToolParam(description = "绑定参数，按顺序对应SQL中的?占位符；值相同而参数不同的查询请使用占位符而不是拼接字面量", required = false) List<Object> params,
+            @ToolParam(description = "结果格式：rows（默认，每行一个对象）、columnar（按列存放，低基数字符串列字典编码）、csv、tsv", required = false) String format,
+            @ToolParam(description = "是否以日志通知分块推送结果行，开启后返回结果中只包含列和行数", required = false) Boolean stream,
+            @ToolParam(description = "上一次结果被截断时返回的续查令牌，传入后读取下一页", required = false) String continuationToken,
+            @ToolParam(description = "本次查询的超时时间（毫秒），超时后取消语句并返回已读取的部分结果；不填使用配置的默认值", required = false) Integer timeoutMillis,
+            ToolContext toolContext) {
+        if (continuationToken != null && !continuationToken.isBlank()) {
+            return continueSql(continuationToken, profile);
+        }
+        if (Boolean.TRUE.equals(stream)) {
+            Optional<McpSyncServerExchange> exchange = McpToolUtils.getMcpExchange(toolContext);
+            if (exchange.isPresent()) {
+                return streamSql(sql, params, profile, limit, timeoutMillis, new NotificationRowSink(exchange.get()));
+            }
+            log.info("客户端不支持通知推送，按非流式返回结果");
+        }
+        return executeSql(sql, params, profile, limit, format, timeoutMillis);
+    }
+
+    /**
+     * 执行查询并按指定格式在内存中收集结果，最多返回{@value #MAX_BUFFERED_ROWS}行，
+     * 结果被截断时尽量保留游标并返回续查令牌；配置开启结果缓存时，未截断的结果在过期前直接从缓存返回
+     *
+     * @param timeoutMillis 超时时间（毫秒），为空时使用配置的默认值
+     */
+    public Response executeSql(String sql, List<Object> params, String profile, Integer limit, String format,
+                               Integer timeoutMillis) {
+        return executeSql(sql, params, profile, limit, format, timeoutMillis, true);
+    }
+
+    /**
+     * 执行查询并在内存中收集结果
+     *
+     * @param retainCursor 结果被截断时是否保留游标；为false时由服务端按maxRows限制返回行数，
+     *                     调用方拿不到或不会返回续查令牌时（如批量执行）使用，避免游标占用连接租约和准入许可直到过期
+     */
+    Response executeSql(String sql, List<Object> params, String profile, Integer limit, String format,
+                        Integer timeoutMillis, boolean retainCursor) {
+        ResultFormat resultFormat;
+        try {
+            resultFormat = ResultFormat.fromCode(format);
+        } catch (IllegalArgumentException e) {
+            return Response.error(e.getMessage());
+        }
+        profile = resolveProfile(profile);
+        Integer cacheLimit = limit != null && limit > 0 ? limit : null;
+        long cacheTtl = sql != null && isSafeQuery(sql) ? resultCacheTtl(profile) : 0;
+        if (cacheTtl > 0 && resultCache.get(profile, sql, params, cacheLimit, resultFormat.getCode()) instanceof Response cached) {
+            return cached.copyAsCacheHit();
+        }
+
+        // 额外安全限制
+        ResultCollector collector = new ResultCollector(resultFormat, MAX_BUFFERED_ROWS);
+        Response response = execute(sql, params, profile, limit, timeoutMillis, collector, resultFormat, retainCursor);
+        if (response.isSuccess()) {
+            collector.applyTo(response);
+            if (cacheTtl > 0 && !response.isTruncated()) {
+                resultCache.put(profile, sql, params, cacheLimit, resultFormat.getCode(), response.snapshot(), cacheTtl);
+            }
+        }
+        return response;
+    }
+
+    private long resultCacheTtl(String profile) {
+        DatabaseConfigProperties.ConnectionConfig config = databaseConfigService.getConnectionConfig(profile);
+        return config == null ? 0 : config.getResultCacheTtlSeconds();
+    }
+
+    private long queryTimeout(String profile, Integer timeoutMillis) {
+        DatabaseConfigProperties.ConnectionConfig config = databaseConfigService.getConnectionConfig(profile);
+        return queryCancellationService.resolveTimeout(timeoutMillis, config == null ? 0 : config.getQueryTimeoutSeconds());
+    }
+
+    private String resolveProfile(String profile) {
+        return profile == null || profile.trim().isEmpty() ? "mysql" : profile;
+    }
+
+    /**
+     * 根据续查令牌从保留的游标继续读取下一页，格式与首次查询相同
+     */
+    public Response continueSql(String continuationToken, String profile) {
+        QueryCursor cursor = cursorRegistry.take(continuationToken);
+        if (cursor == null) {
+            return Response.error("续查令牌无效或已过期，请重新执行查询");
+        }
+        if (profile != null && !profile.isBlank() && !profile.equals(cursor.getProfile())) {
+            cursorRegistry.park(continuationToken, cursor);
+            return Response.error("续查令牌不属于配置: " + profile);
+        }
+
+        ResultCollector collector = new ResultCollector(cursor.getFormat(), MAX_BUFFERED_ROWS);
+        QueryCancellationService.RunningQuery running = null;
+        try {
+            collector.onColumns(cursor.getColumns());
+            running = queryCancellationService.register(cursor.getProfile(), cursor.getLease().getTarget(), cursor.getSql(),
+                    cursor.getStatement(), cursor.getLease().getConnection(), cursor.getLease().getServerInfo(),
+                    queryTimeout(cursor.getProfile(), null));
+            Page page = readRows(cursor.getResultSet(), cursor.getColumns().size(), cursor.getPendingRow(), collector,
+                    cursor.getProfile(), running);
+            Response response = Response.success(cursor.getSql(), cursor.getColumns(), null, page.rowCount);
+            collector.applyTo(response);
+            response.setOffset(cursor.getOffset());
+            if (page.cancelReason != null) {
+                cursorRegistry.close(cursor);
+                response.markCancelled(page.cancelReason);
+            } else if (page.pendingRow != null) {
+                cursor.advance(page.rowCount, page.pendingRow);
+                cursorRegistry.park(continuationToken, cursor);
+                response.setTruncated(true);
+                response.setContinuationToken(continuationToken);
+            } else {
+                cursor.advance(page.rowCount, null);
+                cursorRegistry.close(cursor);
+            }
+            return response;
+        } catch (Exception e) {
+            cursor.markFailed(e);
+            cursorRegistry.close(cursor);
+            log.error("续查失败: {}", e.getMessage(), e);
+            return Response.error("续查失败: " + e.getMessage());
+        } finally {
+            queryCancellationService.unregister(running);
+        }
+    }
 
+    /**
+     * 执行查询并把结果行逐行交给sink，不在内存中保留结果也不限制行数，返回的响应中不包含行数据
+     */
+    public Response streamSql(String sql, List<Object> params, String profile, Integer limit, Integer timeoutMillis,
+                              RowSink sink) {
+        return execute(sql, params, profile, limit, timeoutMillis, sink, null, false);
+    }
+
+    /**
+     * 执行查询并把结果交给sink
+     *
+     * @param cursorFormat 非流式查询的结果格式，结果被截断时按该格式保留游标；为null表示流式读取全部结果
+     * @param retainCursor 非流式查询的结果被截断时是否允许保留游标
+     */
+    private Response execute(String sql, List<Object> params, String profile, Integer limit, Integer timeoutMillis,
+                             RowSink sink, ResultFormat cursorFormat, boolean retainCursor) {
         log.info("执行SQL查询: {}", sql);
 
         try {
             // 验证SQL安全性
-            if (!isSafeQuery(sql)) {
+            if (sql == null || !isSafeQuery(sql)) {
                 return Response.error("仅支持SELECT、SHOW、DESCRIBE查询");
             }
 
             // 设置默认值
-            if (profile == null || profile.trim().isEmpty()) {
-                profile = "mysql";
-            }
+            profile = resolveProfile(profile);
 
-            // 获取数据库连接
+            // 借出数据库连接，租约关闭时归还连接池；保留游标时租约随游标关闭
+            ConnectionLease lease = connectionManager.acquire(profile);
+            boolean retained = false;
             try {
-                Connection conn = connectionManager.getConnection(profile);
+                Connection conn = lease.getConnection();
                 // 清理SQL语句，移除可能的无效字符
                 String cleanedSql = cleanSql(sql);
 
                 String finalSql;
                 if (limit != null && limit > 0) {
                     // 如果设置了limit，则应用限制
-                    finalSql = applyLimit(cleanedSql, limit, conn);
+                    finalSql = applyLimit(cleanedSql, limit, lease.getServerInfo());
                     log.info("应用limit限制: {}", limit);
                 } else {
                     // 如果没有设置limit，则查询全量数据
@@ -68,17 +260,103 @@ public class SqlExecution {
                 log.info("清理后SQL: {}", cleanedSql);
                 log.info("最终执行SQL: {}", finalSql);
 
-                // 执行查询
-                Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(finalSql);
-                SqlExecution.Response response = processResultSet(rs, sql);
-                rs.close();
-                stmt.close();
-                conn.close();
-                return response;
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+                // 按方言和观测到的行宽设置抓取方式，只向前读取
+                int pageSize = cursorFormat == null ? 0 : MAX_BUFFERED_ROWS;
+                boolean holdCursor = cursorFormat != null && retainCursor && cursorRegistry.hasCapacity(profile);
+                FetchSizeAdvisor.FetchPlan plan = fetchSizeAdvisor.plan(profile, lease.getServerInfo(), limit, pageSize, holdCursor);
+                // 有绑定参数时使用PreparedStatement，由驱动语句缓存复用解析结果
+                boolean prepared = params != null && !params.isEmpty();
+                Statement stmt = prepared
+                        ? conn.prepareStatement(finalSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)
+                        : conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ResultSet rs = null;
+                boolean autoCommit = true;
+                QueryCancellationService.RunningQuery running = null;
+                boolean completed = false;
+                boolean exhausted = false;
+                try {
+                    autoCommit = plan.apply(conn, stmt);
+                    // 驱动的查询超时作为兜底，截止时间由后台检查并取消语句
+                    long timeout = queryTimeout(profile, timeoutMillis);
+                    if (timeout > 0) {
+                        stmt.setQueryTimeout((int) Math.max(1, (timeout + 999) / 1000));
+                    }
+                    running = queryCancellationService.register(profile, lease.getTarget(), finalSql, stmt, conn,
+                            lease.getServerInfo(), timeout);
+                    if (prepared) {
+                        PreparedStatement ps = (PreparedStatement) stmt;
+                        for (int i = 0; i < params.size(); i++) {
+                            ps.setObject(i + 1, params.get(i));
+                        }
+                        rs = ps.executeQuery();
+                    } else {
+                        rs = stmt.executeQuery(finalSql);
+                    }
+                    statementReuseTracker.record(profile, finalSql, prepared);
+                    List<String> columns = columnsOf(rs);
+                    sink.onColumns(columns);
+                    Page page = readRows(rs, columns.size(), null, sink, profile, running);
+                    completed = true;
+                    exhausted = page.cancelReason == null && page.pendingRow == null;
+
+                    Response response = Response.success(sql, columns, null, page.rowCount);
+                    response.setFetchMode(plan.getMode());
+                    response.setFetchSize(plan.getFetchSize());
+                    log.debug("抓取方式: mode={}, fetchSize={}", plan.getMode(), plan.getFetchSize());
+                    if (page.cancelReason != null) {
+                        response.markCancelled(page.cancelReason);
+                    } else if (page.pendingRow != null) {
+                        response.setTruncated(true);
+                        if (holdCursor) {
+                            QueryCursor cursor = new QueryCursor(profile, sql, lease, stmt, rs, columns, cursorFormat, plan, autoCommit);
+                            cursor.advance(page.rowCount, page.pendingRow);
+                            String token = cursorRegistry.open(cursor);
+                            if (token != null) {
+                                retained = true;
+                                response.setContinuationToken(token);
+                            }
+                        }
+                    } else if (page.rowCount >= pageSize && pageSize > 0 && !holdCursor) {
+                        // 服务端已按maxRows截断，无法判断是否还有剩余结果
+                        response.setTruncated(true);
+                    }
+                    return response;
+                } catch (SQLException e) {
+                    if (isCancellation(e, running)) {
+                        completed = true;
+                        String reason = running != null && running.isCancelled() ? running.getCancelReason() : e.getMessage();
+                        log.warn("SQL执行被取消: {}", reason);
+                        return Response.rejected(McpConstants.ErrorCodes.QUERY_CANCELLED, reason);
+                    }
+                    lease.markFailed(e);
+                    throw e;
+                } finally {
+                    // 读取被客户端断开等异常中断时先取消语句，避免关闭结果集时继续读完剩余结果
+                    if (!completed && running != null && !retained) {
+                        queryCancellationService.cancel(running, "读取结果时中断");
+                    }
+                    queryCancellationService.unregister(running);
+                    if (!retained) {
+                        if (rs == null || exhausted) {
+                            if (rs != null) {
+                                rs.close();
+                            }
+                            plan.restore(conn, autoCommit);
+                            stmt.close();
+                        } else {
+                            // 游标数量已满等原因未保留的部分结果
+                            QueryCursor.discard(stmt, rs, plan, conn, autoCommit);
+                        }
+                    }
+                }
+            } finally {
+                if (!retained) {
+                    lease.close();
+                }
             }
+        } catch (QueryRejectedException e) {
+            log.warn("SQL执行被拒绝: {}", e.getMessage());
+            return Response.rejected(e.getErrorCode(), e.getMessage());
         } catch (Exception e) {
             log.error("SQL执行失败: {}", e.getMessage(), e);
             return Response.error("SQL执行失败: " + e.getMessage());
@@ -101,62 +379,192 @@ public class SqlExecution {
                 upperSql.startsWith("EXPLAIN");
     }
 
-    private String applyLimit(String sql, int limit, Connection conn) {
+    private String applyLimit(String sql, int limit, DatabaseServerInfo serverInfo) {
         String upperSql = sql.toUpperCase();
         if (!upperSql.startsWith("SELECT") || upperSql.contains(" LIMIT ") || upperSql.contains(" ROWNUM ") ||
             upperSql.contains(" FETCH FIRST ")) {
             return sql;
         }
 
-        try {
-            DatabaseMetaData metaData = conn.getMetaData();
-            String databaseProductName = metaData.getDatabaseProductName().toLowerCase();
-
-            if (databaseProductName.contains(DatabaseConstant.ProductNames.ORACLE)) {
-                // Oracle使用ROWNUM语法，更兼容旧版本
-                // 将原查询包装在子查询中并添加ROWUM限制
-                return "SELECT * FROM (" + sql + ") WHERE ROWNUM <= " + limit;
-            } else if (databaseProductName.contains(DatabaseConstant.ProductNames.SQL_SERVER)) {
-                // SQL Server syntax: TOP N
-                return sql.replaceFirst("(?i)SELECT\\s+", "SELECT TOP " + limit + " ");
-            } else if (databaseProductName.contains(DatabaseConstant.ProductNames.POSTGRESQL) ||
-                       databaseProductName.contains(DatabaseConstant.ProductNames.MYSQL)) {
-                // MySQL/PostgreSQL syntax: LIMIT N
-                return sql + " LIMIT " + limit;
-            } else {
-                // Default to MySQL syntax for unknown databases
-                return sql + " LIMIT " + limit;
-            }
-        } catch (Exception e) {
-            log.warn("无法获取数据库类型，使用默认LIMIT语法: {}", e.getMessage());
+        DatabaseType databaseType = serverInfo != null ? serverInfo.getDatabaseType() : null;
+        if (databaseType == DatabaseType.ORACLE) {
+            // Oracle使用ROWNUM语法，更兼容旧版本
+            // 将原查询包装在子查询中并添加ROWUM限制
+            return "SELECT * FROM (" + sql + ") WHERE ROWNUM <= " + limit;
+        } else if (databaseType == DatabaseType.SQLSERVER) {
+            // SQL Server syntax: TOP N
+            return sql.replaceFirst("(?i)SELECT\\s+", "SELECT TOP " + limit + " ");
+        } else {
+            // MySQL/PostgreSQL syntax: LIMIT N，未知数据库同样使用LIMIT
             return sql + " LIMIT " + limit;
         }
     }
 
-    private Response processResultSet(ResultSet rs, String originalSql) throws Exception {
+    private List<String> columnsOf(ResultSet rs) throws SQLException {
         ResultSetMetaData metaData = rs.getMetaData();
         int columnCount = metaData.getColumnCount();
-
-        // 获取列信息
-        List<String> columns = new ArrayList<>();
+        List<String> columns = new ArrayList<>(columnCount);
         for (int i = 1; i <= columnCount; i++) {
             columns.add(metaData.getColumnLabel(i));
         }
+        return columns;
+    }
 
-        // 获取数据行
-        List<Map<String, Object>> rows = new ArrayList<>();
-        int rowCount = 0;
-        while (rs.next() && rowCount < 1000) { // 额外安全限制
-            Map<String, Object> row = new LinkedHashMap<>();
-            for (int i = 1; i <= columnCount; i++) {
-                Object value = rs.getObject(i);
-                row.put(columns.get(i - 1), value);
+    /**
+     * 逐行交给sink，sink返回false时停止读取；停止时预读一行判断是否还有剩余结果。
+     * 语句因超时或取消中断时保留已读取的行并记录取消原因
+     *
+     * @param pendingRow 上一页预读的行，不为null时最先交给sink
+     */
+    private Page readRows(ResultSet rs, int columnCount, Object[] pendingRow, RowSink sink, String profile,
+                          QueryCancellationService.RunningQuery running) throws Exception {
+        Page page = new Page();
+        long sampledWidth = 0;
+        boolean more = true;
+        Object[] values = pendingRow;
+        try {
+            while (values != null || rs.next()) {
+                if (values == null) {
+                    values = readRow(rs, columnCount);
+                }
+                // 只用前几行估算行宽
+                if (page.rowCount < WIDTH_SAMPLE_ROWS) {
+                    sampledWidth += FetchSizeAdvisor.estimateWidth(values);
+                }
+                page.rowCount++;
+                more = sink.onRow(values);
+                values = null;
+                if (!more) {
+                    break;
+                }
+            }
+            if (!more && rs.next()) {
+                page.pendingRow = readRow(rs, columnCount);
             }
-            rows.add(row);
-            rowCount++;
+        } catch (SQLException e) {
+            if (!isCancellation(e, running)) {
+                throw e;
+            }
+            page.pendingRow = null;
+            page.cancelReason = running != null && running.isCancelled() ? running.getCancelReason() : e.getMessage();
+            log.warn("读取结果时语句被取消，已读取{}行: {}", page.rowCount, page.cancelReason);
+        }
+        sink.onComplete(page.rowCount);
+        if (page.rowCount > 0) {
+            fetchSizeAdvisor.recordRowWidth(profile, (double) sampledWidth / Math.min(page.rowCount, WIDTH_SAMPLE_ROWS));
         }
+        return page;
+    }
 
-        return Response.success(originalSql, columns, rows, rowCount);
+    private Object[] readRow(ResultSet rs, int columnCount) throws SQLException {
+        Object[] values = new Object[columnCount];
+        for (int i = 1; i <= columnCount; i++) {
+            values[i - 1] = rs.getObject(i);
+        }
+        return values;
+    }
+
+    /**
+     * 一次读取的结果：读取的行数和读满后预读的下一行
+     */
+    private static final class Page {
+        private int rowCount;
+        private Object[] pendingRow;
+        /**
+         * 读取因超时或取消中断时的原因
+         */
+        private String cancelReason;
+    }
+
+    /**
+     * 异常是否由语句超时或取消引起
+     */
+    private boolean isCancellation(SQLException e, QueryCancellationService.RunningQuery running) {
+        return e instanceof SQLTimeoutException || (running != null && running.isCancelled());
+    }
+
+    /**
+     * 把一行取值转换为以列名为键的对象
+     */
+    public static Map<String, Object> toRow(List<String> columns, Object[] values) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            row.put(columns.get(i), values[i]);
+        }
+        return row;
+    }
+
+    /**
+     * 查询结果行的接收方，用于在读取ResultSet的同时输出结果
+     */
+    public interface RowSink {
+
+        /**
+         * 读取到列信息时调用，先于所有行
+         */
+        void onColumns(List<String> columns) throws Exception;
+
+        /**
+         * 每读取一行调用一次，取值与列按位置对应，返回false时停止读取
+         */
+        boolean onRow(Object[] values) throws Exception;
+
+        /**
+         * 结果集读取结束时调用
+         */
+        default void onComplete(int rowCount) throws Exception {
+        }
+    }
+
+    /**
+     * 通过MCP日志通知分块推送结果行，每块包含起始行号和行数据
+     */
+    private class NotificationRowSink implements RowSink {
+        private final McpSyncServerExchange exchange;
+        private final int chunkSize = Math.max(1, properties.getStreaming().getChunkSize());
+        private final List<Map<String, Object>> chunk = new ArrayList<>();
+        private List<String> columns;
+        private int offset;
+
+        private NotificationRowSink(McpSyncServerExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        @Override
+        public void onColumns(List<String> columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        public boolean onRow(Object[] values) throws Exception {
+            chunk.add(toRow(columns, values));
+            // 第一行立即推送，之后按块推送
+            if (offset == 0 || chunk.size() >= chunkSize) {
+                flush();
+            }
+            return true;
+        }
+
+        @Override
+        public void onComplete(int rowCount) throws Exception {
+            if (!chunk.isEmpty()) {
+                flush();
+            }
+        }
+
+        private void flush() throws Exception {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("columns", columns);
+            payload.put("offset", offset);
+            payload.put("rows", chunk);
+            exchange.loggingNotification(McpSchema.LoggingMessageNotification.builder()
+                    .level(McpSchema.LoggingLevel.INFO)
+                    .logger(STREAM_LOGGER)
+                    .data(objectMapper.writeValueAsString(payload))
+                    .build());
+            offset += chunk.size();
+            chunk.clear();
+        }
     }
 
     @Data
@@ -166,16 +574,143 @@ public class SqlExecution {
         private Integer limit;
     }
 
+    /**
+     * 按列存放的查询结果
+     */
+    @Data
+    public static class ColumnarData {
+        /**
+         * 每列一个取值数组，与columns按位置对应
+         */
+        private List<List<Object>> values;
+        /**
+         * 每列的字典，不为null的列中values存放字典下标；没有列被编码时为null
+         */
+        private List<List<String>> dictionaries;
+    }
+
     @Data
     public static class Response {
         private boolean success;
         private String message;
+        /**
+         * 失败原因代码，仅在被准入控制等机制拒绝时返回
+         */
+        private String errorCode;
         private String sql;
+        /**
+         * 结果格式，对应ResultFormat的代码
+         */
+        private String format;
         private List<String> columns;
         private List<Map<String, Object>> rows;
+        /**
+         * columnar格式的结果
+         */
+        private ColumnarData columnar;
+        /**
+         * csv/tsv格式的结果文本，首行为列名
+         */
+        private String text;
         private int rowCount;
+        /**
+         * 本页第一行在整个结果中的位置
+         */
+        private long offset;
+        /**
+         * 结果是否被截断
+         */
+        private boolean truncated;
+        /**
+         * 结果被截断且游标已保留时返回，传回executeSql读取下一页
+         */
+        private String continuationToken;
+        /**
+         * 本次查询使用的抓取方式和抓取行数
+         */
+        private String fetchMode;
+        private int fetchSize;
+        /**
+         * 结果是否来自结果缓存
+         */
+        private boolean cacheHit;
+        /**
+         * 语句因超时或取消中断时的原因，此时rows只包含中断前读取的部分结果
+         */
+        private String cancelReason;
         private long executionTime;
 
+        /**
+         * 生成放入结果缓存的快照：列名、行和按列结果复制为不可修改的集合，
+         * 之后调用方修改返回给自己的结果不会影响缓存，命中缓存的调用方也无法修改缓存中的结果。
+         * 结果中可能含null值，因此用unmodifiableList/unmodifiableMap而不是List.copyOf/Map.copyOf
+         */
+        Response snapshot() {
+            Response copy = copyFields();
+            copy.setColumns(columns == null ? null : Collections.unmodifiableList(new ArrayList<>(columns)));
+            if (rows != null) {
+                List<Map<String, Object>> frozen = new ArrayList<>(rows.size());
+                for (Map<String, Object> row : rows) {
+                    frozen.add(Collections.unmodifiableMap(new LinkedHashMap<>(row)));
+                }
+                copy.setRows(Collections.unmodifiableList(frozen));
+            }
+            if (columnar != null) {
+                ColumnarData frozen = new ColumnarData();
+                frozen.setValues(unmodifiableNested(columnar.getValues()));
+                frozen.setDictionaries(unmodifiableNested(columnar.getDictionaries()));
+                copy.setColumnar(frozen);
+            }
+            copy.setExecutionTime(executionTime);
+            return copy;
+        }
+
+        private static <T> List<List<T>> unmodifiableNested(List<List<T>> lists) {
+            if (lists == null) {
+                return null;
+            }
+            List<List<T>> frozen = new ArrayList<>(lists.size());
+            for (List<T> list : lists) {
+                frozen.add(list == null ? null : Collections.unmodifiableList(new ArrayList<>(list)));
+            }
+            return Collections.unmodifiableList(frozen);
+        }
+
+        /**
+         * 复制缓存中的快照并标记为缓存命中：返回新的Response对象，行和列等集合与快照共享且不可修改，
+         * 缓存中的对象本身不被修改
+         */
+        Response copyAsCacheHit() {
+            Response copy = copyFields();
+            copy.setColumns(columns);
+            copy.setRows(rows);
+            if (columnar != null) {
+                ColumnarData data = new ColumnarData();
+                data.setValues(columnar.getValues());
+                data.setDictionaries(columnar.getDictionaries());
+                copy.setColumnar(data);
+            }
+            copy.setCacheHit(true);
+            copy.setExecutionTime(System.currentTimeMillis());
+            return copy;
+        }
+
+        private Response copyFields() {
+            Response copy = new Response();
+            copy.setSuccess(success);
+            copy.setMessage(message);
+            copy.setErrorCode(errorCode);
+            copy.setSql(sql);
+            copy.setFormat(format);
+            copy.setText(text);
+            copy.setRowCount(rowCount);
+            copy.setOffset(offset);
+            copy.setTruncated(truncated);
+            copy.setFetchMode(fetchMode);
+            copy.setFetchSize(fetchSize);
+            return copy;
+        }
+
         public static Response success(String sql, List<String> columns, List<Map<String, Object>> rows, int rowCount) {
             Response response = new Response();
             response.setSuccess(true);
@@ -188,11 +723,26 @@ public class SqlExecution {
             return response;
         }
 
+        /**
+         * 标记为被取消的部分结果
+         */
+        void markCancelled(String reason) {
+            setTruncated(true);
+            setCancelReason(reason);
+            setMessage(reason + "，返回已读取的部分结果");
+        }
+
         public static Response error(String message) {
             Response response = new Response();
             response.setSuccess(false);
             response.setMessage(message);
             return response;
         }
+
+        public static Response rejected(String errorCode, String message) {
+            Response response = error(message);
+            response.setErrorCode(errorCode);
+            return response;
+        }
     }
 }
\ No newline at end of file
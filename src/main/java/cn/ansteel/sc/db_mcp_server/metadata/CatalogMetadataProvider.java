@@ -0,0 +1,274 @@
+package cn.ansteel.sc.db_mcp_server.metadata;
+
+import cn.ansteel.sc.db_mcp_server.constant.DatabaseConstant;
+import cn.ansteel.sc.db_mcp_server.constant.McpConstants;
+import cn.ansteel.sc.db_mcp_server.enums.DatabaseType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按方言查询系统目录视图（information_schema、pg_catalog、ALL_*、sys.*）读取元数据
+ * <p>
+ * 查询都按所有者（MySQL数据库或模式）过滤，避免驱动的DatabaseMetaData实现扫描所有模式或逐表发出多条关联查询；
+ * 表、列、主键、索引和外键各用一条语句读取整个模式或一批表，结果按表分组。
+ * 语句执行失败（数据库版本过旧、缺少视图权限等）时退回JDBC DatabaseMetaData
+ */
+@Slf4j
+public class CatalogMetadataProvider extends JdbcMetadataProvider {
+
+    /**
+     * IN列表中的最大表数量，超过时读取整个模式后按名称过滤（Oracle的IN列表上限为1000，SQL Server的参数上限为2100）
+     */
+    private static final int MAX_IN_LIST = 500;
+    private static final int FETCH_SIZE = 1000;
+
+    private final DatabaseType type;
+    private final boolean fallback;
+
+    public CatalogMetadataProvider(DatabaseType type) {
+        this(type, true);
+    }
+
+    /**
+     * @param fallback 目录查询失败时是否退回JDBC DatabaseMetaData，为false时直接抛出异常
+     */
+    public CatalogMetadataProvider(DatabaseType type, boolean fallback) {
+        this.type = type;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public List<TableMetadata> loadTables(Connection connection, SchemaScope scope) throws SQLException {
+        return withFallback(scope,
+                owner -> readTables(connection, owner, null),
+                () -> super.loadTables(connection, scope));
+    }
+
+    @Override
+    public TableMetadata loadTable(Connection connection, SchemaScope scope, String tableName) throws SQLException {
+        return withFallback(scope, owner -> {
+            List<TableMetadata> tables = readTables(connection, owner, List.of(tableName));
+            return tables.isEmpty() ? null : tables.get(0);
+        }, () -> super.loadTable(connection, scope, tableName));
+    }
+
+    @Override
+    public TableDetails loadDetails(Connection connection, SchemaScope scope, String tableName) throws SQLException {
+        return withFallback(scope,
+                owner -> loadCatalogDetails(connection, owner, List.of(tableName)).getOrDefault(tableName, TableDetails.EMPTY),
+                () -> super.loadDetails(connection, scope, tableName));
+    }
+
+    @Override
+    public Map<String, TableDetails> loadSchemaDetails(Connection connection, SchemaScope scope, Collection<String> tableNames) throws SQLException {
+        return withFallback(scope,
+                owner -> loadCatalogDetails(connection, owner, tableNames),
+                () -> super.loadSchemaDetails(connection, scope, tableNames));
+    }
+
+    /**
+     * 范围缺少所有者名称时直接使用JDBC元数据，目录查询失败时按fallback决定是否退回
+     */
+    private <T> T withFallback(SchemaScope scope, CatalogCall<T> catalog, JdbcCall<T> jdbc) throws SQLException {
+        String owner = scope.owner(type);
+        if (owner == null) {
+            return jdbc.call();
+        }
+        try {
+            return catalog.call(owner);
+        } catch (SQLException e) {
+            if (!fallback) {
+                throw e;
+            }
+            log.warn("Catalog metadata query failed for {}, falling back to JDBC metadata: {}", scope, e.getMessage());
+            return jdbc.call();
+        }
+    }
+
+    private List<TableMetadata> readTables(Connection connection, String owner, List<String> names) throws SQLException {
+        List<TableMetadata> tables = new ArrayList<>();
+        query(connection, tableStatement(), owner, names, rs -> tables.add(new TableMetadata(
+                rs.getString(McpConstants.DatabaseFields.TABLE_CAT),
+                rs.getString(McpConstants.DatabaseFields.TABLE_SCHEM),
+                rs.getString(McpConstants.DatabaseFields.TABLE_NAME),
+                rs.getString(McpConstants.DatabaseFields.TABLE_TYPE),
+                rs.getString(McpConstants.DatabaseFields.REMARKS),
+                null, null)));
+        return tables;
+    }
+
+    private Map<String, TableDetails> loadCatalogDetails(Connection connection, String owner, Collection<String> tableNames) throws SQLException {
+        if (tableNames != null && tableNames.isEmpty()) {
+            return Map.of();
+        }
+        List<String> names = tableNames == null || tableNames.size() > MAX_IN_LIST ? null : List.copyOf(tableNames);
+        Set<String> wanted = tableNames == null ? null : new HashSet<>(tableNames);
+        Map<String, DetailsBuilder> builders = new LinkedHashMap<>();
+
+        query(connection, columnStatement(), owner, names, rs -> {
+            DetailsBuilder builder = builder(builders, wanted, rs.getString(McpConstants.DatabaseFields.TABLE_NAME));
+            if (builder != null) {
+                builder.columns.add(new ColumnMetadata(
+                        rs.getString(McpConstants.DatabaseFields.COLUMN_NAME),
+                        rs.getString(McpConstants.DatabaseFields.TYPE_NAME),
+                        rs.getInt(McpConstants.DatabaseFields.COLUMN_SIZE),
+                        rs.getInt(McpConstants.DatabaseFields.NULLABLE) == 1,
+                        rs.getString(McpConstants.DatabaseFields.COLUMN_DEF),
+                        rs.getString(McpConstants.DatabaseFields.REMARKS)));
+            }
+        });
+        query(connection, primaryKeyStatement(), owner, names, rs -> {
+            DetailsBuilder builder = builder(builders, wanted, rs.getString(McpConstants.DatabaseFields.TABLE_NAME));
+            if (builder != null) {
+                builder.primaryKeys.add(new PrimaryKeyColumn(
+                        rs.getString(McpConstants.DatabaseFields.COLUMN_NAME),
+                        rs.getInt(McpConstants.DatabaseFields.KEY_SEQ),
+                        rs.getString(McpConstants.DatabaseFields.PK_NAME)));
+            }
+        });
+        query(connection, indexStatement(), owner, names, rs -> {
+            DetailsBuilder builder = builder(builders, wanted, rs.getString(McpConstants.DatabaseFields.TABLE_NAME));
+            if (builder != null) {
+                builder.indexes.add(new IndexColumn(
+                        rs.getString(McpConstants.DatabaseFields.INDEX_NAME),
+                        rs.getString(McpConstants.DatabaseFields.COLUMN_NAME_IDX),
+                        rs.getInt(McpConstants.DatabaseFields.NON_UNIQUE) != 0,
+                        rs.getString(McpConstants.DatabaseFields.TYPE),
+                        rs.getInt(McpConstants.DatabaseFields.ORDINAL_POSITION)));
+            }
+        });
+        query(connection, foreignKeyStatement(), owner, names, rs -> {
+            ForeignKeyColumn key = new ForeignKeyColumn(
+                    rs.getString(McpConstants.DatabaseFields.PKTABLE_NAME),
+                    rs.getString(McpConstants.DatabaseFields.PKCOLUMN_NAME),
+                    rs.getString(McpConstants.DatabaseFields.FKTABLE_NAME),
+                    rs.getString(McpConstants.DatabaseFields.FKCOLUMN_NAME),
+                    rs.getString(McpConstants.DatabaseFields.FK_NAME),
+                    rs.getString(McpConstants.DatabaseFields.PK_NAME));
+            DetailsBuilder fkTable = builder(builders, wanted, key.fkTable());
+            if (fkTable != null) {
+                fkTable.importedKeys.add(key);
+            }
+            DetailsBuilder pkTable = builder(builders, wanted, key.pkTable());
+            if (pkTable != null) {
+                pkTable.exportedKeys.add(key);
+            }
+        });
+
+        Map<String, TableDetails> details = new LinkedHashMap<>();
+        builders.forEach((name, builder) -> details.put(name, builder.build()));
+        return details;
+    }
+
+    /**
+     * 执行一条目录查询：语句模板中的参数依次为所有者名称，%s替换为表名条件，表名参数跟在所有者参数之后
+     */
+    private void query(Connection connection, String template, String owner, List<String> names, RowHandler handler) throws SQLException {
+        int ownerParams = (int) template.chars().filter(c -> c == '?').count();
+        String predicate = names == null ? "IS NOT NULL" : "IN (" + String.join(", ", Collections.nCopies(names.size(), "?")) + ")";
+        String sql = String.format(template, predicate);
+        int params = (int) sql.chars().filter(c -> c == '?').count();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 1; i <= params; i++) {
+                stmt.setString(i, i <= ownerParams ? owner : names.get((i - ownerParams - 1) % names.size()));
+            }
+            stmt.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.accept(rs);
+                }
+            }
+        }
+    }
+
+    private DetailsBuilder builder(Map<String, DetailsBuilder> builders, Set<String> wanted, String tableName) {
+        if (tableName == null || (wanted != null && !wanted.contains(tableName))) {
+            return null;
+        }
+        return builders.computeIfAbsent(tableName, k -> new DetailsBuilder());
+    }
+
+    private String tableStatement() {
+        return switch (type) {
+            case MYSQL -> DatabaseConstant.SchemaTableStatements.MYSQL;
+            case POSTGRESQL -> DatabaseConstant.SchemaTableStatements.POSTGRESQL;
+            case ORACLE -> DatabaseConstant.SchemaTableStatements.ORACLE;
+            case SQLSERVER -> DatabaseConstant.SchemaTableStatements.SQLSERVER;
+        };
+    }
+
+    private String columnStatement() {
+        return switch (type) {
+            case MYSQL -> DatabaseConstant.SchemaColumnStatements.MYSQL;
+            case POSTGRESQL -> DatabaseConstant.SchemaColumnStatements.POSTGRESQL;
+            case ORACLE -> DatabaseConstant.SchemaColumnStatements.ORACLE;
+            case SQLSERVER -> DatabaseConstant.SchemaColumnStatements.SQLSERVER;
+        };
+    }
+
+    private String primaryKeyStatement() {
+        return switch (type) {
+            case MYSQL -> DatabaseConstant.SchemaPrimaryKeyStatements.MYSQL;
+            case POSTGRESQL -> DatabaseConstant.SchemaPrimaryKeyStatements.POSTGRESQL;
+            case ORACLE -> DatabaseConstant.SchemaPrimaryKeyStatements.ORACLE;
+            case SQLSERVER -> DatabaseConstant.SchemaPrimaryKeyStatements.SQLSERVER;
+        };
+    }
+
+    private String indexStatement() {
+        return switch (type) {
+            case MYSQL -> DatabaseConstant.SchemaIndexStatements.MYSQL;
+            case POSTGRESQL -> DatabaseConstant.SchemaIndexStatements.POSTGRESQL;
+            case ORACLE -> DatabaseConstant.SchemaIndexStatements.ORACLE;
+            case SQLSERVER -> DatabaseConstant.SchemaIndexStatements.SQLSERVER;
+        };
+    }
+
+    private String foreignKeyStatement() {
+        return switch (type) {
+            case MYSQL -> DatabaseConstant.SchemaForeignKeyStatements.MYSQL;
+            case POSTGRESQL -> DatabaseConstant.SchemaForeignKeyStatements.POSTGRESQL;
+            case ORACLE -> DatabaseConstant.SchemaForeignKeyStatements.ORACLE;
+            case SQLSERVER -> DatabaseConstant.SchemaForeignKeyStatements.SQLSERVER;
+        };
+    }
+
+    @FunctionalInterface
+    private interface CatalogCall<T> {
+        T call(String owner) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface JdbcCall<T> {
+        T call() throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface RowHandler {
+        void accept(ResultSet rs) throws SQLException;
+    }
+
+    private static final class DetailsBuilder {
+        private final List<ColumnMetadata> columns = new ArrayList<>();
+        private final List<PrimaryKeyColumn> primaryKeys = new ArrayList<>();
+        private final List<IndexColumn> indexes = new ArrayList<>();
+        private final List<ForeignKeyColumn> exportedKeys = new ArrayList<>();
+        private final List<ForeignKeyColumn> importedKeys = new ArrayList<>();
+
+        TableDetails build() {
+            return new TableDetails(columns, primaryKeys, indexes, exportedKeys, importedKeys);
+        }
+    }
+}
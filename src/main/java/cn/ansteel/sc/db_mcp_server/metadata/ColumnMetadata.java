@@ -0,0 +1,7 @@
+package cn.ansteel.sc.db_mcp_server.metadata;
+
+/**
+ * 列信息
+ */
+public record ColumnMetadata(String name, String type, int size, boolean nullable, String defaultValue, String remarks) {
+}
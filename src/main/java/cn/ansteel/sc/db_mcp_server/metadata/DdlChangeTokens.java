@@ -0,0 +1,53 @@
+package cn.ansteel.sc.db_mcp_server.metadata;
+
+import cn.ansteel.sc.db_mcp_server.constant.DatabaseConstant;
+import cn.ansteel.sc.db_mcp_server.enums.DatabaseType;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 按方言一次读取范围内所有表的变更标记，用于判断哪些表的缓存需要重新加载
+ */
+public final class DdlChangeTokens {
+
+    private DdlChangeTokens() {
+    }
+
+    /**
+     * 读取表名到变更标记的映射，数据库类型未知或范围缺少所需的数据库/模式名称时返回null
+     */
+    public static Map<String, String> load(Connection connection, SchemaScope scope, DatabaseType type) throws SQLException {
+        if (type == null) {
+            return null;
+        }
+        String owner = scope.owner(type);
+        if (owner == null) {
+            return null;
+        }
+        String sql = switch (type) {
+            case MYSQL -> DatabaseConstant.DdlChangeStatements.MYSQL;
+            case POSTGRESQL -> DatabaseConstant.DdlChangeStatements.POSTGRESQL;
+            case ORACLE -> DatabaseConstant.DdlChangeStatements.ORACLE;
+            case SQLSERVER -> DatabaseConstant.DdlChangeStatements.SQLSERVER;
+        };
+        Map<String, String> tokens = new HashMap<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            // 语句中的每个参数都是同一个数据库/模式名称
+            for (int i = 1; i <= sql.chars().filter(c -> c == '?').count(); i++) {
+                stmt.setString(i, owner);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String token = rs.getString(2);
+                    tokens.put(rs.getString(1), token == null ? "" : token);
+                }
+            }
+        }
+        return tokens;
+    }
+}
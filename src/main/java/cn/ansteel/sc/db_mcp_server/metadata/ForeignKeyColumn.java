@@ -0,0 +1,7 @@
+package cn.ansteel.sc.db_mcp_server.metadata;
+
+/**
+ * 外键中的一对列：fkTable.fkColumn引用pkTable.pkColumn
+ */
+public record ForeignKeyColumn(String pkTable, String pkColumn, String fkTable, String fkColumn, String fkName, String pkName) {
+}
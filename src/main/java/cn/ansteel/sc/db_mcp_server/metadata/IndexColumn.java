@@ -0,0 +1,7 @@
+package cn.ansteel.sc.db_mcp_server.metadata;
+
+/**
+ * 索引中的一列，同一索引的多列按ordinalPosition排列
+ */
+public record IndexColumn(String name, String columnName, boolean nonUnique, String type, int ordinalPosition) {
+}
@@ -0,0 +1,131 @@
+package cn.ansteel.sc.db_mcp_server.metadata;
+
+import cn.ansteel.sc.db_mcp_server.constant.McpConstants;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 通过JDBC DatabaseMetaData读取元数据，适用于所有驱动
+ */
+public class JdbcMetadataProvider implements MetadataProvider {
+
+    @Override
+    public List<TableMetadata> loadTables(Connection connection, SchemaScope scope) throws SQLException {
+        return readTables(connection.getMetaData(), scope, McpConstants.Defaults.WILDCARD);
+    }
+
+    @Override
+    public TableMetadata loadTable(Connection connection, SchemaScope scope, String tableName) throws SQLException {
+        List<TableMetadata> tables = readTables(connection.getMetaData(), scope, tableName);
+        for (TableMetadata table : tables) {
+            if (table.name().equals(tableName)) {
+                return table;
+            }
+        }
+        return tables.isEmpty() ? null : tables.get(0);
+    }
+
+    @Override
+    public TableDetails loadDetails(Connection connection, SchemaScope scope, String tableName) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String catalog = scope.catalog();
+        String schema = scope.schema();
+
+        List<ColumnMetadata> columns = new ArrayList<>();
+        try (ResultSet rs = metaData.getColumns(catalog, schema, tableName, McpConstants.Defaults.WILDCARD)) {
+            while (rs.next()) {
+                columns.add(new ColumnMetadata(
+                        rs.getString(McpConstants.DatabaseFields.COLUMN_NAME),
+                        rs.getString(McpConstants.DatabaseFields.TYPE_NAME),
+                        rs.getInt(McpConstants.DatabaseFields.COLUMN_SIZE),
+                        rs.getInt(McpConstants.DatabaseFields.NULLABLE) == DatabaseMetaData.columnNullable,
+                        rs.getString(McpConstants.DatabaseFields.COLUMN_DEF),
+                        rs.getString(McpConstants.DatabaseFields.REMARKS)));
+            }
+        }
+
+        List<PrimaryKeyColumn> primaryKeys = new ArrayList<>();
+        try (ResultSet rs = metaData.getPrimaryKeys(catalog, schema, tableName)) {
+            while (rs.next()) {
+                primaryKeys.add(new PrimaryKeyColumn(
+                        rs.getString(McpConstants.DatabaseFields.COLUMN_NAME),
+                        rs.getInt(McpConstants.DatabaseFields.KEY_SEQ),
+                        rs.getString(McpConstants.DatabaseFields.PK_NAME)));
+            }
+        }
+
+        List<IndexColumn> indexes = new ArrayList<>();
+        try (ResultSet rs = metaData.getIndexInfo(catalog, schema, tableName, false, true)) {
+            while (rs.next()) {
+                indexes.add(new IndexColumn(
+                        rs.getString(McpConstants.DatabaseFields.INDEX_NAME),
+                        rs.getString(McpConstants.DatabaseFields.COLUMN_NAME_IDX),
+                        rs.getBoolean(McpConstants.DatabaseFields.NON_UNIQUE),
+                        rs.getString(McpConstants.DatabaseFields.TYPE),
+                        rs.getInt(McpConstants.DatabaseFields.ORDINAL_POSITION)));
+            }
+        }
+
+        List<ForeignKeyColumn> exportedKeys;
+        try (ResultSet rs = metaData.getExportedKeys(catalog, schema, tableName)) {
+            exportedKeys = readForeignKeys(rs);
+        }
+        List<ForeignKeyColumn> importedKeys;
+        try (ResultSet rs = metaData.getImportedKeys(catalog, schema, tableName)) {
+            importedKeys = readForeignKeys(rs);
+        }
+        return new TableDetails(columns, primaryKeys, indexes, exportedKeys, importedKeys);
+    }
+
+    /**
+     * DatabaseMetaData的主键、索引和外键方法只能按单表查询，这里逐表读取
+     */
+    @Override
+    public Map<String, TableDetails> loadSchemaDetails(Connection connection, SchemaScope scope, Collection<String> tableNames) throws SQLException {
+        Collection<String> names = tableNames != null ? tableNames
+                : loadTables(connection, scope).stream().map(TableMetadata::name).toList();
+        Map<String, TableDetails> details = new LinkedHashMap<>();
+        for (String name : names) {
+            details.put(name, loadDetails(connection, scope, name));
+        }
+        return details;
+    }
+
+    private List<TableMetadata> readTables(DatabaseMetaData metaData, SchemaScope scope, String tablePattern) throws SQLException {
+        List<TableMetadata> tables = new ArrayList<>();
+        try (ResultSet rs = metaData.getTables(scope.catalog(), scope.schema(), tablePattern, McpConstants.TableTypes.SUPPORTED_TYPES)) {
+            while (rs.next()) {
+                tables.add(new TableMetadata(
+                        rs.getString(McpConstants.DatabaseFields.TABLE_CAT),
+                        rs.getString(McpConstants.DatabaseFields.TABLE_SCHEM),
+                        rs.getString(McpConstants.DatabaseFields.TABLE_NAME),
+                        rs.getString(McpConstants.DatabaseFields.TABLE_TYPE),
+                        rs.getString(McpConstants.DatabaseFields.REMARKS),
+                        null, null));
+            }
+        }
+        return tables;
+    }
+
+    private List<ForeignKeyColumn> readForeignKeys(ResultSet rs) throws SQLException {
+        List<ForeignKeyColumn> keys = new ArrayList<>();
+        while (rs.next()) {
+            keys.add(new ForeignKeyColumn(
+                    rs.getString(McpConstants.DatabaseFields.PKTABLE_NAME),
+                    rs.getString(McpConstants.DatabaseFields.PKCOLUMN_NAME),
+                    rs.getString(McpConstants.DatabaseFields.FKTABLE_NAME),
+                    rs.getString(McpConstants.DatabaseFields.FKCOLUMN_NAME),
+                    rs.getString(McpConstants.DatabaseFields.FK_NAME),
+                    rs.getString(McpConstants.DatabaseFields.PK_NAME)));
+        }
+        return keys;
+    }
+}
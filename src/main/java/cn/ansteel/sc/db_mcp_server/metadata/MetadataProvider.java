@@ -0,0 +1,36 @@
+package cn.ansteel.sc.db_mcp_server.metadata;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 从数据库读取元数据
+ */
+public interface MetadataProvider {
+
+    /**
+     * 读取范围内的全部表和视图，不包含列等详细信息
+     */
+    List<TableMetadata> loadTables(Connection connection, SchemaScope scope) throws SQLException;
+
+    /**
+     * 读取单张表，不存在时返回null
+     */
+    TableMetadata loadTable(Connection connection, SchemaScope scope, String tableName) throws SQLException;
+
+    /**
+     * 读取单张表的列、主键、索引和外键
+     */
+    TableDetails loadDetails(Connection connection, SchemaScope scope, String tableName) throws SQLException;
+
+    /**
+     * 一次读取多张表的列、主键、索引和外键
+     *
+     * @param tableNames 表名称，null表示范围内的全部表
+     * @return 表名称到详细信息的映射，没有任何列等信息的表可能不在其中
+     */
+    Map<String, TableDetails> loadSchemaDetails(Connection connection, SchemaScope scope, Collection<String> tableNames) throws SQLException;
+}
@@ -0,0 +1,7 @@
+package cn.ansteel.sc.db_mcp_server.metadata;
+
+/**
+ * 主键中的一列
+ */
+public record PrimaryKeyColumn(String columnName, int keySeq, String pkName) {
+}
@@ -0,0 +1,18 @@
+package cn.ansteel.sc.db_mcp_server.metadata;
+
+import cn.ansteel.sc.db_mcp_server.enums.DatabaseType;
+
+/**
+ * 元数据缓存的范围：一个配置下的一个catalog/schema
+ * <p>
+ * MySQL的数据库对应catalog，schema为null；其他数据库catalog为连接的当前数据库，schema为请求的模式或连接的默认模式
+ */
+public record SchemaScope(String profile, String catalog, String schema) {
+
+    /**
+     * 系统目录视图中表的所有者：MySQL为数据库名称，其他数据库为模式名称
+     */
+    public String owner(DatabaseType type) {
+        return type == DatabaseType.MYSQL ? catalog : schema;
+    }
+}
@@ -0,0 +1,341 @@
+package cn.ansteel.sc.db_mcp_server.metadata;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 一个缓存范围内表名、列名和备注的倒排索引
+ * <p>
+ * 标识符按下划线、camelCase和字母数字边界拆分，中日韩文字按单字和相邻两字切分；查询词依次尝试精确匹配和前缀匹配，
+ * 都没有结果时按编辑距离模糊匹配。表和列各是一个文档，表或列变更时只替换该表的文档
+ */
+public class SchemaSearchIndex {
+
+    public static final String TYPE_TABLE = "table";
+    public static final String TYPE_COLUMN = "column";
+
+    private static final float TABLE_NAME_WEIGHT = 3.0f;
+    private static final float COLUMN_NAME_WEIGHT = 2.0f;
+    private static final float REMARKS_WEIGHT = 1.0f;
+    /**
+     * 列文档中所属表名的权重，使"订单 金额"这类查询优先返回订单表中的金额列
+     */
+    private static final float OWNER_TABLE_WEIGHT = 0.5f;
+    private static final float PREFIX_MATCH = 0.6f;
+    private static final float FUZZY_MATCH = 0.4f;
+    private static final int MAX_PREFIX_TERMS = 200;
+
+    private final NavigableMap<String, Set<Document>> postings = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, List<Document>> documentsByTable = new ConcurrentHashMap<>();
+
+    /**
+     * 建立或替换一张表及其列的文档，表的详细信息未加载时只索引表名和表备注；
+     * 写入互斥执行，避免同一张表并发替换时留下孤立的文档
+     */
+    public synchronized void index(TableMetadata table) {
+        List<Document> documents = new ArrayList<>();
+        Map<String, Float> tableTerms = new HashMap<>();
+        addTerms(tableTerms, table.name(), TABLE_NAME_WEIGHT);
+        addTerms(tableTerms, table.remarks(), REMARKS_WEIGHT);
+        documents.add(new Document(TYPE_TABLE, table.name(), null, null, table.remarks(), tableTerms));
+        if (table.details() != null) {
+            for (ColumnMetadata column : table.details().columns()) {
+                Map<String, Float> columnTerms = new HashMap<>();
+                addTerms(columnTerms, table.name(), OWNER_TABLE_WEIGHT);
+                addTerms(columnTerms, column.remarks(), REMARKS_WEIGHT);
+                addTerms(columnTerms, column.name(), COLUMN_NAME_WEIGHT);
+                documents.add(new Document(TYPE_COLUMN, table.name(), column.name(), column.type(), column.remarks(), columnTerms));
+            }
+        }
+        remove(table.name());
+        documentsByTable.put(table.name(), documents);
+        for (Document document : documents) {
+            for (String term : document.terms) {
+                postings.compute(term, (k, docs) -> {
+                    Set<Document> updated = docs != null ? docs : ConcurrentHashMap.newKeySet();
+                    updated.add(document);
+                    return updated;
+                });
+            }
+        }
+    }
+
+    /**
+     * 移除一张表及其列的文档
+     */
+    public synchronized void remove(String tableName) {
+        List<Document> documents = documentsByTable.remove(tableName);
+        if (documents == null) {
+            return;
+        }
+        for (Document document : documents) {
+            for (String term : document.terms) {
+                postings.computeIfPresent(term, (k, docs) -> {
+                    docs.remove(document);
+                    return docs.isEmpty() ? null : docs;
+                });
+            }
+        }
+    }
+
+    /**
+     * 按相关度返回前limit个表或列
+     */
+    public List<SearchHit> search(String query, int limit) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int documentCount = Math.max(1, documentsByTable.values().stream().mapToInt(List::size).sum());
+        Map<Document, float[]> scores = new HashMap<>();
+        for (int i = 0; i < queryTerms.size(); i++) {
+            int queryIndex = i;
+            matchTerms(queryTerms.get(i)).forEach((term, match) -> {
+                Set<Document> documents = postings.get(term);
+                if (documents == null) {
+                    return;
+                }
+                float idf = (float) Math.log(1 + (double) documentCount / documents.size());
+                for (Document document : documents) {
+                    float score = match * document.weightOf(term) * idf;
+                    float[] perTerm = scores.computeIfAbsent(document, k -> new float[queryTerms.size()]);
+                    perTerm[queryIndex] = Math.max(perTerm[queryIndex], score);
+                }
+            });
+        }
+
+        PriorityQueue<SearchHit> top = new PriorityQueue<>(Comparator.comparingDouble(SearchHit::score));
+        scores.forEach((document, perTerm) -> {
+            float sum = 0;
+            int matched = 0;
+            for (float score : perTerm) {
+                sum += score;
+                if (score > 0) {
+                    matched++;
+                }
+            }
+            // 命中的查询词越多排名越高
+            float score = sum * matched / perTerm.length;
+            top.add(new SearchHit(document.type, document.tableName, document.columnName, document.dataType,
+                    document.remarks, Math.round(score * 1000) / 1000.0));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+        List<SearchHit> hits = new ArrayList<>(top);
+        hits.sort(Comparator.comparingDouble(SearchHit::score).reversed()
+                .thenComparing(SearchHit::tableName)
+                .thenComparing(hit -> hit.columnName() == null ? "" : hit.columnName()));
+        return hits;
+    }
+
+    /**
+     * 已索引的表和列数量
+     */
+    public int documentCount() {
+        return documentsByTable.values().stream().mapToInt(List::size).sum();
+    }
+
+    public int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * 查询词对应的索引词及匹配权重：精确和前缀匹配，都没有时按编辑距离模糊匹配
+     */
+    private Map<String, Float> matchTerms(String queryTerm) {
+        Map<String, Float> matches = new LinkedHashMap<>();
+        if (postings.containsKey(queryTerm)) {
+            matches.put(queryTerm, 1.0f);
+        }
+        if (isCjk(queryTerm.charAt(0))) {
+            return matches;
+        }
+        if (queryTerm.length() >= 2) {
+            int count = 0;
+            for (String term : postings.subMap(queryTerm, false, queryTerm + Character.MAX_VALUE, false).keySet()) {
+                matches.put(term, PREFIX_MATCH * queryTerm.length() / term.length() + PREFIX_MATCH / 2);
+                if (++count >= MAX_PREFIX_TERMS) {
+                    break;
+                }
+            }
+        }
+        int maxEdits = queryTerm.length() >= 8 ? 2 : queryTerm.length() >= 4 ? 1 : 0;
+        if (matches.isEmpty() && maxEdits > 0) {
+            for (String term : postings.keySet()) {
+                if (Math.abs(term.length() - queryTerm.length()) <= maxEdits && !isCjk(term.charAt(0))
+                        && editDistance(queryTerm, term, maxEdits) <= maxEdits) {
+                    matches.put(term, FUZZY_MATCH);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static void addTerms(Map<String, Float> terms, String text, float weight) {
+        for (String term : tokenize(text)) {
+            terms.merge(term, weight, Math::max);
+        }
+    }
+
+    /**
+     * 切分标识符或备注：snake_case、camelCase（含连续大写的缩写）和字母数字边界处拆分并转为小写，
+     * 由多段组成的标识符额外生成连写形式；中日韩文字生成单字和相邻两字
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        List<String> parts = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        StringBuilder cjk = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isCjk(c)) {
+                flushWord(word, parts, tokens);
+                cjk.append(c);
+                continue;
+            }
+            flushCjk(cjk, tokens);
+            if (!Character.isLetterOrDigit(c)) {
+                if (c != '_' && c != '$') {
+                    flushWord(word, parts, tokens);
+                } else {
+                    flushPart(word, parts);
+                }
+                continue;
+            }
+            if (!word.isEmpty()) {
+                char prev = word.charAt(word.length() - 1);
+                boolean camel = Character.isUpperCase(c) && Character.isLowerCase(prev);
+                boolean acronym = Character.isUpperCase(c) && Character.isUpperCase(prev)
+                        && i + 1 < text.length() && Character.isLowerCase(text.charAt(i + 1));
+                boolean digit = Character.isDigit(c) != Character.isDigit(prev);
+                if (camel || acronym || digit) {
+                    flushPart(word, parts);
+                }
+            }
+            word.append(c);
+        }
+        flushWord(word, parts, tokens);
+        flushCjk(cjk, tokens);
+        return tokens.stream().distinct().toList();
+    }
+
+    private static void flushPart(StringBuilder word, List<String> parts) {
+        if (!word.isEmpty()) {
+            parts.add(word.toString().toLowerCase());
+            word.setLength(0);
+        }
+    }
+
+    private static void flushWord(StringBuilder word, List<String> parts, List<String> tokens) {
+        flushPart(word, parts);
+        if (parts.isEmpty()) {
+            return;
+        }
+        tokens.addAll(parts);
+        if (parts.size() > 1) {
+            tokens.add(String.join("", parts));
+        }
+        parts.clear();
+    }
+
+    private static void flushCjk(StringBuilder cjk, List<String> tokens) {
+        for (int i = 0; i < cjk.length(); i++) {
+            tokens.add(String.valueOf(cjk.charAt(i)));
+            if (i + 1 < cjk.length()) {
+                tokens.add(cjk.substring(i, i + 2));
+            }
+        }
+        cjk.setLength(0);
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL;
+    }
+
+    /**
+     * 编辑距离，超过max时提前返回max + 1
+     */
+    private static int editDistance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * 一个表或列文档，索引词和权重保存在并行数组中以减少内存占用
+     */
+    private static final class Document {
+        private final String type;
+        private final String tableName;
+        private final String columnName;
+        private final String dataType;
+        private final String remarks;
+        private final String[] terms;
+        private final float[] weights;
+
+        private Document(String type, String tableName, String columnName, String dataType, String remarks, Map<String, Float> termWeights) {
+            this.type = type;
+            this.tableName = tableName;
+            this.columnName = columnName;
+            this.dataType = dataType;
+            this.remarks = remarks;
+            this.terms = new String[termWeights.size()];
+            this.weights = new float[termWeights.size()];
+            int i = 0;
+            for (Map.Entry<String, Float> entry : termWeights.entrySet()) {
+                terms[i] = entry.getKey().intern();
+                weights[i] = entry.getValue();
+                i++;
+            }
+        }
+
+        float weightOf(String term) {
+            for (int i = 0; i < terms.length; i++) {
+                if (terms[i].equals(term)) {
+                    return weights[i];
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * 一条搜索结果，type为table时columnName和dataType为null
+     */
+    public record SearchHit(String type, String tableName, String columnName, String dataType, String remarks, double score) {
+    }
+}
@@ -0,0 +1,26 @@
+package cn.ansteel.sc.db_mcp_server.metadata;
+
+import java.util.List;
+
+/**
+ * 表的列、主键、索引和外键，创建后不再修改
+ *
+ * @param exportedKeys 其他表引用本表的外键
+ * @param importedKeys 本表引用其他表的外键
+ */
+public record TableDetails(List<ColumnMetadata> columns, List<PrimaryKeyColumn> primaryKeys, List<IndexColumn> indexes,
+                           List<ForeignKeyColumn> exportedKeys, List<ForeignKeyColumn> importedKeys) {
+
+    /**
+     * 表不存在时使用的空结构
+     */
+    public static final TableDetails EMPTY = new TableDetails(List.of(), List.of(), List.of(), List.of(), List.of());
+
+    public TableDetails {
+        columns = List.copyOf(columns);
+        primaryKeys = List.copyOf(primaryKeys);
+        indexes = List.copyOf(indexes);
+        exportedKeys = List.copyOf(exportedKeys);
+        importedKeys = List.copyOf(importedKeys);
+    }
+}
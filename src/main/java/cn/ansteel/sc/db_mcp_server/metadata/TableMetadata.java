@@ -0,0 +1,19 @@
+package cn.ansteel.sc.db_mcp_server.metadata;
+
+/**
+ * 缓存中的一张表，创建后不再修改，更新时替换为新的实例
+ *
+ * @param changeToken 按方言DDL时间等信息生成的变更标记，不支持增量刷新时为null
+ * @param details     列、主键、索引和外键，首次使用时加载，未加载时为null
+ */
+public record TableMetadata(String catalog, String schema, String name, String type, String remarks,
+                            String changeToken, TableDetails details) {
+
+    public TableMetadata withChangeToken(String token) {
+        return new TableMetadata(catalog, schema, name, type, remarks, token, details);
+    }
+
+    public TableMetadata withDetails(TableDetails tableDetails) {
+        return new TableMetadata(catalog, schema, name, type, remarks, changeToken, tableDetails);
+    }
+}
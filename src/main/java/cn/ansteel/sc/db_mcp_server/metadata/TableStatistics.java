@@ -0,0 +1,119 @@
+package cn.ansteel.sc.db_mcp_server.metadata;
+
+import cn.ansteel.sc.db_mcp_server.constant.DatabaseConstant;
+import cn.ansteel.sc.db_mcp_server.enums.DatabaseType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 从优化器统计和系统目录读取的单表统计信息，都是估算值，不扫描表
+ *
+ * @param rowEstimate  估算行数，表从未收集统计信息时可能为null或0
+ * @param totalBytes   表、索引和大对象占用的空间
+ * @param dataBytes    表数据占用的空间
+ * @param indexBytes   索引占用的空间
+ * @param lastAnalyzed 最近一次收集统计信息的时间
+ * @param lastModified 最近一次数据修改的时间，数据库不记录时为null
+ */
+@Slf4j
+public record TableStatistics(Long rowEstimate, Long totalBytes, Long dataBytes, Long indexBytes,
+                              String lastAnalyzed, String lastModified) {
+
+    /**
+     * 按方言读取一张表的统计信息，数据库类型未知、范围缺少所需的数据库/模式名称或目录中没有该表时返回null
+     *
+     * @param owner     表所属的数据库（MySQL）或模式名称
+     * @param tableName 与目录中大小写一致的表名
+     */
+    public static TableStatistics load(Connection connection, DatabaseType type, String owner, String tableName) throws SQLException {
+        if (type == null || owner == null) {
+            return null;
+        }
+        Map<String, Object> values;
+        String supplement = null;
+        switch (type) {
+            case MYSQL -> {
+                values = query(connection, DatabaseConstant.TableStatisticsStatements.MYSQL, owner, tableName);
+                supplement = DatabaseConstant.TableStatisticsStatements.MYSQL_ANALYZED;
+            }
+            case POSTGRESQL -> values = query(connection, DatabaseConstant.TableStatisticsStatements.POSTGRESQL, owner, tableName);
+            case ORACLE -> {
+                values = query(connection, DatabaseConstant.TableStatisticsStatements.ORACLE, owner, tableName);
+                supplement = DatabaseConstant.TableStatisticsStatements.ORACLE_SEGMENTS;
+            }
+            case SQLSERVER -> {
+                try {
+                    values = query(connection, DatabaseConstant.TableStatisticsStatements.SQLSERVER, owner, tableName);
+                } catch (SQLException e) {
+                    log.debug("读取sys.dm_db_partition_stats失败，改用sys.partitions: {}", e.getMessage());
+                    values = query(connection, DatabaseConstant.TableStatisticsStatements.SQLSERVER_PARTITIONS, owner, tableName);
+                }
+            }
+            default -> values = null;
+        }
+        if (values == null) {
+            return null;
+        }
+        if (supplement != null) {
+            try {
+                Map<String, Object> supplemented = query(connection, supplement, owner, tableName);
+                if (supplemented != null) {
+                    for (Map.Entry<String, Object> entry : supplemented.entrySet()) {
+                        if (entry.getValue() != null) {
+                            values.put(entry.getKey(), entry.getValue());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                log.debug("读取补充统计信息失败: {}", e.getMessage());
+            }
+        }
+        return new TableStatistics(
+                (Long) values.get("ROW_ESTIMATE"),
+                (Long) values.get("TOTAL_BYTES"),
+                (Long) values.get("DATA_BYTES"),
+                (Long) values.get("INDEX_BYTES"),
+                (String) values.get("LAST_ANALYZED"),
+                (String) values.get("LAST_MODIFIED"));
+    }
+
+    /**
+     * 执行一条统计语句并返回第一行，列名转为大写，数值转为Long，时间转为ISO格式字符串；没有结果时返回null
+     */
+    private static Map<String, Object> query(Connection connection, String sql, String owner, String tableName) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            // 参数按数据库/模式名称和表名成对出现
+            long count = sql.chars().filter(c -> c == '?').count();
+            for (int i = 1; i <= count; i++) {
+                stmt.setString(i, i % 2 == 1 ? owner : tableName);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                ResultSetMetaData metaData = rs.getMetaData();
+                Map<String, Object> values = new HashMap<>();
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    String column = metaData.getColumnLabel(i).toUpperCase(Locale.ROOT);
+                    if (column.startsWith("LAST_")) {
+                        Timestamp time = rs.getTimestamp(i);
+                        values.put(column, time == null ? null : time.toLocalDateTime().toString());
+                    } else {
+                        Object value = rs.getObject(i);
+                        values.put(column, value instanceof Number number ? Long.valueOf(number.longValue()) : null);
+                    }
+                }
+                return values;
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package cn.ansteel.sc.db_mcp_server.service;
+
+import cn.ansteel.sc.db_mcp_server.config.DatabaseConfigProperties;
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import cn.ansteel.sc.db_mcp_server.factory.DataSourceFactory;
+import cn.ansteel.sc.db_mcp_server.mcp.tool.DatabaseConnectionManager;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 自适应连接池调整器
+ * <p>
+ * 定期采样HikariPoolMXBean的活跃、空闲、等待线程数以及连接借出等待时间，
+ * 通过HikariConfigMXBean在配置的上下限之间调整maximumPoolSize和minimumIdle
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AdaptivePoolSizer {
+
+    /**
+     * Hikari未配置maximumPoolSize时的默认值，adaptiveCeiling和maximumPoolSize都未设置时作为上限
+     */
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final DatabaseConfigService databaseConfigService;
+    private final DataSourceFactory dataSourceFactory;
+    private final DatabaseConnectionManager connectionManager;
+    private final DbMcpProperties properties;
+
+    private final Map<String, SizingState> states = new ConcurrentHashMap<>();
+
+    /**
+     * 定期采样并调整所有开启自适应模式的连接池
+     */
+    @Scheduled(fixedDelayString = "${db-mcp.adaptive-pool.sample-interval:10000}")
+    public void sample() {
+        Map<String, DatabaseConfigProperties.ConnectionConfig> profiles = databaseConfigService.getAvailableProfiles();
+        if (profiles == null) {
+            return;
+        }
+        profiles.forEach((profile, config) -> {
+            if (config.getPool() == null || !config.getPool().isAdaptive()) {
+                states.remove(profile);
+                return;
+            }
+            HikariDataSource dataSource = dataSourceFactory.findDataSource(profile);
+            if (dataSource == null || dataSource.isClosed() || dataSource.getHikariPoolMXBean() == null) {
+                return;
+            }
+            try {
+                resize(profile, config.getPool(), dataSource);
+            } catch (Exception e) {
+                log.warn("Adaptive sizing failed for profile '{}': {}", profile, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 获取所有已创建连接池的当前指标
+     */
+    public Map<String, PoolSample> getPoolSamples() {
+        Map<String, PoolSample> samples = new TreeMap<>();
+        Map<String, DatabaseConfigProperties.ConnectionConfig> profiles = databaseConfigService.getAvailableProfiles();
+        if (profiles == null) {
+            return samples;
+        }
+        profiles.forEach((profile, config) -> {
+            HikariDataSource dataSource = dataSourceFactory.findDataSource(profile);
+            if (dataSource != null && !dataSource.isClosed() && dataSource.getHikariPoolMXBean() != null) {
+                PoolSample sample = snapshot(dataSource);
+                sample.setAdaptive(config.getPool() != null && config.getPool().isAdaptive());
+                SizingState state = states.get(profile);
+                sample.setAvgAcquireMillis(state == null ? 0 : state.lastAvgAcquireMillis);
+                samples.put(profile, sample);
+            }
+        });
+        return samples;
+    }
+
+    private void resize(String profile, DatabaseConfigProperties.PoolConfig poolConfig, HikariDataSource dataSource) {
+        DbMcpProperties.AdaptivePool settings = properties.getAdaptivePool();
+        SizingState state = states.computeIfAbsent(profile, k -> new SizingState());
+        PoolSample sample = snapshot(dataSource);
+
+        int floor = floorOf(poolConfig);
+        int ceiling = ceilingOf(poolConfig);
+        int current = sample.getMaximumPoolSize();
+        double utilization = current == 0 ? 0 : (double) sample.getActiveConnections() / current;
+        double avgAcquireMillis = state.acquireMillisSinceLastSample(connectionManager.getLeaseStats(profile));
+
+        boolean pressure = sample.getThreadsAwaitingConnection() > 0
+                || avgAcquireMillis > settings.getAcquireWaitThreshold()
+                || utilization >= settings.getGrowUtilization();
+        boolean shrink = false;
+        if (pressure) {
+            state.quietSamples = 0;
+        } else if (utilization <= settings.getShrinkUtilization()) {
+            if (++state.quietSamples >= settings.getShrinkAfterSamples()) {
+                state.quietSamples = 0;
+                shrink = true;
+            }
+        } else {
+            state.quietSamples = 0;
+        }
+        int target = nextSize(current, floor, ceiling, pressure, shrink);
+
+        if (target != current) {
+            HikariConfigMXBean configBean = dataSource.getHikariConfigMXBean();
+            int minimumIdle = Math.min(poolConfig.getMinimumIdle() > 0 ? poolConfig.getMinimumIdle() : floor,
+                    target > current ? target : floor);
+            // 先调整两者中会变小的一个，保证minimumIdle始终不大于maximumPoolSize
+            if (target > current) {
+                configBean.setMaximumPoolSize(target);
+                configBean.setMinimumIdle(minimumIdle);
+            } else {
+                configBean.setMinimumIdle(minimumIdle);
+                configBean.setMaximumPoolSize(target);
+            }
+            log.info("Resized pool for profile '{}': maximumPoolSize {} -> {}, minimumIdle {} (active={}, idle={}, waiting={}, avgAcquire={}ms)",
+                    profile, current, target, minimumIdle, sample.getActiveConnections(), sample.getIdleConnections(),
+                    sample.getThreadsAwaitingConnection(), String.format("%.1f", avgAcquireMillis));
+        }
+    }
+
+    /**
+     * 自适应模式下连接池最大连接数的下限，至少为1
+     */
+    static int floorOf(DatabaseConfigProperties.PoolConfig poolConfig) {
+        return Math.max(1, poolConfig.getAdaptiveFloor());
+    }
+
+    /**
+     * 自适应模式下连接池最大连接数的上限：adaptiveCeiling、maximumPoolSize、Hikari默认值依次生效，不小于下限
+     */
+    static int ceilingOf(DatabaseConfigProperties.PoolConfig poolConfig) {
+        return Math.max(floorOf(poolConfig), poolConfig.getAdaptiveCeiling() > 0 ? poolConfig.getAdaptiveCeiling()
+                : poolConfig.getMaximumPoolSize() > 0 ? poolConfig.getMaximumPoolSize() : DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * 计算下一次的maximumPoolSize：有压力时按当前大小的1/4扩容，连续空闲时按1/4缩容，
+     * 超出上下限时（例如配置被修改）收敛回区间内
+     */
+    static int nextSize(int current, int floor, int ceiling, boolean pressure, boolean shrink) {
+        int target = current;
+        if (pressure) {
+            target = Math.min(ceiling, current + step(current));
+        } else if (shrink) {
+            target = Math.max(floor, current - step(current));
+        }
+        return Math.max(floor, Math.min(ceiling, target));
+    }
+
+    private static int step(int current) {
+        return Math.max(1, current / 4);
+    }
+
+    private PoolSample snapshot(HikariDataSource dataSource) {
+        HikariPoolMXBean poolBean = dataSource.getHikariPoolMXBean();
+        PoolSample sample = new PoolSample();
+        sample.setActiveConnections(poolBean.getActiveConnections());
+        sample.setIdleConnections(poolBean.getIdleConnections());
+        sample.setTotalConnections(poolBean.getTotalConnections());
+        sample.setThreadsAwaitingConnection(poolBean.getThreadsAwaitingConnection());
+        sample.setMaximumPoolSize(dataSource.getHikariConfigMXBean().getMaximumPoolSize());
+        sample.setMinimumIdle(dataSource.getHikariConfigMXBean().getMinimumIdle());
+        return sample;
+    }
+
+    /**
+     * 单个连接池的调整状态，只在调度线程中访问
+     */
+    private static class SizingState {
+        private int quietSamples;
+        private long lastTotalLeases;
+        private double lastTotalAcquireMillis;
+        private volatile double lastAvgAcquireMillis;
+
+        /**
+         * 计算上次采样以来新借出连接的平均等待时间
+         */
+        double acquireMillisSinceLastSample(DatabaseConnectionManager.LeaseStats stats) {
+            if (stats == null) {
+                return 0;
+            }
+            long leases = stats.getTotalLeases() - lastTotalLeases;
+            double acquireMillis = stats.getTotalAcquireMillis() - lastTotalAcquireMillis;
+            lastTotalLeases = stats.getTotalLeases();
+            lastTotalAcquireMillis = stats.getTotalAcquireMillis();
+            lastAvgAcquireMillis = leases <= 0 ? 0 : acquireMillis / leases;
+            return lastAvgAcquireMillis;
+        }
+    }
+
+    /**
+     * 连接池指标采样
+     */
+    @Data
+    public static class PoolSample {
+        private boolean adaptive;
+        private int activeConnections;
+        private int idleConnections;
+        private int totalConnections;
+        private int threadsAwaitingConnection;
+        private int maximumPoolSize;
+        private int minimumIdle;
+        private double avgAcquireMillis;
+    }
+}
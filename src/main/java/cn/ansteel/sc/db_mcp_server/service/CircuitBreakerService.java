@@ -0,0 +1,252 @@
+package cn.ansteel.sc.db_mcp_server.service;
+
+import cn.ansteel.sc.db_mcp_server.config.DatabaseConfigProperties;
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import cn.ansteel.sc.db_mcp_server.constant.McpConstants;
+import cn.ansteel.sc.db_mcp_server.exception.QueryRejectedException;
+import cn.ansteel.sc.db_mcp_server.factory.DataSourceFactory;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按配置的熔断器
+ * <p>
+ * 连续的连接类失败达到阈值后熔断（OPEN），熔断期间工具调用立即失败不再等待连接超时；
+ * 熔断持续一段时间后进入半开（HALF_OPEN），由后台用方言测试语句探测，成功则恢复（CLOSED），失败则继续熔断。
+ * 探测在独立线程上通过限时的单个物理连接执行，不占用定时任务线程，也不重建连接池
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CircuitBreakerService {
+
+    private static final int PROBE_QUERY_TIMEOUT_SECONDS = 5;
+    private static final long PROBE_CONNECT_TIMEOUT = 5000;
+
+    private final DatabaseConfigService databaseConfigService;
+    private final DataSourceFactory dataSourceFactory;
+    private final DbMcpProperties properties;
+    private final ConcurrentMap<String, Breaker> breakers = new ConcurrentHashMap<>();
+    private final ExecutorService probeExecutor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "circuit-probe");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * 调用前检查熔断状态
+     *
+     * @throws QueryRejectedException 熔断中
+     */
+    public void checkAllowed(String profile) {
+        if (!properties.getCircuitBreaker().isEnabled()) {
+            return;
+        }
+        Breaker breaker = breakers.get(profile);
+        if (breaker != null && breaker.state.get() != State.CLOSED) {
+            breaker.rejected.increment();
+            throw new QueryRejectedException(McpConstants.ErrorCodes.CIRCUIT_OPEN,
+                    String.format("配置 %s 数据库连接异常，已熔断，请稍后重试", profile));
+        }
+    }
+
+    /**
+     * 熔断未启用、该配置没有熔断记录或熔断器处于关闭状态时返回true；只查询状态，不计入拒绝次数
+     */
+    public boolean isClosed(String profile) {
+        if (!properties.getCircuitBreaker().isEnabled()) {
+            return true;
+        }
+        Breaker breaker = breakers.get(profile);
+        return breaker == null || breaker.state.get() == State.CLOSED;
+    }
+
+    /**
+     * 记录一次成功调用
+     */
+    public void onSuccess(String profile) {
+        Breaker breaker = breakers.get(profile);
+        if (breaker != null) {
+            breaker.consecutiveFailures.set(0);
+        }
+    }
+
+    /**
+     * 记录一次失败调用，只有连接类失败计入熔断
+     */
+    public void onFailure(String profile, Throwable error) {
+        if (!properties.getCircuitBreaker().isEnabled() || !isConnectionFailure(error)) {
+            return;
+        }
+        Breaker breaker = breakers.computeIfAbsent(profile, k -> new Breaker());
+        breaker.lastFailure = error.getMessage();
+        if (breaker.consecutiveFailures.incrementAndGet() >= properties.getCircuitBreaker().getFailureThreshold()
+                && breaker.transition(State.CLOSED, State.OPEN)) {
+            log.warn("Circuit opened for profile '{}' after {} consecutive failures: {}",
+                    profile, breaker.consecutiveFailures.get(), error.getMessage());
+        }
+    }
+
+    /**
+     * 判断异常是否属于连接类失败（连接获取超时、网络中断、SQLState 08类）
+     */
+    public static boolean isConnectionFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException
+                    || cause instanceof SQLNonTransientConnectionException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException
+                    && sqlException.getSQLState() != null && sqlException.getSQLState().startsWith("08")) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取各配置的熔断状态
+     */
+    public Map<String, BreakerStats> getStats() {
+        Map<String, BreakerStats> stats = new TreeMap<>();
+        breakers.forEach((profile, breaker) -> stats.put(profile, breaker.snapshot()));
+        return stats;
+    }
+
+    /**
+     * 熔断超过openDuration的配置进入半开状态，并交给探测线程检查数据库是否恢复；半开状态保证同一配置同时只有一次探测
+     */
+    @Scheduled(fixedDelayString = "${db-mcp.circuit-breaker.probe-interval:5000}")
+    public void probeOpenCircuits() {
+        long openNanos = TimeUnit.MILLISECONDS.toNanos(properties.getCircuitBreaker().getOpenDuration());
+        breakers.forEach((profile, breaker) -> {
+            if (breaker.state.get() != State.OPEN || System.nanoTime() - breaker.openedAt < openNanos
+                    || !breaker.transition(State.OPEN, State.HALF_OPEN)) {
+                return;
+            }
+            try {
+                probeExecutor.execute(() -> completeProbe(profile, breaker));
+            } catch (RejectedExecutionException e) {
+                breaker.transition(State.HALF_OPEN, State.OPEN);
+            }
+        });
+    }
+
+    private void completeProbe(String profile, Breaker breaker) {
+        if (probe(profile)) {
+            breaker.consecutiveFailures.set(0);
+            breaker.transition(State.HALF_OPEN, State.CLOSED);
+            log.info("Circuit closed for profile '{}' after successful probe", profile);
+        } else {
+            breaker.transition(State.HALF_OPEN, State.OPEN);
+        }
+    }
+
+    /**
+     * 用限时的单个物理连接执行测试语句，数据库不可达时最多等待连接超时时间，不会触发连接池重建
+     */
+    private boolean probe(String profile) {
+        DatabaseConfigProperties.ConnectionConfig config = databaseConfigService.getConnectionConfig(profile);
+        if (config == null) {
+            breakers.remove(profile);
+            return true;
+        }
+        try (Connection connection = DataSourceFactory.openDirectConnection(config, PROBE_CONNECT_TIMEOUT);
+             Statement stmt = connection.createStatement()) {
+            stmt.setQueryTimeout(PROBE_QUERY_TIMEOUT_SECONDS);
+            try (ResultSet rs = stmt.executeQuery(dataSourceFactory.getTestQuery(config))) {
+                return rs.next();
+            }
+        } catch (Exception e) {
+            Breaker breaker = breakers.get(profile);
+            if (breaker != null) {
+                breaker.lastFailure = e.getMessage();
+            }
+            log.warn("Circuit probe failed for profile '{}': {}", profile, e.getMessage());
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        probeExecutor.shutdownNow();
+    }
+
+    private static final class Breaker {
+        private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final LongAdder rejected = new LongAdder();
+        private final ConcurrentMap<String, LongAdder> transitions = new ConcurrentHashMap<>();
+        private volatile long openedAt;
+        private volatile String lastFailure;
+
+        boolean transition(State from, State to) {
+            if (!state.compareAndSet(from, to)) {
+                return false;
+            }
+            if (to == State.OPEN) {
+                openedAt = System.nanoTime();
+            }
+            transitions.computeIfAbsent(from + "->" + to, k -> new LongAdder()).increment();
+            return true;
+        }
+
+        BreakerStats snapshot() {
+            BreakerStats stats = new BreakerStats();
+            stats.setState(state.get());
+            stats.setConsecutiveFailures(consecutiveFailures.get());
+            stats.setRejectedCalls(rejected.sum());
+            stats.setLastFailure(lastFailure);
+            Map<String, Long> counts = new TreeMap<>();
+            transitions.forEach((transition, count) -> counts.put(transition, count.sum()));
+            stats.setTransitions(counts);
+            return stats;
+        }
+    }
+
+    /**
+     * 熔断器状态统计
+     */
+    @Data
+    public static class BreakerStats {
+        private State state;
+        private int consecutiveFailures;
+        private long rejectedCalls;
+        private String lastFailure;
+        private Map<String, Long> transitions;
+    }
+}
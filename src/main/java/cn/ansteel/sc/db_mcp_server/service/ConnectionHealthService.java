@@ -0,0 +1,146 @@
+package cn.ansteel.sc.db_mcp_server.service;
+
+import cn.ansteel.sc.db_mcp_server.config.DatabaseConfigProperties;
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import cn.ansteel.sc.db_mcp_server.config.VirtualThreads;
+import cn.ansteel.sc.db_mcp_server.factory.DataSourceFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 连接健康检查服务
+ * <p>
+ * 已有连接池时直接借出连接校验，没有连接池时只建立一个临时物理连接，不再为检查创建临时连接池。
+ * 多个配置并行检查，每个配置有独立的截止时间，结果按短TTL缓存，同一配置的并发检查共享同一次探测
+ */
+@Slf4j
+@Service
+public class ConnectionHealthService {
+
+    private final DataSourceFactory dataSourceFactory;
+    private final DbMcpProperties properties;
+    private final ExecutorService executor;
+    private final ConcurrentMap<String, HealthEntry> entries = new ConcurrentHashMap<>();
+
+    public ConnectionHealthService(DataSourceFactory dataSourceFactory, DbMcpProperties properties, Environment environment) {
+        this.dataSourceFactory = dataSourceFactory;
+        this.properties = properties;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, properties.getHealthCheck().getParallelism()),
+                VirtualThreads.threadFactory("health-check-", VirtualThreads.isEnabled(environment)));
+    }
+
+    /**
+     * 检查单个配置的连接是否可用
+     */
+    public boolean check(String profile, DatabaseConfigProperties.ConnectionConfig config) {
+        return await(profile, submit(profile, config), deadline());
+    }
+
+    /**
+     * 并行检查多个配置，总耗时约等于最慢的一次检查
+     */
+    public Map<String, Boolean> checkAll(Map<String, DatabaseConfigProperties.ConnectionConfig> profiles) {
+        Map<String, CompletableFuture<Boolean>> futures = new LinkedHashMap<>();
+        profiles.forEach((profile, config) -> futures.put(profile, submit(profile, config)));
+
+        // 所有检查同时开始，共用同一个截止时间，避免逐个等待时超时累加
+        long deadline = deadline();
+        Map<String, Boolean> results = new LinkedHashMap<>();
+        futures.forEach((profile, future) -> results.put(profile, await(profile, future, deadline)));
+        return results;
+    }
+
+    /**
+     * 清除某个配置的缓存结果，配置变更后调用
+     */
+    public void invalidate(String profile) {
+        entries.remove(profile);
+    }
+
+    private CompletableFuture<Boolean> submit(String profile, DatabaseConfigProperties.ConnectionConfig config) {
+        long ttlNanos = TimeUnit.MILLISECONDS.toNanos(properties.getHealthCheck().getCacheTtl());
+        HealthEntry entry = entries.compute(profile, (key, existing) -> {
+            if (existing != null && (!existing.future.isDone() || System.nanoTime() - existing.createdAt < ttlNanos)) {
+                return existing;
+            }
+            CompletableFuture<Boolean> future = new CompletableFuture<>();
+            Future<?> task = executor.submit(() -> future.complete(probe(profile, config)));
+            // 超时取消时中断执行中的探测，释放检查线程
+            future.whenComplete((result, error) -> {
+                if (future.isCancelled()) {
+                    task.cancel(true);
+                }
+            });
+            return new HealthEntry(future);
+        });
+        return entry.future;
+    }
+
+    private long deadline() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getHealthCheck().getTimeout());
+    }
+
+    private boolean await(String profile, CompletableFuture<Boolean> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Connection test timed out for profile '{}'", profile);
+            // 取消并移除未完成的探测，之后的检查重新探测而不是继续等待同一次探测
+            future.cancel(true);
+            entries.computeIfPresent(profile, (key, entry) -> entry.future == future ? null : entry);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.warn("Connection test failed for profile '{}': {}", profile, e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean probe(String profile, DatabaseConfigProperties.ConnectionConfig config) {
+        long timeout = properties.getHealthCheck().getTimeout();
+        int validSeconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeout));
+        HikariDataSource dataSource = dataSourceFactory.findDataSource(profile);
+        // 配置尚未创建连接池时只建立单个物理连接，建立连接和读取的时间都限制在检查超时时间内
+        try (Connection connection = dataSource != null && !dataSource.isClosed()
+                ? dataSource.getConnection()
+                : DataSourceFactory.openDirectConnection(config, timeout)) {
+            boolean valid = connection.isValid(validSeconds);
+            log.info("Connection test for profile '{}' result: {}", profile, valid);
+            return valid;
+        } catch (Exception e) {
+            log.error("Connection test failed for profile '{}': {}", profile, e.getMessage());
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static final class HealthEntry {
+        private final CompletableFuture<Boolean> future;
+        private final long createdAt = System.nanoTime();
+
+        private HealthEntry(CompletableFuture<Boolean> future) {
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package cn.ansteel.sc.db_mcp_server.service;
+
+import cn.ansteel.sc.db_mcp_server.config.DatabaseConfigProperties;
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import cn.ansteel.sc.db_mcp_server.factory.DataSourceFactory;
+import cn.ansteel.sc.db_mcp_server.factory.DatabaseServerInfo;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 连接池启动预热服务
+ * <p>
+ * 在应用就绪前并行创建所选配置的连接池，填充到minimumIdle，执行测试语句并缓存服务端版本，
+ * 避免首个工具调用承担建池、握手和驱动加载的开销。ApplicationRunner执行完毕后Spring才会发布就绪状态
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DataSourceWarmupService implements ApplicationRunner {
+
+    private static final String ALL_PROFILES = "*";
+
+    private final DatabaseConfigService databaseConfigService;
+    private final DataSourceFactory dataSourceFactory;
+    private final DbMcpProperties properties;
+
+    private final Map<String, WarmupResult> results = new ConcurrentHashMap<>();
+    private volatile boolean completed;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        DbMcpProperties.Warmup warmup = properties.getWarmup();
+        if (!warmup.isEnabled()) {
+            completed = true;
+            return;
+        }
+
+        Map<String, DatabaseConfigProperties.ConnectionConfig> profiles = selectProfiles(warmup.getProfiles());
+        if (profiles.isEmpty()) {
+            completed = true;
+            return;
+        }
+
+        log.info("Warming up {} data source(s): {}", profiles.size(), profiles.keySet());
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(warmup.getParallelism(), profiles.size())));
+        try {
+            Map<String, Future<WarmupResult>> futures = new LinkedHashMap<>();
+            profiles.forEach((profile, config) -> futures.put(profile, executor.submit(() -> warmUp(profile, config))));
+
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(warmup.getTimeout());
+            futures.forEach((profile, future) -> results.put(profile, await(profile, future, deadline)));
+        } finally {
+            executor.shutdownNow();
+            completed = true;
+        }
+
+        long succeeded = results.values().stream().filter(WarmupResult::isSuccess).count();
+        log.info("Data source warm-up finished in {} ms: {}/{} succeeded",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), succeeded, profiles.size());
+    }
+
+    /**
+     * 预热是否已结束（无论成功与否）
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * 获取各配置的预热结果
+     */
+    public Map<String, WarmupResult> getResults() {
+        return new TreeMap<>(results);
+    }
+
+    private Map<String, DatabaseConfigProperties.ConnectionConfig> selectProfiles(List<String> selected) {
+        Map<String, DatabaseConfigProperties.ConnectionConfig> available = databaseConfigService.getAvailableProfiles();
+        Map<String, DatabaseConfigProperties.ConnectionConfig> profiles = new LinkedHashMap<>();
+        if (available == null) {
+            return profiles;
+        }
+        if (selected == null || selected.isEmpty()) {
+            String activeProfile = databaseConfigService.getActiveProfile();
+            if (activeProfile != null && available.containsKey(activeProfile)) {
+                profiles.put(activeProfile, available.get(activeProfile));
+            }
+        } else if (selected.contains(ALL_PROFILES)) {
+            profiles.putAll(available);
+        } else {
+            for (String profile : selected) {
+                if (available.containsKey(profile)) {
+                    profiles.put(profile, available.get(profile));
+                } else {
+                    log.warn("Warm-up profile '{}' not found, skipped", profile);
+                }
+            }
+        }
+        return profiles;
+    }
+
+    private WarmupResult warmUp(String profile, DatabaseConfigProperties.ConnectionConfig config) {
+        long start = System.nanoTime();
+        WarmupResult result = new WarmupResult();
+        try {
+            DataSource dataSource = dataSourceFactory.getDataSource(profile, config);
+            int target = config.getPool() != null ? Math.max(1, config.getPool().getMinimumIdle()) : 1;
+
+            // 同时持有target个连接，迫使连接池把物理连接建到minimumIdle
+            List<Connection> connections = new ArrayList<>(target);
+            try {
+                for (int i = 0; i < target; i++) {
+                    connections.add(dataSource.getConnection());
+                }
+                try (Statement stmt = connections.get(0).createStatement();
+                     ResultSet rs = stmt.executeQuery(dataSourceFactory.getTestQuery(config))) {
+                    rs.next();
+                }
+            } finally {
+                for (Connection connection : connections) {
+                    closeQuietly(connection);
+                }
+            }
+
+            DatabaseServerInfo serverInfo = dataSourceFactory.getServerInfo(profile);
+            result.setSuccess(true);
+            result.setConnections(target);
+            result.setProductName(serverInfo.getProductName());
+            result.setProductVersion(serverInfo.getProductVersion());
+        } catch (Exception e) {
+            result.setSuccess(false);
+            result.setError(e.getMessage());
+            log.warn("Warm-up failed for profile '{}': {}", profile, e.getMessage());
+        }
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        if (result.isSuccess()) {
+            log.info("Warmed up profile '{}' in {} ms ({} connection(s), {} {})", profile, result.getElapsedMillis(),
+                    result.getConnections(), result.getProductName(), result.getProductVersion());
+        }
+        return result;
+    }
+
+    private WarmupResult await(String profile, Future<WarmupResult> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Warm-up timed out for profile '{}'", profile);
+            return WarmupResult.failed("warm-up timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return WarmupResult.failed("warm-up interrupted");
+        } catch (Exception e) {
+            return WarmupResult.failed(e.getMessage());
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Failed to release warm-up connection", e);
+        }
+    }
+
+    /**
+     * 单个配置的预热结果
+     */
+    @Data
+    public static class WarmupResult {
+        private boolean success;
+        private int connections;
+        private long elapsedMillis;
+        private String productName;
+        private String productVersion;
+        private String error;
+
+        static WarmupResult failed(String error) {
+            WarmupResult result = new WarmupResult();
+            result.setSuccess(false);
+            result.setError(error);
+            return result;
+        }
+    }
+}
@@ -12,12 +12,8 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import javax.sql.DataSource;
-import java.sql.Connection;
-import java.sql.SQLException;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 /**
  * 数据库配置服务 - 使用文件存储
@@ -29,6 +25,9 @@ public class DatabaseConfigService {
 
     private final DatabaseConfigFileService configFileService;
     private final DataSourceFactory dataSourceFactory;
+    private final ConnectionHealthService connectionHealthService;
+    private final QueryResultCache resultCache;
+    private final SchemaMetadataCache metadataCache;
 
     // 缓存当前配置，避免频繁读取文件
     private volatile String cachedActiveProfile;
@@ -107,31 +106,15 @@ public class DatabaseConfigService {
     }
 
     /**
-     * 测试数据库连接
+     * 测试数据库连接，已有连接池时直接借用，结果短时间缓存
      */
     public boolean testConnection(String profile) {
-        try {
-            DatabaseConfigProperties.ConnectionConfig config = getConnectionConfig(profile);
-            if (config == null) {
-                log.warn("Configuration not found for profile: {}", profile);
-                return false;
-            }
-
-            // 临时创建数据源进行测试
-            DataSource tempDataSource = dataSourceFactory.createDataSource("test_" + profile, config);
-            try (Connection connection = tempDataSource.getConnection()) {
-                boolean isValid = connection.isValid(5);
-                log.info("Connection test for profile '{}' result: {}", profile, isValid);
-
-                // 测试完成后关闭临时数据源
-                dataSourceFactory.closeDataSource("test_" + profile);
-
-                return isValid;
-            }
-        } catch (SQLException e) {
-            log.error("Connection test failed for profile '{}': {}", profile, e.getMessage());
+        DatabaseConfigProperties.ConnectionConfig config = getConnectionConfig(profile);
+        if (config == null) {
+            log.warn("Configuration not found for profile: {}", profile);
             return false;
         }
+        return connectionHealthService.check(profile, config);
     }
 
     /**
@@ -208,6 +191,9 @@ public class DatabaseConfigService {
         if (config == null) {
             throw new IllegalArgumentException("Database profile '" + profile + "' not found");
         }
+        connectionHealthService.invalidate(profile);
+        resultCache.invalidate(profile);
+        metadataCache.invalidate(profile);
         return dataSourceFactory.refreshDataSource(profile, config);
     }
 
@@ -240,16 +226,34 @@ public class DatabaseConfigService {
 
     /**
      * 更新数据源配置
+     * <p>
+     * 活跃配置或已打开连接池的配置立即创建并验证新连接池，验证失败时恢复原配置文件和缓存后抛出异常，原连接池继续使用
      */
     public void updateDataSource(String profile, DatabaseConfigProperties.ConnectionConfig config) {
         log.info("Updating data source profile: {}", profile);
+        DatabaseConfigProperties.ConnectionConfig previous = getConnectionConfig(profile);
+        boolean swapPool = profile.equals(getActiveProfile()) || dataSourceFactory.findDataSource(profile) != null;
         configFileService.writeProfile(profile, config);
         refreshCache();
 
-        // 如果更新的是当前活跃的数据源，需要刷新数据源
-        if (profile.equals(getActiveProfile())) {
-            dataSourceFactory.refreshDataSource(profile, config);
+        // 避免下一次调用承担冷启动
+        if (swapPool) {
+            try {
+                dataSourceFactory.refreshDataSource(profile, config);
+            } catch (RuntimeException e) {
+                log.warn("New data source for profile '{}' failed validation, restoring previous configuration", profile);
+                if (previous != null) {
+                    configFileService.writeProfile(profile, previous);
+                } else {
+                    configFileService.deleteProfile(profile);
+                }
+                refreshCache();
+                throw e;
+            }
         }
+        connectionHealthService.invalidate(profile);
+        resultCache.invalidate(profile);
+        metadataCache.invalidate(profile);
     }
 
     /**
@@ -260,6 +264,9 @@ public class DatabaseConfigService {
 
         // 先关闭数据源
         dataSourceFactory.closeDataSource(profile);
+        connectionHealthService.invalidate(profile);
+        resultCache.invalidate(profile);
+        metadataCache.invalidate(profile);
 
         // 删除配置文件
         configFileService.deleteProfile(profile);
@@ -269,30 +276,27 @@ public class DatabaseConfigService {
     }
 
     /**
-     * 获取所有数据库类型的配置状态
+     * 获取所有数据库类型的配置状态，连接检查并行执行
      */
     public Map<String, ConfigStatus> getConfigStatus() {
         Map<String, DatabaseConfigProperties.ConnectionConfig> profiles = getAvailableProfiles();
-        return profiles.entrySet().stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        entry -> {
-                            String profile = entry.getKey();
-                            boolean isActive = profile.equals(getActiveProfile());
-                            boolean isValid = validateProfile(profile);
-                            boolean canConnect = false;
-
-                            if (isValid) {
-                                try {
-                                    canConnect = testConnection(profile);
-                                } catch (Exception e) {
-                                    log.warn("Connection test failed for profile '{}': {}", profile, e.getMessage());
-                                }
-                            }
-
-                            return new ConfigStatus(isActive, isValid, canConnect);
-                        }
-                ));
+        String activeProfile = getActiveProfile();
+
+        Map<String, Boolean> validity = new LinkedHashMap<>();
+        Map<String, DatabaseConfigProperties.ConnectionConfig> testable = new LinkedHashMap<>();
+        profiles.forEach((profile, config) -> {
+            boolean isValid = validateProfile(profile);
+            validity.put(profile, isValid);
+            if (isValid) {
+                testable.put(profile, config);
+            }
+        });
+
+        Map<String, Boolean> connected = connectionHealthService.checkAll(testable);
+        Map<String, ConfigStatus> statuses = new LinkedHashMap<>();
+        validity.forEach((profile, isValid) -> statuses.put(profile, new ConfigStatus(
+                profile.equals(activeProfile), isValid, connected.getOrDefault(profile, false))));
+        return statuses;
     }
 
     /**
@@ -0,0 +1,161 @@
+package cn.ansteel.sc.db_mcp_server.service;
+
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import cn.ansteel.sc.db_mcp_server.enums.DatabaseType;
+import cn.ansteel.sc.db_mcp_server.factory.DatabaseServerInfo;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按方言和观测到的行宽决定每次查询的抓取方式
+ * <p>
+ * MySQL未开启useCursorFetch时流式读取逐行返回，开启时使用服务端游标；PostgreSQL在关闭自动提交的事务中按游标抓取；
+ * Oracle和SQL Server调大每次往返的行数。抓取行数按目标字节数除以该配置最近的平均行宽计算，并受limit限制
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FetchSizeAdvisor {
+
+    /**
+     * 还没有观测数据时假定的行宽（字节）
+     */
+    private static final int DEFAULT_ROW_WIDTH = 256;
+
+    /**
+     * 新观测值在行宽滑动平均中的权重
+     */
+    private static final double WIDTH_WEIGHT = 0.2;
+
+    private final DbMcpProperties properties;
+    private final ConcurrentMap<String, Double> rowWidths = new ConcurrentHashMap<>();
+
+    /**
+     * 为一次查询制定抓取计划
+     *
+     * @param limit      请求的行数上限，为空或不大于0表示不限制
+     * @param pageSize   本次调用最多读取的行数，0表示读取全部结果
+     * @param holdCursor 读满pageSize后是否保留游标继续读取，不保留时由服务端限制返回行数
+     */
+    public FetchPlan plan(String profile, DatabaseServerInfo serverInfo, Integer limit, int pageSize, boolean holdCursor) {
+        DbMcpProperties.Fetch fetch = properties.getFetch();
+        double rowWidth = rowWidths.getOrDefault(profile, (double) DEFAULT_ROW_WIDTH);
+        int size = (int) Math.max(1, fetch.getTargetBytes() / Math.max(1, rowWidth));
+        size = Math.max(fetch.getMinFetchSize(), Math.min(fetch.getMaxFetchSize(), size));
+        if (limit != null && limit > 0) {
+            size = Math.min(size, limit);
+        }
+        if (pageSize > 0) {
+            size = Math.min(size, pageSize);
+        }
+        int rowCap = holdCursor ? 0 : pageSize;
+
+        DatabaseType type = serverInfo != null ? serverInfo.getDatabaseType() : null;
+        if (type == null) {
+            return new FetchPlan("default", size, rowCap, false);
+        }
+        return switch (type) {
+            case MYSQL -> serverInfo.isSupportsServerCursors()
+                    ? new FetchPlan("cursor", size, rowCap, false)
+                    // 没有服务端游标时，读取全部结果或保留游标都需要逐行读取，否则依靠maxRows让服务端限制行数
+                    : rowCap == 0 ? new FetchPlan("streaming", Integer.MIN_VALUE, 0, false) : new FetchPlan("buffered", 0, rowCap, false);
+            case POSTGRESQL -> new FetchPlan("cursor", size, rowCap, true);
+            case ORACLE -> new FetchPlan("prefetch", size, rowCap, false);
+            case SQLSERVER -> new FetchPlan("adaptive", size, rowCap, false);
+        };
+    }
+
+    /**
+     * 记录一次查询观测到的平均行宽
+     */
+    public void recordRowWidth(String profile, double width) {
+        if (width <= 0) {
+            return;
+        }
+        rowWidths.merge(profile, width, (current, observed) -> current + (observed - current) * WIDTH_WEIGHT);
+    }
+
+    /**
+     * 估算一行的宽度（字节），用于调整抓取行数
+     */
+    public static int estimateWidth(Object[] values) {
+        int width = 0;
+        for (Object value : values) {
+            if (value == null) {
+                width += 1;
+            } else if (value instanceof CharSequence text) {
+                width += text.length();
+            } else if (value instanceof byte[] bytes) {
+                width += bytes.length;
+            } else {
+                width += 8;
+            }
+        }
+        return width;
+    }
+
+    /**
+     * 一次查询的抓取计划
+     */
+    @Getter
+    public static final class FetchPlan {
+        /**
+         * 抓取方式：cursor、streaming、buffered、prefetch、adaptive或default
+         */
+        private final String mode;
+        /**
+         * 设置到Statement上的抓取行数，0表示使用驱动默认值
+         */
+        private final int fetchSize;
+        /**
+         * 设置到Statement上的最大行数，0表示不限制
+         */
+        private final int maxRows;
+        /**
+         * 是否需要在关闭自动提交的事务中读取
+         */
+        private final boolean requiresTransaction;
+
+        private FetchPlan(String mode, int fetchSize, int maxRows, boolean requiresTransaction) {
+            this.mode = mode;
+            this.fetchSize = fetchSize;
+            this.maxRows = maxRows;
+            this.requiresTransaction = requiresTransaction;
+        }
+
+        /**
+         * 把计划应用到连接和语句上，返回连接原来的自动提交状态
+         */
+        public boolean apply(Connection connection, Statement statement) throws SQLException {
+            boolean autoCommit = connection.getAutoCommit();
+            if (requiresTransaction && autoCommit) {
+                connection.setAutoCommit(false);
+            }
+            if (fetchSize != 0) {
+                statement.setFetchSize(fetchSize);
+            }
+            if (maxRows > 0) {
+                statement.setMaxRows(maxRows);
+            }
+            return autoCommit;
+        }
+
+        /**
+         * 读取结束或游标关闭后结束游标事务并恢复自动提交
+         */
+        public void restore(Connection connection, boolean autoCommit) throws SQLException {
+            if (requiresTransaction && autoCommit) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package cn.ansteel.sc.db_mcp_server.service;
+
+import cn.ansteel.sc.db_mcp_server.constant.McpConstants;
+import cn.ansteel.sc.db_mcp_server.factory.DatabaseServerInfo;
+import cn.ansteel.sc.db_mcp_server.mcp.tool.ConnectionLease;
+import cn.ansteel.sc.db_mcp_server.mcp.tool.DatabaseConnectionManager;
+import cn.ansteel.sc.db_mcp_server.metadata.CatalogMetadataProvider;
+import cn.ansteel.sc.db_mcp_server.metadata.JdbcMetadataProvider;
+import cn.ansteel.sc.db_mcp_server.metadata.MetadataProvider;
+import cn.ansteel.sc.db_mcp_server.metadata.SchemaScope;
+import cn.ansteel.sc.db_mcp_server.metadata.TableMetadata;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 元数据读取方式对比
+ * <p>
+ * 在同一个连接上分别用JDBC DatabaseMetaData和方言目录查询执行list_tables、describe_table和describe_schema，
+ * 不经过元数据缓存，目录查询失败时直接报告错误而不退回JDBC，用于确认某个数据库上目录查询的收益
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MetadataProviderBenchmark {
+
+    private static final int MAX_ITERATIONS = 20;
+    private static final int MAX_SAMPLE_TABLES = 200;
+
+    private final DatabaseConnectionManager connectionManager;
+    private final SchemaMetadataCache metadataCache;
+
+    /**
+     * 执行对比
+     *
+     * @param tableName    describe_table使用的表，为空时使用表列表中的第一张表
+     * @param iterations   每种方式每个操作的计时次数，另有一次不计时的预热
+     * @param sampleTables describe_schema读取的表数量，JDBC方式需要逐表查询，数量过大时耗时很长
+     */
+    public BenchmarkResult run(String profile, String schemaName, String tableName, int iterations, int sampleTables) throws Exception {
+        int rounds = Math.max(1, Math.min(iterations, MAX_ITERATIONS));
+        int sample = Math.max(1, Math.min(sampleTables, MAX_SAMPLE_TABLES));
+        try (ConnectionLease lease = connectionManager.acquire(profile)) {
+            Connection connection = lease.getConnection();
+            DatabaseServerInfo serverInfo = lease.getServerInfo();
+            SchemaScope scope = metadataCache.scopeOf(profile, serverInfo, schemaName);
+            Map<String, MetadataProvider> providers = new LinkedHashMap<>();
+            providers.put("jdbc", new JdbcMetadataProvider());
+            if (serverInfo != null && serverInfo.getDatabaseType() != null) {
+                providers.put("catalog", new CatalogMetadataProvider(serverInfo.getDatabaseType(), false));
+            }
+
+            List<String> names;
+            try {
+                names = new JdbcMetadataProvider().loadTables(connection, scope).stream().map(TableMetadata::name).toList();
+            } catch (SQLException e) {
+                lease.markFailed(e);
+                throw e;
+            }
+            String table = tableName != null && !tableName.isBlank() ? tableName : names.isEmpty() ? null : names.get(0);
+            List<String> sampleNames = names.subList(0, Math.min(sample, names.size()));
+
+            BenchmarkResult result = new BenchmarkResult();
+            result.setProfile(profile);
+            result.setDatabaseType(serverInfo != null && serverInfo.getDatabaseType() != null
+                    ? serverInfo.getDatabaseType().getCode() : "unknown");
+            result.setSchema(scope.schema() != null ? scope.schema() : scope.catalog());
+            result.setTableName(table);
+            result.setIterations(rounds);
+            result.setSampleTables(sampleNames.size());
+
+            Map<String, List<OperationTiming>> operations = new LinkedHashMap<>();
+            operations.put(McpConstants.Operations.LIST_TABLES, time(providers, rounds,
+                    provider -> provider.loadTables(connection, scope).size()));
+            if (table != null) {
+                operations.put(McpConstants.Operations.DESCRIBE_TABLE, time(providers, rounds,
+                        provider -> provider.loadDetails(connection, scope, table).columns().size()));
+            }
+            operations.put(McpConstants.Operations.DESCRIBE_SCHEMA, time(providers, rounds,
+                    provider -> provider.loadSchemaDetails(connection, scope, sampleNames).values().stream()
+                            .mapToInt(details -> details.columns().size()).sum()));
+            result.setOperations(operations);
+            log.info("Metadata benchmark for {}: {}", scope, operations);
+            return result;
+        }
+    }
+
+    /**
+     * 对每种方式预热一次后计时，items为返回的表数或列数，用于核对两种方式的结果是否一致
+     */
+    private List<OperationTiming> time(Map<String, MetadataProvider> providers, int rounds, Operation operation) {
+        List<OperationTiming> timings = new ArrayList<>();
+        providers.forEach((name, provider) -> {
+            OperationTiming timing = new OperationTiming();
+            timing.setProvider(name);
+            try {
+                timing.setItems(operation.run(provider));
+                long total = 0;
+                long min = Long.MAX_VALUE;
+                long max = 0;
+                for (int i = 0; i < rounds; i++) {
+                    long start = System.nanoTime();
+                    operation.run(provider);
+                    long elapsed = System.nanoTime() - start;
+                    total += elapsed;
+                    min = Math.min(min, elapsed);
+                    max = Math.max(max, elapsed);
+                }
+                timing.setAvgMillis(total / rounds / 1_000_000.0);
+                timing.setMinMillis(min / 1_000_000.0);
+                timing.setMaxMillis(max / 1_000_000.0);
+            } catch (SQLException e) {
+                timing.setError(e.getMessage());
+            }
+            timings.add(timing);
+        });
+        return timings;
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        int run(MetadataProvider provider) throws SQLException;
+    }
+
+    /**
+     * 对比结果，operations按操作列出每种方式的耗时
+     */
+    @Data
+    public static class BenchmarkResult {
+        private String profile;
+        private String databaseType;
+        private String schema;
+        private String tableName;
+        private int iterations;
+        private int sampleTables;
+        private Map<String, List<OperationTiming>> operations;
+    }
+
+    /**
+     * 一种方式执行一个操作的耗时
+     */
+    @Data
+    public static class OperationTiming {
+        /**
+         * jdbc或catalog
+         */
+        private String provider;
+        private double avgMillis;
+        private double minMillis;
+        private double maxMillis;
+        private int items;
+        private String error;
+    }
+}
@@ -0,0 +1,153 @@
+package cn.ansteel.sc.db_mcp_server.service;
+
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import cn.ansteel.sc.db_mcp_server.config.VirtualThreads;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 虚拟线程钉住监控
+ * <p>
+ * 虚拟线程在synchronized块或本地方法中阻塞时会钉住载体线程，JDBC驱动和连接池中的这类代码会抵消虚拟线程的并发收益。
+ * 虚拟线程模式下通过JFR订阅jdk.VirtualThreadPinned事件，按栈顶第一个非JDK帧统计钉住位置的次数和累计时长
+ */
+@Slf4j
+@Service
+public class PinningMonitor {
+
+    private final DbMcpProperties properties;
+    private final boolean virtualThreads;
+    private final ConcurrentMap<String, Site> sites = new ConcurrentHashMap<>();
+    private final LongAdder events = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+    private volatile RecordingStream stream;
+
+    public PinningMonitor(DbMcpProperties properties, Environment environment) {
+        this.properties = properties;
+        this.virtualThreads = VirtualThreads.isEnabled(environment);
+    }
+
+    @PostConstruct
+    public void start() {
+        DbMcpProperties.PinningMonitor settings = properties.getPinningMonitor();
+        if (!virtualThreads || !settings.isEnabled()) {
+            return;
+        }
+        try {
+            RecordingStream recording = new RecordingStream();
+            recording.enable("jdk.VirtualThreadPinned")
+                    .withThreshold(Duration.ofMillis(settings.getThreshold()))
+                    .withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", this::record);
+            recording.startAsync();
+            stream = recording;
+            log.info("Virtual thread pinning monitor started, threshold={} ms", settings.getThreshold());
+        } catch (Exception e) {
+            log.warn("Failed to start virtual thread pinning monitor: {}", e.getMessage());
+        }
+    }
+
+    private void record(RecordedEvent event) {
+        events.increment();
+        long nanos = event.getDuration().toNanos();
+        pinnedNanos.add(nanos);
+        Site site = sites.computeIfAbsent(siteOf(event.getStackTrace()), k -> new Site());
+        site.count.increment();
+        site.nanos.add(nanos);
+    }
+
+    /**
+     * 栈顶第一个不属于JDK的帧，通常是持有监视器的驱动或连接池方法
+     */
+    private String siteOf(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.getMethod() == null || frame.getMethod().getType() == null) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return "jdk";
+    }
+
+    /**
+     * 获取钉住统计，位置按累计时长从高到低排列
+     */
+    public PinningStats getStats() {
+        PinningStats stats = new PinningStats();
+        stats.setVirtualThreads(virtualThreads);
+        stats.setMonitoring(stream != null);
+        stats.setEvents(events.sum());
+        stats.setPinnedMillis(pinnedNanos.sum() / 1_000_000);
+        Map<String, SiteStats> top = new LinkedHashMap<>();
+        sites.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Site> e) -> e.getValue().nanos.sum()).reversed())
+                .limit(Math.max(1, properties.getPinningMonitor().getTopSites()))
+                .forEach(e -> {
+                    SiteStats item = new SiteStats();
+                    item.setCount(e.getValue().count.sum());
+                    item.setPinnedMillis(e.getValue().nanos.sum() / 1_000_000);
+                    top.put(e.getKey(), item);
+                });
+        stats.setSites(top);
+        return stats;
+    }
+
+    @PreDestroy
+    public void stop() {
+        RecordingStream recording = stream;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private static final class Site {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+    }
+
+    /**
+     * 钉住统计
+     */
+    @Data
+    public static class PinningStats {
+        /**
+         * 是否开启了虚拟线程执行模式
+         */
+        private boolean virtualThreads;
+        private boolean monitoring;
+        private long events;
+        private long pinnedMillis;
+        private Map<String, SiteStats> sites;
+    }
+
+    /**
+     * 单个钉住位置的统计
+     */
+    @Data
+    public static class SiteStats {
+        private long count;
+        private long pinnedMillis;
+    }
+}
@@ -0,0 +1,181 @@
+package cn.ansteel.sc.db_mcp_server.service;
+
+import cn.ansteel.sc.db_mcp_server.config.DatabaseConfigProperties;
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import cn.ansteel.sc.db_mcp_server.constant.McpConstants;
+import cn.ansteel.sc.db_mcp_server.exception.QueryRejectedException;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按配置隔离的并发准入控制
+ * <p>
+ * 每个配置一个信号量加有界等待队列，队列满或等待超时立即拒绝，
+ * 单个配置被打满时不会占满Servlet线程，也不会影响其他配置
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProfileBulkheadService {
+
+    /**
+     * Hikari未配置maximumPoolSize时的默认值
+     */
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final DbMcpProperties properties;
+    private final ConcurrentMap<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    /**
+     * 申请执行许可，返回的许可需在查询结束后释放
+     *
+     * @throws QueryRejectedException 队列已满或等待超时
+     */
+    public Permit admit(String profile, DatabaseConfigProperties.ConnectionConfig config) throws InterruptedException {
+        int limit = resolveLimit(config);
+        Bulkhead bulkhead = bulkheads.compute(profile, (key, existing) ->
+                existing != null && existing.limit == limit ? existing : new Bulkhead(limit));
+        return bulkhead.admit(profile, properties.getBulkhead());
+    }
+
+    /**
+     * 获取各配置的准入统计
+     */
+    public Map<String, BulkheadStats> getStats() {
+        Map<String, BulkheadStats> stats = new TreeMap<>();
+        bulkheads.forEach((profile, bulkhead) -> stats.put(profile, bulkhead.snapshot()));
+        return stats;
+    }
+
+    private int resolveLimit(DatabaseConfigProperties.ConnectionConfig config) {
+        DatabaseConfigProperties.PoolConfig pool = config.getPool();
+        if (pool != null && pool.getMaxConcurrentQueries() > 0) {
+            return pool.getMaxConcurrentQueries();
+        }
+        if (properties.getBulkhead().getMaxConcurrent() > 0) {
+            return properties.getBulkhead().getMaxConcurrent();
+        }
+        if (pool == null) {
+            return DEFAULT_POOL_SIZE;
+        }
+        int poolSize = pool.isAdaptive() && pool.getAdaptiveCeiling() > 0 ? pool.getAdaptiveCeiling() : pool.getMaximumPoolSize();
+        return poolSize > 0 ? poolSize : DEFAULT_POOL_SIZE;
+    }
+
+    /**
+     * 执行许可，release可重复调用
+     */
+    public static final class Permit {
+        private final Bulkhead bulkhead;
+        private final long queueNanos;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Permit(Bulkhead bulkhead, long queueNanos) {
+            this.bulkhead = bulkhead;
+            this.queueNanos = queueNanos;
+        }
+
+        public long getQueueMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(queueNanos);
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.inFlight.decrementAndGet();
+                bulkhead.semaphore.release();
+            }
+        }
+    }
+
+    private static final class Bulkhead {
+        private final int limit;
+        private final Semaphore semaphore;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder rejectedQueueFull = new LongAdder();
+        private final LongAdder rejectedTimeout = new LongAdder();
+        private final LongAdder totalQueueNanos = new LongAdder();
+        private final AtomicLong maxQueueNanos = new AtomicLong();
+
+        private Bulkhead(int limit) {
+            this.limit = limit;
+            this.semaphore = new Semaphore(limit, true);
+        }
+
+        Permit admit(String profile, DbMcpProperties.Bulkhead settings) throws InterruptedException {
+            if (semaphore.tryAcquire()) {
+                return onAdmitted(0);
+            }
+            if (waiting.incrementAndGet() > settings.getMaxQueue()) {
+                waiting.decrementAndGet();
+                rejectedQueueFull.increment();
+                log.warn("Bulkhead queue full for profile '{}': limit={}, maxQueue={}", profile, limit, settings.getMaxQueue());
+                throw new QueryRejectedException(McpConstants.ErrorCodes.BULKHEAD_FULL,
+                        String.format("配置 %s 并发查询已达上限(%d)且排队已满，请稍后重试", profile, limit));
+            }
+            long start = System.nanoTime();
+            try {
+                if (!semaphore.tryAcquire(settings.getMaxWait(), TimeUnit.MILLISECONDS)) {
+                    rejectedTimeout.increment();
+                    log.warn("Bulkhead wait timed out for profile '{}' after {} ms", profile, settings.getMaxWait());
+                    throw new QueryRejectedException(McpConstants.ErrorCodes.BULKHEAD_FULL,
+                            String.format("配置 %s 并发查询已达上限(%d)，排队等待超时，请稍后重试", profile, limit));
+                }
+                return onAdmitted(System.nanoTime() - start);
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+
+        private Permit onAdmitted(long queueNanos) {
+            inFlight.incrementAndGet();
+            admitted.increment();
+            totalQueueNanos.add(queueNanos);
+            maxQueueNanos.accumulateAndGet(queueNanos, Math::max);
+            return new Permit(this, queueNanos);
+        }
+
+        BulkheadStats snapshot() {
+            long count = admitted.sum();
+            BulkheadStats stats = new BulkheadStats();
+            stats.setLimit(limit);
+            stats.setInFlight(inFlight.get());
+            stats.setWaiting(waiting.get());
+            stats.setAdmitted(count);
+            stats.setRejectedQueueFull(rejectedQueueFull.sum());
+            stats.setRejectedTimeout(rejectedTimeout.sum());
+            stats.setAvgQueueMillis(count == 0 ? 0 : totalQueueNanos.sum() / 1_000_000.0 / count);
+            stats.setMaxQueueMillis(TimeUnit.NANOSECONDS.toMillis(maxQueueNanos.get()));
+            return stats;
+        }
+    }
+
+    /**
+     * 准入统计
+     */
+    @Data
+    public static class BulkheadStats {
+        private int limit;
+        private int inFlight;
+        private int waiting;
+        private long admitted;
+        private long rejectedQueueFull;
+        private long rejectedTimeout;
+        private double avgQueueMillis;
+        private long maxQueueMillis;
+    }
+}
@@ -0,0 +1,393 @@
+package cn.ansteel.sc.db_mcp_server.service;
+
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import cn.ansteel.sc.db_mcp_server.constant.DatabaseConstant;
+import cn.ansteel.sc.db_mcp_server.enums.DatabaseType;
+import cn.ansteel.sc.db_mcp_server.factory.DataSourceFactory;
+import cn.ansteel.sc.db_mcp_server.factory.DatabaseServerInfo;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * 查询超时和取消
+ * <p>
+ * 执行中的语句在这里登记截止时间，后台定时检查并对超时的语句调用Statement.cancel；
+ * cancel失败时从同一连接池借出另一个连接，按方言终止该会话当前的语句（KILL QUERY、pg_cancel_backend等；
+ * SQL Server的KILL会结束整个会话，不用于兜底）。
+ * 截止时间检查运行在独立的线程上，不与探测、元数据刷新等可能阻塞在JDBC上的定时任务共用调度线程；
+ * 超时语句的Statement.cancel交给取消线程池执行，驱动的cancel阻塞在网络上时不会拖住后续的截止时间检查
+ */
+@Slf4j
+@Service
+public class QueryCancellationService {
+
+    /**
+     * 会话标识只允许数字和逗号，拼接终止语句前校验
+     */
+    private static final Pattern SESSION_ID = Pattern.compile("[0-9]+(,[0-9]+)?");
+    /**
+     * 会话标识缓存中表示该物理连接查询失败的标记
+     */
+    private static final String NO_SESSION_ID = "";
+    private static final int CANCEL_THREADS = 4;
+
+    private final DbMcpProperties properties;
+    private final DataSourceFactory dataSourceFactory;
+    private final ConcurrentMap<String, RunningQuery> running = new ConcurrentHashMap<>();
+    /**
+     * 物理连接对应的会话标识，查询失败的连接记为NO_SESSION_ID；连接被连接池关闭后自动移除
+     */
+    private final Map<Connection, String> sessionIds = Collections.synchronizedMap(new WeakHashMap<>());
+    /**
+     * 查询会话标识报错的连接池（如Oracle没有v$session的查询权限），之后不再查询，只依赖Statement.cancel
+     */
+    private final Set<String> sessionIdUnavailable = ConcurrentHashMap.newKeySet();
+    private final ExecutorService cancelExecutor;
+    private final ExecutorService killExecutor;
+    private final ScheduledExecutorService watchdog;
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder killed = new LongAdder();
+
+    public QueryCancellationService(DbMcpProperties properties, DataSourceFactory dataSourceFactory) {
+        this.properties = properties;
+        this.dataSourceFactory = dataSourceFactory;
+        AtomicInteger cancelThreads = new AtomicInteger();
+        this.cancelExecutor = Executors.newFixedThreadPool(CANCEL_THREADS, r -> {
+            Thread thread = new Thread(r, "query-cancel-" + cancelThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.killExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "query-kill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "query-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, properties.getQueryTimeout().getWatchdogInterval());
+        watchdog.scheduleWithFixedDelay(this::enforceDeadlines, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 计算一次调用的超时时间（毫秒）：调用指定的时间优先，其次是数据源配置的queryTimeoutSeconds，再次是全局默认值；
+     * 结果不超过全局上限，0表示不限制
+     */
+    public long resolveTimeout(Integer requestedMillis, long profileTimeoutSeconds) {
+        DbMcpProperties.QueryTimeout settings = properties.getQueryTimeout();
+        long timeout;
+        if (requestedMillis != null && requestedMillis > 0) {
+            timeout = requestedMillis;
+        } else if (profileTimeoutSeconds > 0) {
+            timeout = TimeUnit.SECONDS.toMillis(profileTimeoutSeconds);
+        } else {
+            timeout = settings.getDefaultTimeout();
+        }
+        if (settings.getMaxTimeout() > 0 && (timeout <= 0 || timeout > settings.getMaxTimeout())) {
+            timeout = settings.getMaxTimeout();
+        }
+        return Math.max(0, timeout);
+    }
+
+    /**
+     * 登记一条即将执行的语句，执行结束后必须调用{@link #unregister(RunningQuery)}
+     *
+     * @param target    借出连接的连接池名称，终止语句时从该连接池借出连接
+     * @param timeoutMs 超时时间（毫秒），0表示不限制
+     */
+    public RunningQuery register(String profile, String target, String sql, Statement statement, Connection connection,
+                                 DatabaseServerInfo serverInfo, long timeoutMs) {
+        String sessionId = properties.getQueryTimeout().isKillOnCancelFailure() ? sessionId(target, connection, serverInfo) : null;
+        RunningQuery query = new RunningQuery(UUID.randomUUID().toString(), profile, target, sql, statement,
+                serverInfo != null ? serverInfo.getDatabaseType() : null, sessionId, timeoutMs);
+        running.put(query.getId(), query);
+        return query;
+    }
+
+    /**
+     * 语句执行结束，移出登记
+     */
+    public void unregister(RunningQuery query) {
+        if (query != null) {
+            running.remove(query.getId());
+        }
+    }
+
+    /**
+     * 按登记编号取消执行中的语句
+     *
+     * @return 是否找到该语句
+     */
+    public boolean cancel(String id) {
+        RunningQuery query = running.get(id);
+        if (query == null) {
+            return false;
+        }
+        cancel(query, "查询已被取消");
+        return true;
+    }
+
+    /**
+     * 取消执行中的语句，客户端断开或手动取消时调用；重复调用只生效一次
+     */
+    public void cancel(RunningQuery query, String reason) {
+        if (markCancelled(query, reason)) {
+            cancelStatement(query);
+        }
+    }
+
+    /**
+     * 取消超过截止时间的语句：在检查线程上只标记原因，Statement.cancel交给取消线程池执行；
+     * 异常不会中断后续的定时检查
+     */
+    public void enforceDeadlines() {
+        long now = System.nanoTime();
+        running.values().forEach(query -> {
+            if (query.deadline != 0 && now - query.deadline >= 0 && !query.isCancelled()) {
+                try {
+                    if (markCancelled(query, String.format("查询超过%d ms的超时时间", query.getTimeoutMillis()))) {
+                        timedOut.increment();
+                        cancelExecutor.execute(() -> {
+                            if (running.containsKey(query.getId())) {
+                                cancelStatement(query);
+                            }
+                        });
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Failed to cancel query {} on profile '{}': {}", query.getId(), query.getProfile(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    private boolean markCancelled(RunningQuery query, String reason) {
+        if (!query.markCancelled(reason)) {
+            return false;
+        }
+        cancelled.increment();
+        log.warn("Cancelling query {} on profile '{}': {}", query.getId(), query.getProfile(), reason);
+        return true;
+    }
+
+    /**
+     * 调用Statement.cancel，失败时按配置交给终止线程从另一个连接终止语句
+     */
+    private void cancelStatement(RunningQuery query) {
+        try {
+            query.statement.cancel();
+        } catch (SQLException e) {
+            log.warn("Statement.cancel failed for query {}: {}", query.getId(), e.getMessage());
+            if (properties.getQueryTimeout().isKillOnCancelFailure()) {
+                killExecutor.execute(() -> kill(query));
+            }
+        }
+    }
+
+    /**
+     * 获取执行中的语句，按开始时间排列
+     */
+    public List<RunningQueryInfo> getRunning() {
+        List<RunningQueryInfo> result = new ArrayList<>();
+        long now = System.nanoTime();
+        running.values().stream()
+                .sorted(Comparator.comparingLong(query -> query.startNanos))
+                .forEach(query -> {
+                    RunningQueryInfo info = new RunningQueryInfo();
+                    info.setId(query.getId());
+                    info.setProfile(query.getProfile());
+                    info.setSql(query.sql);
+                    info.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(now - query.startNanos));
+                    info.setTimeoutMillis(query.getTimeoutMillis());
+                    info.setCancelReason(query.getCancelReason());
+                    result.add(info);
+                });
+        return result;
+    }
+
+    /**
+     * 获取超时、取消和按方言终止的累计次数
+     */
+    public Map<String, Long> getCounters() {
+        return Map.of("timedOut", timedOut.sum(), "cancelled", cancelled.sum(), "killed", killed.sum());
+    }
+
+    /**
+     * 读取物理连接的会话标识，同一物理连接只查询一次，查询失败或结果无效也记录下来；
+     * 查询报错时（Oracle查询v$session需要额外权限）该连接池之后不再查询，只依赖Statement.cancel
+     */
+    String sessionId(String target, Connection connection, DatabaseServerInfo serverInfo) {
+        String query = sessionIdStatement(serverInfo != null ? serverInfo.getDatabaseType() : null);
+        if (query == null || (target != null && sessionIdUnavailable.contains(target))) {
+            return null;
+        }
+        Connection physical;
+        try {
+            physical = connection.unwrap(Connection.class);
+        } catch (SQLException e) {
+            physical = connection;
+        }
+        String cached = sessionIds.get(physical);
+        if (cached != null) {
+            return cached.equals(NO_SESSION_ID) ? null : cached;
+        }
+        String id = null;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            String value = rs.next() ? rs.getString(1) : null;
+            if (value != null && SESSION_ID.matcher(value).matches()) {
+                id = value;
+            }
+        } catch (SQLException e) {
+            if (target != null && sessionIdUnavailable.add(target)) {
+                log.info("Session id lookup disabled for '{}', relying on Statement.cancel only: {}", target, e.getMessage());
+            }
+        }
+        sessionIds.put(physical, id != null ? id : NO_SESSION_ID);
+        return id;
+    }
+
+    private static String sessionIdStatement(DatabaseType type) {
+        if (type == null) {
+            return null;
+        }
+        return switch (type) {
+            case MYSQL -> DatabaseConstant.SessionIdStatements.MYSQL;
+            case POSTGRESQL -> DatabaseConstant.SessionIdStatements.POSTGRESQL;
+            case ORACLE -> DatabaseConstant.SessionIdStatements.ORACLE;
+            // KILL会结束整个会话并回滚事务，不作为兜底
+            case SQLSERVER -> null;
+        };
+    }
+
+    /**
+     * 从另一个连接终止该会话当前的语句
+     */
+    private void kill(RunningQuery query) {
+        if (query.sessionId == null || query.databaseType == null || !running.containsKey(query.getId())) {
+            return;
+        }
+        DataSource dataSource = dataSourceFactory.findDataSource(query.target);
+        if (dataSource == null) {
+            return;
+        }
+        String template = switch (query.databaseType) {
+            case MYSQL -> DatabaseConstant.KillQueryStatements.MYSQL;
+            case POSTGRESQL -> DatabaseConstant.KillQueryStatements.POSTGRESQL;
+            case ORACLE -> DatabaseConstant.KillQueryStatements.ORACLE;
+            case SQLSERVER -> null;
+        };
+        if (template == null) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute(String.format(template, query.sessionId));
+            killed.increment();
+            log.warn("Killed query {} on profile '{}' (session {})", query.getId(), query.getProfile(), query.sessionId);
+        } catch (SQLException e) {
+            log.error("Failed to kill query {} on profile '{}': {}", query.getId(), query.getProfile(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        watchdog.shutdownNow();
+        cancelExecutor.shutdownNow();
+        killExecutor.shutdownNow();
+    }
+
+    /**
+     * 一条执行中的语句
+     */
+    public static final class RunningQuery {
+        @Getter
+        private final String id;
+        @Getter
+        private final String profile;
+        private final String target;
+        private final String sql;
+        private final Statement statement;
+        private final DatabaseType databaseType;
+        private final String sessionId;
+        private final long startNanos = System.nanoTime();
+        @Getter
+        private final long timeoutMillis;
+        /**
+         * 截止时间（System.nanoTime），0表示不限制
+         */
+        private final long deadline;
+        @Getter
+        private volatile String cancelReason;
+
+        private RunningQuery(String id, String profile, String target, String sql, Statement statement,
+                             DatabaseType databaseType, String sessionId, long timeoutMillis) {
+            this.id = id;
+            this.profile = profile;
+            this.target = target;
+            this.sql = sql;
+            this.statement = statement;
+            this.databaseType = databaseType;
+            this.sessionId = sessionId;
+            this.timeoutMillis = timeoutMillis;
+            long deadline = timeoutMillis > 0 ? startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMillis) : 0;
+            this.deadline = deadline == 0 && timeoutMillis > 0 ? 1 : deadline;
+        }
+
+        /**
+         * 是否已因超时、客户端断开或手动取消而被取消
+         */
+        public boolean isCancelled() {
+            return cancelReason != null;
+        }
+
+        private synchronized boolean markCancelled(String reason) {
+            if (cancelReason != null) {
+                return false;
+            }
+            cancelReason = reason;
+            return true;
+        }
+    }
+
+    /**
+     * 执行中语句的概要
+     */
+    @Data
+    public static class RunningQueryInfo {
+        private String id;
+        private String profile;
+        private String sql;
+        private long elapsedMillis;
+        private long timeoutMillis;
+        private String cancelReason;
+    }
+}
@@ -0,0 +1,222 @@
+package cn.ansteel.sc.db_mcp_server.service;
+
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 查询结果缓存
+ * <p>
+ * 按配置、规范化后的SQL、绑定参数、limit和结果格式缓存非流式查询结果，过期时间由各配置的resultCacheTtlSeconds决定；
+ * 总大小按结果序列化后的字节数限制，超出时淘汰最近最少使用的结果。配置刷新、更新或删除时清除该配置的缓存
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QueryResultCache {
+
+    private final DbMcpProperties properties;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 按访问顺序排列，最久未访问的在最前
+     */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * 查找未过期的缓存结果，未命中时返回null
+     */
+    public Object get(String profile, String sql, List<Object> params, Integer limit, String format) {
+        Key key = new Key(profile, normalize(sql), params, limit, format);
+        Counter counter = counter(profile);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.expiresAt < 0) {
+                counter.hits.increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                remove(key);
+            }
+        }
+        counter.misses.increment();
+        return null;
+    }
+
+    /**
+     * 缓存查询结果，超过单条大小上限的结果不缓存
+     */
+    public void put(String profile, String sql, List<Object> params, Integer limit, String format, Object value, long ttlSeconds) {
+        if (ttlSeconds <= 0) {
+            return;
+        }
+        long maxBytes = properties.getResultCache().getMaxBytes();
+        long bytes;
+        try {
+            bytes = objectMapper.writeValueAsBytes(value).length + (long) sql.length();
+        } catch (JsonProcessingException e) {
+            log.debug("Result of profile '{}' is not cacheable: {}", profile, e.getMessage());
+            return;
+        }
+        if (bytes > maxBytes / 4) {
+            return;
+        }
+
+        Key key = new Key(profile, normalize(sql), params, limit, format);
+        Entry entry = new Entry(value, bytes, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds));
+        synchronized (this) {
+            remove(key);
+            entries.put(key, entry);
+            totalBytes += bytes;
+            Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && iterator.hasNext()) {
+                Map.Entry<Key, Entry> eldest = iterator.next();
+                iterator.remove();
+                totalBytes -= eldest.getValue().bytes;
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * 清除某个配置的全部缓存结果
+     */
+    public synchronized void invalidate(String profile) {
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        int removed = 0;
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Entry> entry = iterator.next();
+            if (entry.getKey().profile().equals(profile)) {
+                iterator.remove();
+                totalBytes -= entry.getValue().bytes;
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.info("Invalidated {} cached result(s) for profile: {}", removed, profile);
+        }
+    }
+
+    /**
+     * 清除全部缓存结果
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        totalBytes = 0;
+        log.info("Invalidated all cached results");
+    }
+
+    /**
+     * 获取缓存统计
+     */
+    public CacheStats getStats() {
+        CacheStats stats = new CacheStats();
+        synchronized (this) {
+            stats.setEntries(entries.size());
+            stats.setBytes(totalBytes);
+        }
+        stats.setMaxBytes(properties.getResultCache().getMaxBytes());
+        stats.setEvictions(evictions.sum());
+        Map<String, ProfileStats> profiles = new TreeMap<>();
+        counters.forEach((profile, counter) -> {
+            ProfileStats item = new ProfileStats();
+            item.setHits(counter.hits.sum());
+            item.setMisses(counter.misses.sum());
+            long total = item.getHits() + item.getMisses();
+            item.setHitRatio(total == 0 ? 0 : (double) item.getHits() / total);
+            profiles.put(profile, item);
+        });
+        stats.setProfiles(profiles);
+        return stats;
+    }
+
+    private void remove(Key key) {
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            totalBytes -= previous.bytes;
+        }
+    }
+
+    private Counter counter(String profile) {
+        return counters.computeIfAbsent(profile, k -> new Counter());
+    }
+
+    /**
+     * 规范化SQL：去掉首尾空白和末尾分号，引号外的连续空白合并为一个空格；不改变大小写和引号内的内容
+     */
+    static String normalize(String sql) {
+        String trimmed = sql.trim().replaceAll(";$", "");
+        StringBuilder normalized = new StringBuilder(trimmed.length());
+        char quote = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (quote == 0 && Character.isWhitespace(c)) {
+                pendingSpace = true;
+                continue;
+            }
+            if (pendingSpace) {
+                normalized.append(' ');
+                pendingSpace = false;
+            }
+            if (quote == 0 && (c == '\'' || c == '"' || c == '`')) {
+                quote = c;
+            } else if (c == quote) {
+                quote = 0;
+            }
+            normalized.append(c);
+        }
+        return normalized.toString();
+    }
+
+    private record Key(String profile, String sql, List<Object> params, Integer limit, String format) {
+    }
+
+    private record Entry(Object value, long bytes, long expiresAt) {
+    }
+
+    private static final class Counter {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+    }
+
+    /**
+     * 缓存统计
+     */
+    @Data
+    public static class CacheStats {
+        private int entries;
+        private long bytes;
+        private long maxBytes;
+        private long evictions;
+        private Map<String, ProfileStats> profiles;
+    }
+
+    /**
+     * 单个配置的缓存命中统计
+     */
+    @Data
+    public static class ProfileStats {
+        private long hits;
+        private long misses;
+        private double hitRatio;
+    }
+}
@@ -0,0 +1,324 @@
+package cn.ansteel.sc.db_mcp_server.service;
+
+import cn.ansteel.sc.db_mcp_server.config.DatabaseConfigProperties;
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import cn.ansteel.sc.db_mcp_server.constant.DatabaseConstant;
+import cn.ansteel.sc.db_mcp_server.constant.McpConstants;
+import cn.ansteel.sc.db_mcp_server.enums.DatabaseType;
+import cn.ansteel.sc.db_mcp_server.exception.QueryRejectedException;
+import cn.ansteel.sc.db_mcp_server.factory.DataSourceFactory;
+import lombok.Data;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 只读副本路由
+ * <p>
+ * 配置了副本的数据源，工具调用按最少在途请求路由到健康且复制延迟未超限的副本，
+ * 没有可用副本时按配置回退到主库。复制延迟由后台按方言定期探测，
+ * 尚未探测过或最近一次成功探测已超过三个探测间隔的副本不参与路由
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReplicaRouter {
+
+    private static final Pattern ORACLE_INTERVAL = Pattern.compile("([+-])?(\\d+)\\s+(\\d+):(\\d+):(\\d+)(?:\\.\\d+)?");
+    private static final int LAG_QUERY_TIMEOUT_SECONDS = 5;
+    /**
+     * 最近一次成功探测超过几个探测间隔后视为过期
+     */
+    private static final int STALE_AFTER_PROBES = 3;
+
+    private final DatabaseConfigService databaseConfigService;
+    private final DataSourceFactory dataSourceFactory;
+    private final DbMcpProperties properties;
+    private final ConcurrentMap<String, ReplicaState> states = new ConcurrentHashMap<>();
+
+    /**
+     * 为一次调用选择目标数据源，返回的路由需在连接归还时释放
+     *
+     * @throws QueryRejectedException 没有可用副本且不允许回退主库
+     */
+    public Route route(String profile, DatabaseConfigProperties.ConnectionConfig config) {
+        List<DatabaseConfigProperties.ReplicaConfig> replicas = config.getReplicas();
+        if (replicas == null || replicas.isEmpty()) {
+            return primary(profile, config);
+        }
+
+        int chosen = -1;
+        ReplicaState chosenState = null;
+        long now = System.nanoTime();
+        for (int i = 0; i < replicas.size(); i++) {
+            ReplicaState state = states.computeIfAbsent(DataSourceFactory.replicaKey(profile, i), k -> new ReplicaState());
+            if (isEligible(state, config, now) && (chosenState == null || state.outstanding.get() < chosenState.outstanding.get())) {
+                chosen = i;
+                chosenState = state;
+            }
+        }
+        if (chosenState == null) {
+            return fallback(profile, config);
+        }
+
+        String key = DataSourceFactory.replicaKey(profile, chosen);
+        DataSource dataSource;
+        try {
+            dataSource = dataSourceFactory.getReplicaDataSource(profile, chosen, config);
+        } catch (RuntimeException e) {
+            // 副本连接池创建或验证失败与借出连接失败同样处理，排除该副本后重新选择
+            markUnhealthy(key, chosenState, e);
+            return route(profile, config);
+        }
+        chosenState.outstanding.incrementAndGet();
+        chosenState.routed.incrementAndGet();
+        ReplicaState state = chosenState;
+        return new Route(key, true, dataSource, () -> state.outstanding.decrementAndGet());
+    }
+
+    /**
+     * 副本借出连接失败时调用，标记副本不可用并按配置回退到主库
+     */
+    public Route onReplicaFailure(String profile, DatabaseConfigProperties.ConnectionConfig config, Route failed, SQLException e) {
+        markUnhealthy(failed.getTarget(), states.get(failed.getTarget()), e);
+        return fallback(profile, config);
+    }
+
+    private void markUnhealthy(String key, ReplicaState state, Exception e) {
+        String message = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+        if (state != null) {
+            state.healthy = false;
+            state.lastError = message;
+        }
+        log.warn("Replica '{}' unavailable, excluded until next probe: {}", key, message);
+    }
+
+    /**
+     * 获取各副本的路由状态
+     */
+    public Map<String, ReplicaStats> getStats() {
+        Map<String, ReplicaStats> stats = new TreeMap<>();
+        states.forEach((key, state) -> {
+            ReplicaStats item = new ReplicaStats();
+            item.setHealthy(state.healthy);
+            item.setLagSeconds(state.lagSeconds);
+            item.setProbeAgeMillis(state.probedAt == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - state.probedAt));
+            item.setOutstanding(state.outstanding.get());
+            item.setRouted(state.routed.get());
+            item.setLastError(state.lastError);
+            stats.put(key, item);
+        });
+        return stats;
+    }
+
+    /**
+     * 定期探测所有副本的可用性和复制延迟
+     */
+    @Scheduled(fixedDelayString = "${db-mcp.replica.probe-interval:5000}")
+    public void probeReplicas() {
+        Map<String, DatabaseConfigProperties.ConnectionConfig> profiles = databaseConfigService.getAvailableProfiles();
+        if (profiles == null) {
+            return;
+        }
+        profiles.forEach((profile, config) -> {
+            List<DatabaseConfigProperties.ReplicaConfig> replicas = config.getReplicas();
+            if (replicas == null) {
+                return;
+            }
+            for (int i = 0; i < replicas.size(); i++) {
+                String key = DataSourceFactory.replicaKey(profile, i);
+                ReplicaState state = states.computeIfAbsent(key, k -> new ReplicaState());
+                // 不经过副本连接池，使用限时的单个物理连接探测：连接池被耗尽或挂起时不会阻塞到connectionTimeout，
+                // 空闲淘汰的连接池不会被探测重新打开，延迟也不会停留在淘汰前的值
+                try (Connection connection = DataSourceFactory.openDirectConnection(DataSourceFactory.replicaConfig(config, i),
+                        TimeUnit.SECONDS.toMillis(LAG_QUERY_TIMEOUT_SECONDS))) {
+                    state.lagSeconds = probeLag(connection, DatabaseType.fromDriverClassName(config.getDriverClassName()));
+                    state.healthy = true;
+                    state.lastError = null;
+                    state.probedAt = System.nanoTime();
+                } catch (Exception e) {
+                    state.healthy = false;
+                    state.lastError = e.getMessage();
+                    log.warn("Replica probe failed for '{}': {}", key, e.getMessage());
+                }
+            }
+        });
+        // 清理已删除副本的状态
+        states.keySet().removeIf(key -> {
+            int separator = key.lastIndexOf('#');
+            DatabaseConfigProperties.ConnectionConfig config = profiles.get(key.substring(0, separator));
+            return config == null || config.getReplicas() == null
+                    || Integer.parseInt(key.substring(key.lastIndexOf('-') + 1)) >= config.getReplicas().size();
+        });
+    }
+
+    private boolean isEligible(ReplicaState state, DatabaseConfigProperties.ConnectionConfig config, long now) {
+        long staleAfterNanos = TimeUnit.MILLISECONDS.toNanos(properties.getReplica().getProbeInterval()) * STALE_AFTER_PROBES;
+        return isEligible(state.healthy, state.probedAt, state.lagSeconds, config.getMaxReplicationLagSeconds(),
+                now, staleAfterNanos);
+    }
+
+    /**
+     * 副本是否可以接收流量：健康、最近一次成功探测未过期且复制延迟未超限
+     *
+     * @param probedAt 最近一次成功探测的System.nanoTime()，从未探测成功时为0
+     */
+    static boolean isEligible(boolean healthy, long probedAt, double lagSeconds, long maxLagSeconds,
+                              long now, long staleAfterNanos) {
+        if (!healthy || probedAt == 0 || now - probedAt > staleAfterNanos) {
+            return false;
+        }
+        return maxLagSeconds <= 0 || lagSeconds <= maxLagSeconds;
+    }
+
+    private Route fallback(String profile, DatabaseConfigProperties.ConnectionConfig config) {
+        if (Boolean.FALSE.equals(config.getFallbackToPrimary())) {
+            throw new QueryRejectedException(McpConstants.ErrorCodes.REPLICA_UNAVAILABLE,
+                    String.format("配置 %s 没有可用的只读副本", profile));
+        }
+        return primary(profile, config);
+    }
+
+    private Route primary(String profile, DatabaseConfigProperties.ConnectionConfig config) {
+        return new Route(profile, false, dataSourceFactory.getDataSource(profile, config), () -> { });
+    }
+
+    /**
+     * 按方言查询复制延迟（秒），不是副本时返回0
+     */
+    private double probeLag(Connection connection, DatabaseType type) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.setQueryTimeout(LAG_QUERY_TIMEOUT_SECONDS);
+            return switch (type) {
+                case MYSQL -> probeMySqlLag(stmt);
+                case POSTGRESQL -> querySingleNumber(stmt, DatabaseConstant.ReplicationLagStatements.POSTGRESQL);
+                case SQLSERVER -> querySingleNumber(stmt, DatabaseConstant.ReplicationLagStatements.SQLSERVER);
+                case ORACLE -> probeOracleLag(stmt);
+            };
+        }
+    }
+
+    private double probeMySqlLag(Statement stmt) throws SQLException {
+        String sql = DatabaseConstant.ReplicationLagStatements.MYSQL;
+        String column = DatabaseConstant.ReplicationLagStatements.MYSQL_LAG_COLUMN;
+        ResultSet rs;
+        try {
+            rs = stmt.executeQuery(sql);
+        } catch (SQLException e) {
+            // 8.0.22之前的版本只支持SHOW SLAVE STATUS
+            rs = stmt.executeQuery(DatabaseConstant.ReplicationLagStatements.MYSQL_LEGACY);
+            column = DatabaseConstant.ReplicationLagStatements.MYSQL_LEGACY_LAG_COLUMN;
+        }
+        try (ResultSet result = rs) {
+            if (!result.next()) {
+                return 0;
+            }
+            long lag = result.getLong(column);
+            if (result.wasNull()) {
+                // 复制线程未运行时延迟为NULL
+                throw new SQLException("Replication is not running");
+            }
+            return lag;
+        }
+    }
+
+    private double probeOracleLag(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(DatabaseConstant.ReplicationLagStatements.ORACLE)) {
+            if (!rs.next() || rs.getString(1) == null) {
+                return 0;
+            }
+            return parseOracleInterval(rs.getString(1));
+        }
+    }
+
+    /**
+     * 把Oracle的INTERVAL DAY TO SECOND文本（如"+00 00:00:05.000"）转换为秒数，忽略小数部分
+     */
+    static double parseOracleInterval(String value) throws SQLException {
+        Matcher matcher = ORACLE_INTERVAL.matcher(value.trim());
+        if (!matcher.matches()) {
+            throw new SQLException("Unrecognized apply lag: " + value);
+        }
+        return Long.parseLong(matcher.group(2)) * 86400 + Long.parseLong(matcher.group(3)) * 3600
+                + Long.parseLong(matcher.group(4)) * 60 + Long.parseLong(matcher.group(5));
+    }
+
+    private double querySingleNumber(Statement stmt, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getDouble(1) : 0;
+        }
+    }
+
+    /**
+     * 一次调用的路由结果
+     */
+    public static final class Route {
+        @Getter
+        private final String target;
+        @Getter
+        private final boolean replica;
+        @Getter
+        private final DataSource dataSource;
+        private final Runnable onRelease;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Route(String target, boolean replica, DataSource dataSource, Runnable onRelease) {
+            this.target = target;
+            this.replica = replica;
+            this.dataSource = dataSource;
+            this.onRelease = onRelease;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                onRelease.run();
+            }
+        }
+    }
+
+    private static final class ReplicaState {
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger routed = new AtomicInteger();
+        private volatile boolean healthy = true;
+        private volatile double lagSeconds;
+        private volatile String lastError;
+        /**
+         * 最近一次成功探测的时间，为0时延迟未知，不参与路由
+         */
+        private volatile long probedAt;
+    }
+
+    /**
+     * 副本路由状态
+     */
+    @Data
+    public static class ReplicaStats {
+        private boolean healthy;
+        private double lagSeconds;
+        /**
+         * 距最近一次成功探测的时间（毫秒），从未探测成功时为-1
+         */
+        private long probeAgeMillis;
+        private int outstanding;
+        private int routed;
+        private String lastError;
+    }
+}
@@ -0,0 +1,678 @@
+package cn.ansteel.sc.db_mcp_server.service;
+
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import cn.ansteel.sc.db_mcp_server.enums.DatabaseType;
+import cn.ansteel.sc.db_mcp_server.factory.DataSourceFactory;
+import cn.ansteel.sc.db_mcp_server.factory.DatabaseServerInfo;
+import cn.ansteel.sc.db_mcp_server.metadata.CatalogMetadataProvider;
+import cn.ansteel.sc.db_mcp_server.metadata.DdlChangeTokens;
+import cn.ansteel.sc.db_mcp_server.metadata.JdbcMetadataProvider;
+import cn.ansteel.sc.db_mcp_server.metadata.MetadataProvider;
+import cn.ansteel.sc.db_mcp_server.metadata.SchemaScope;
+import cn.ansteel.sc.db_mcp_server.metadata.SchemaSearchIndex;
+import cn.ansteel.sc.db_mcp_server.metadata.TableDetails;
+import cn.ansteel.sc.db_mcp_server.metadata.TableMetadata;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 表结构元数据缓存
+ * <p>
+ * 按配置和catalog/schema缓存表列表，列、主键、索引和外键在首次使用时加载；缓存中的表是不可变对象，变更时整体替换。
+ * 后台按db-mcp.metadata-cache.refresh-interval用方言DDL时间（information_schema.TABLES、ALL_OBJECTS.LAST_DDL_TIME、
+ * sys.objects.modify_date等）一次读取所有表的变更标记，只重新加载新增、删除和变更的表；超过max-age后整体重新加载。
+ * 刷新跳过熔断中的配置，连接最多等待{@value #REFRESH_CHECKOUT_TIMEOUT}毫秒，连接池繁忙时放弃本轮刷新而不与查询争抢连接
+ */
+@Slf4j
+@Service
+public class SchemaMetadataCache {
+
+    /**
+     * 刷新时借出连接的最长等待时间（毫秒）
+     */
+    static final long REFRESH_CHECKOUT_TIMEOUT = 2000;
+
+    private final DataSourceFactory dataSourceFactory;
+    private final DbMcpProperties properties;
+    private final CircuitBreakerService circuitBreakerService;
+    private final MetadataProvider jdbcProvider = new JdbcMetadataProvider();
+    private final Map<DatabaseType, MetadataProvider> catalogProviders = new EnumMap<>(DatabaseType.class);
+    private final ConcurrentMap<SchemaScope, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final ConcurrentMap<SchemaScope, ReentrantLock> loadLocks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * @param circuitBreakerService 延迟注入：熔断服务经DatabaseConfigService间接依赖本缓存
+     */
+    public SchemaMetadataCache(DataSourceFactory dataSourceFactory, DbMcpProperties properties,
+                               @Lazy CircuitBreakerService circuitBreakerService) {
+        this.dataSourceFactory = dataSourceFactory;
+        this.properties = properties;
+        this.circuitBreakerService = circuitBreakerService;
+        for (DatabaseType type : DatabaseType.values()) {
+            catalogProviders.put(type, new CatalogMetadataProvider(type));
+        }
+    }
+
+    /**
+     * 确定一次元数据查询的缓存范围：MySQL的schemaName视为数据库名称，其他数据库未指定时使用连接的默认模式
+     */
+    public SchemaScope scopeOf(String profile, DatabaseServerInfo serverInfo, String schemaName) {
+        String schema = schemaName == null || schemaName.isBlank() ? null : schemaName;
+        String catalog = serverInfo != null ? serverInfo.getDefaultCatalog() : null;
+        if (serverInfo != null && serverInfo.getDatabaseType() == DatabaseType.MYSQL) {
+            return new SchemaScope(profile, schema != null ? schema : catalog, null);
+        }
+        return new SchemaScope(profile, catalog, schema != null ? schema : serverInfo != null ? serverInfo.getDefaultSchema() : null);
+    }
+
+    /**
+     * 从缓存中获取范围内的全部表，未缓存时返回null
+     */
+    public List<TableMetadata> findTables(SchemaScope scope) {
+        Snapshot snapshot = enabled() ? snapshots.get(scope) : null;
+        if (snapshot == null) {
+            return null;
+        }
+        counter(scope.profile()).hits.increment();
+        return snapshot.sortedTables();
+    }
+
+    /**
+     * 从缓存中获取已加载详细信息的表，未缓存时返回null
+     */
+    public TableMetadata findTable(SchemaScope scope, String tableName) {
+        Snapshot snapshot = enabled() ? snapshots.get(scope) : null;
+        TableMetadata table = snapshot != null ? snapshot.find(tableName) : null;
+        if (table == null || table.details() == null) {
+            return null;
+        }
+        counter(scope.profile()).hits.increment();
+        return table;
+    }
+
+    /**
+     * search_schema默认返回的结果数量
+     */
+    public int getSearchLimit() {
+        return properties.getMetadataCache().getSearchLimit();
+    }
+
+    /**
+     * 获取范围内的全部表，未缓存时使用给定连接加载
+     */
+    public List<TableMetadata> getTables(SchemaScope scope, Connection connection, DatabaseServerInfo serverInfo) throws SQLException {
+        return load(scope, connection, serverInfo).sortedTables();
+    }
+
+    /**
+     * 获取包含列、主键、索引和外键的表，表不存在时返回null；缓存中没有该表时先增量刷新一次，以发现新建的表
+     */
+    public TableMetadata getTable(SchemaScope scope, String tableName, Connection connection, DatabaseServerInfo serverInfo) throws SQLException {
+        Snapshot snapshot = load(scope, connection, serverInfo);
+        TableMetadata table = snapshot.find(tableName);
+        if (table == null && enabled()) {
+            refresh(snapshot, connection, false);
+            table = snapshot.find(tableName);
+        }
+        if (table == null) {
+            // 名称大小写等与表列表不一致时仍按请求的名称读取，不写入缓存
+            TableMetadata loaded = providerFor(serverInfo).loadTable(connection, scope, tableName);
+            return loaded == null ? null : loaded.withDetails(providerFor(serverInfo).loadDetails(connection, scope, loaded.name()));
+        }
+        if (table.details() != null) {
+            return table;
+        }
+        counter(scope.profile()).detailLoads.increment();
+        TableMetadata detailed = table.withDetails(providerFor(serverInfo).loadDetails(connection, scope, table.name()));
+        snapshot.replace(table, detailed);
+        return detailed;
+    }
+
+    /**
+     * 按名称查找表，不加载表结构，用于取得与目录中大小写一致的表名；缓存中不存在时先增量刷新一次，表不存在时返回null
+     */
+    public TableMetadata resolveTable(SchemaScope scope, String tableName, Connection connection, DatabaseServerInfo serverInfo) throws SQLException {
+        Snapshot snapshot = load(scope, connection, serverInfo);
+        TableMetadata table = snapshot.find(tableName);
+        if (table == null && enabled()) {
+            refresh(snapshot, connection, false);
+            table = snapshot.find(tableName);
+        }
+        return table != null ? table : providerFor(serverInfo).loadTable(connection, scope, tableName);
+    }
+
+    /**
+     * 从缓存中获取多张已加载详细信息的表，有任一张未缓存时返回null
+     *
+     * @param tableNames 表名称，null表示范围内的全部表
+     */
+    public List<TableMetadata> findDescribed(SchemaScope scope, Collection<String> tableNames) {
+        Snapshot snapshot = enabled() ? snapshots.get(scope) : null;
+        if (snapshot == null) {
+            return null;
+        }
+        List<TableMetadata> tables = new ArrayList<>();
+        if (tableNames == null) {
+            tables.addAll(snapshot.sortedTables());
+        } else {
+            for (String name : tableNames) {
+                TableMetadata table = snapshot.find(name);
+                if (table == null) {
+                    return null;
+                }
+                tables.add(table);
+            }
+        }
+        if (tables.stream().anyMatch(table -> table.details() == null)) {
+            return null;
+        }
+        counter(scope.profile()).hits.increment();
+        return tables;
+    }
+
+    /**
+     * 获取多张表及其列、主键、索引和外键，未加载详细信息的表通过一次批量目录查询读取；不存在的表不在结果中
+     *
+     * @param tableNames 表名称，null表示范围内的全部表
+     */
+    public List<TableMetadata> describe(SchemaScope scope, Collection<String> tableNames, Connection connection,
+                                        DatabaseServerInfo serverInfo) throws SQLException {
+        return describe(load(scope, connection, serverInfo), tableNames, connection);
+    }
+
+    /**
+     * 在缓存的表名、列名和备注中搜索，索引已建立且所有表的详细信息都已加载时返回结果，否则返回null
+     */
+    public List<SchemaSearchIndex.SearchHit> findSearch(SchemaScope scope, String query, int limit) {
+        Snapshot snapshot = enabled() ? snapshots.get(scope) : null;
+        SchemaSearchIndex index = snapshot != null ? snapshot.searchIndex : null;
+        if (index == null || snapshot.tables.values().stream().anyMatch(table -> table.details() == null)) {
+            return null;
+        }
+        counter(scope.profile()).hits.increment();
+        return index.search(query, limit);
+    }
+
+    /**
+     * 在表名、列名和备注中搜索；首次搜索时批量加载整个模式的详细信息并建立索引，之后只为变更的表重新加载和索引
+     */
+    public List<SchemaSearchIndex.SearchHit> search(SchemaScope scope, String query, int limit, Connection connection,
+                                                    DatabaseServerInfo serverInfo) throws SQLException {
+        Snapshot snapshot = load(scope, connection, serverInfo);
+        describe(snapshot, null, connection);
+        SchemaSearchIndex index = snapshot.searchIndex;
+        if (index == null) {
+            ReentrantLock lock = loadLocks.computeIfAbsent(scope, k -> new ReentrantLock());
+            lock.lock();
+            try {
+                index = snapshot.searchIndex;
+                if (index == null) {
+                    long start = System.nanoTime();
+                    index = snapshot.buildSearchIndex();
+                    log.info("Built search index for {}: {} document(s), {} term(s) in {} ms", scope, index.documentCount(),
+                            index.termCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return index.search(query, limit);
+    }
+
+    private List<TableMetadata> describe(Snapshot snapshot, Collection<String> tableNames, Connection connection) throws SQLException {
+        SchemaScope scope = snapshot.scope;
+        List<TableMetadata> tables = new ArrayList<>();
+        if (tableNames == null) {
+            tables.addAll(snapshot.sortedTables());
+        } else {
+            boolean refreshed = false;
+            for (String name : tableNames) {
+                TableMetadata table = snapshot.find(name);
+                if (table == null && !refreshed && enabled()) {
+                    refresh(snapshot, connection, false);
+                    refreshed = true;
+                    table = snapshot.find(name);
+                }
+                if (table != null && !tables.contains(table)) {
+                    tables.add(table);
+                }
+            }
+        }
+
+        List<String> missing = tables.stream().filter(table -> table.details() == null).map(TableMetadata::name).toList();
+        if (missing.isEmpty()) {
+            return tables;
+        }
+        // 整个模式大部分表都未加载时不带表名条件读取，避免超长的IN列表
+        Collection<String> names = tableNames == null && missing.size() * 2 > tables.size() ? null : missing;
+        long start = System.nanoTime();
+        Map<String, TableDetails> details = providerFor(snapshot.databaseType).loadSchemaDetails(connection, scope, names);
+        counter(scope.profile()).detailLoads.add(missing.size());
+        log.info("Loaded details of {} table(s) for {} in {} ms", missing.size(), scope,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        List<TableMetadata> result = new ArrayList<>(tables.size());
+        for (TableMetadata table : tables) {
+            if (table.details() == null) {
+                TableMetadata detailed = table.withDetails(details.getOrDefault(table.name(), TableDetails.EMPTY));
+                snapshot.replace(table, detailed);
+                table = detailed;
+            }
+            result.add(table);
+        }
+        return result;
+    }
+
+    /**
+     * 手动刷新某个配置已缓存的范围，连接池未打开时清除缓存，下次查询时重新加载；配置熔断中时不刷新
+     *
+     * @param full 是否整体重新加载，否则只重新加载变更的表
+     * @return 刷新的范围数量
+     */
+    public int refresh(String profile, boolean full) {
+        if (!circuitBreakerService.isClosed(profile)) {
+            log.info("Skipped metadata refresh for profile '{}': circuit is not closed", profile);
+            return 0;
+        }
+        int refreshed = 0;
+        for (Snapshot snapshot : snapshotsOf(profile)) {
+            HikariDataSource dataSource = dataSourceFactory.findDataSource(profile);
+            if (dataSource == null || dataSource.isClosed()) {
+                snapshots.remove(snapshot.scope);
+                continue;
+            }
+            try (Connection connection = DataSourceFactory.checkout(dataSource, REFRESH_CHECKOUT_TIMEOUT)) {
+                refresh(snapshot, connection, full);
+                refreshed++;
+            } catch (SQLException e) {
+                log.warn("Failed to refresh metadata cache for {}: {}", snapshot.scope, e.getMessage());
+            }
+        }
+        return refreshed;
+    }
+
+    /**
+     * 清除某个配置的元数据缓存
+     */
+    public void invalidate(String profile) {
+        int removed = 0;
+        for (Snapshot snapshot : snapshotsOf(profile)) {
+            snapshots.remove(snapshot.scope);
+            removed++;
+        }
+        if (removed > 0) {
+            log.info("Invalidated {} metadata cache scope(s) for profile: {}", removed, profile);
+        }
+    }
+
+    /**
+     * 后台增量刷新已缓存的范围，只处理连接池仍然打开且未熔断的配置；借出连接超时的配置等下一轮再刷新
+     */
+    @Scheduled(fixedDelayString = "${db-mcp.metadata-cache.refresh-interval:60000}")
+    public void refreshCachedScopes() {
+        if (!enabled()) {
+            return;
+        }
+        snapshots.values().stream().map(snapshot -> snapshot.scope.profile()).distinct().forEach(profile -> {
+            HikariDataSource dataSource = dataSourceFactory.findDataSource(profile);
+            if (dataSource == null || dataSource.isClosed() || !circuitBreakerService.isClosed(profile)) {
+                return;
+            }
+            for (Snapshot snapshot : snapshotsOf(profile)) {
+                long maxAge = TimeUnit.MILLISECONDS.toNanos(properties.getMetadataCache().getMaxAge());
+                boolean full = maxAge > 0 && System.nanoTime() - snapshot.loadedAt > maxAge;
+                try (Connection connection = DataSourceFactory.checkout(dataSource, REFRESH_CHECKOUT_TIMEOUT)) {
+                    refresh(snapshot, connection, full);
+                } catch (SQLTransientConnectionException e) {
+                    // 连接池繁忙或数据库不可达，本轮不再尝试该配置的其他范围
+                    log.warn("Background metadata refresh skipped for profile '{}': {}", profile, e.getMessage());
+                    return;
+                } catch (SQLException e) {
+                    log.warn("Background metadata refresh failed for {}: {}", snapshot.scope, e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * 获取各范围的缓存统计
+     */
+    public Map<String, ScopeStats> getStats() {
+        Map<String, ScopeStats> stats = new TreeMap<>();
+        long now = System.nanoTime();
+        snapshots.values().forEach(snapshot -> {
+            ScopeStats item = new ScopeStats();
+            item.setCatalog(snapshot.scope.catalog());
+            item.setSchema(snapshot.scope.schema());
+            item.setTables(snapshot.tables.size());
+            item.setDetailedTables((int) snapshot.tables.values().stream().filter(t -> t.details() != null).count());
+            item.setIncremental(snapshot.incremental);
+            item.setAgeMillis(TimeUnit.NANOSECONDS.toMillis(now - snapshot.loadedAt));
+            item.setLastRefreshMillisAgo(TimeUnit.NANOSECONDS.toMillis(now - snapshot.checkedAt));
+            item.setChangedTables(snapshot.changedTables.sum());
+            SchemaSearchIndex index = snapshot.searchIndex;
+            item.setIndexedDocuments(index != null ? index.documentCount() : 0);
+            Counter counter = counter(snapshot.scope.profile());
+            item.setHits(counter.hits.sum());
+            item.setMisses(counter.misses.sum());
+            item.setDetailLoads(counter.detailLoads.sum());
+            stats.put(snapshot.scope.profile() + ":" + (snapshot.scope.schema() != null ? snapshot.scope.schema() : snapshot.scope.catalog()), item);
+        });
+        return stats;
+    }
+
+    /**
+     * 获取范围的缓存快照，不存在时加载；同一范围的并发加载只执行一次
+     */
+    private Snapshot load(SchemaScope scope, Connection connection, DatabaseServerInfo serverInfo) throws SQLException {
+        Snapshot snapshot = enabled() ? snapshots.get(scope) : null;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        counter(scope.profile()).misses.increment();
+        if (!enabled()) {
+            Snapshot transientSnapshot = new Snapshot(scope, serverInfo);
+            transientSnapshot.reload(providerFor(serverInfo).loadTables(connection, scope), null);
+            return transientSnapshot;
+        }
+        ReentrantLock lock = loadLocks.computeIfAbsent(scope, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            snapshot = snapshots.get(scope);
+            if (snapshot != null) {
+                return snapshot;
+            }
+            long start = System.nanoTime();
+            snapshot = new Snapshot(scope, serverInfo);
+            snapshot.reload(providerFor(serverInfo).loadTables(connection, scope), changeTokens(snapshot, connection));
+            snapshots.put(scope, snapshot);
+            log.info("Loaded metadata for {}: {} table(s) in {} ms", scope, snapshot.tables.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 按变更标记刷新快照：删除已不存在的表，重新读取新增和标记变化的表（不含详细信息）
+     */
+    private void refresh(Snapshot snapshot, Connection connection, boolean full) throws SQLException {
+        ReentrantLock lock = loadLocks.computeIfAbsent(snapshot.scope, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            MetadataProvider provider = providerFor(snapshot.databaseType);
+            Map<String, String> tokens = changeTokens(snapshot, connection);
+            if (full || tokens == null) {
+                if (full) {
+                    snapshot.reload(provider.loadTables(connection, snapshot.scope), tokens);
+                    log.info("Reloaded metadata for {}: {} table(s)", snapshot.scope, snapshot.tables.size());
+                }
+                snapshot.checkedAt = System.nanoTime();
+                return;
+            }
+            int changed = 0;
+            List<String> reloaded = new ArrayList<>();
+            Set<String> referenced = new HashSet<>();
+            for (String name : new ArrayList<>(snapshot.tables.keySet())) {
+                if (!tokens.containsKey(name)) {
+                    snapshot.remove(name);
+                    changed++;
+                }
+            }
+            snapshot.unlisted.keySet().retainAll(tokens.keySet());
+            for (Map.Entry<String, String> entry : tokens.entrySet()) {
+                TableMetadata existing = snapshot.tables.get(entry.getKey());
+                if (existing != null && entry.getValue().equals(existing.changeToken())
+                        || entry.getValue().equals(snapshot.unlisted.get(entry.getKey()))) {
+                    continue;
+                }
+                TableMetadata loaded = provider.loadTable(connection, snapshot.scope, entry.getKey());
+                if (loaded != null) {
+                    if (existing != null) {
+                        referenced.addAll(referencedTables(existing));
+                    }
+                    snapshot.put(loaded.withChangeToken(entry.getValue()));
+                    snapshot.unlisted.remove(entry.getKey());
+                    changed++;
+                    reloaded.add(loaded.name());
+                } else {
+                    // 物化视图等不在表列表中的对象，标记不变时不再重复读取
+                    snapshot.unlisted.put(entry.getKey(), entry.getValue());
+                }
+            }
+            boolean detailsCached = snapshot.searchIndex != null
+                    || snapshot.tables.values().stream().anyMatch(table -> table.details() != null);
+            if (detailsCached && !reloaded.isEmpty()) {
+                // 重新读取变更表的列和外键：已建立搜索索引时搜索不需要再借出连接，外键用于找出被引用的表
+                for (TableMetadata table : describe(snapshot, reloaded, connection)) {
+                    referenced.addAll(referencedTables(table));
+                }
+                referenced.removeAll(reloaded);
+                invalidateReferenced(snapshot, referenced, connection);
+            }
+            snapshot.checkedAt = System.nanoTime();
+            if (changed > 0) {
+                snapshot.changedTables.add(changed);
+                log.info("Refreshed metadata for {}: {} table(s) changed", snapshot.scope, changed);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 外键增删只改变外键所在表的变更标记，被引用表缓存的exportedKeys随之过期：
+     * 清除变更前后被引用表的详细信息，已建立搜索索引时立即重新读取
+     */
+    private void invalidateReferenced(Snapshot snapshot, Set<String> referenced, Connection connection) throws SQLException {
+        List<String> invalidated = new ArrayList<>();
+        for (String name : referenced) {
+            TableMetadata table = snapshot.tables.get(name);
+            if (table != null && table.details() != null) {
+                snapshot.replace(table, table.withDetails(null));
+                invalidated.add(name);
+            }
+        }
+        if (snapshot.searchIndex != null && !invalidated.isEmpty()) {
+            describe(snapshot, invalidated, connection);
+        }
+    }
+
+    private static Set<String> referencedTables(TableMetadata table) {
+        Set<String> names = new HashSet<>();
+        if (table.details() != null) {
+            table.details().importedKeys().forEach(key -> names.add(key.pkTable()));
+        }
+        return names;
+    }
+
+    private Map<String, String> changeTokens(Snapshot snapshot, Connection connection) {
+        try {
+            Map<String, String> tokens = DdlChangeTokens.load(connection, snapshot.scope, snapshot.databaseType);
+            snapshot.incremental = tokens != null;
+            return tokens;
+        } catch (SQLException e) {
+            // 没有读取系统视图的权限时退化为按max-age整体重新加载
+            log.debug("Failed to read DDL change tokens for {}: {}", snapshot.scope, e.getMessage());
+            snapshot.incremental = false;
+            return null;
+        }
+    }
+
+    private MetadataProvider providerFor(DatabaseServerInfo serverInfo) {
+        return providerFor(serverInfo != null ? serverInfo.getDatabaseType() : null);
+    }
+
+    private MetadataProvider providerFor(DatabaseType type) {
+        return type != null ? catalogProviders.get(type) : jdbcProvider;
+    }
+
+    private List<Snapshot> snapshotsOf(String profile) {
+        return snapshots.values().stream().filter(snapshot -> snapshot.scope.profile().equals(profile)).toList();
+    }
+
+    private boolean enabled() {
+        return properties.getMetadataCache().isEnabled();
+    }
+
+    private Counter counter(String profile) {
+        return counters.computeIfAbsent(profile, k -> new Counter());
+    }
+
+    /**
+     * 一个范围的缓存，表按名称存放，名称不区分大小写的查找通过小写索引完成
+     */
+    private static final class Snapshot {
+        private final SchemaScope scope;
+        private final DatabaseType databaseType;
+        private final ConcurrentMap<String, TableMetadata> tables = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, String> lowerCaseNames = new ConcurrentHashMap<>();
+        /**
+         * 有变更标记但读取不到的对象及其标记
+         */
+        private final ConcurrentMap<String, String> unlisted = new ConcurrentHashMap<>();
+        /**
+         * 首次搜索时建立
+         */
+        private volatile SchemaSearchIndex searchIndex;
+        private final LongAdder changedTables = new LongAdder();
+        private volatile long loadedAt = System.nanoTime();
+        private volatile long checkedAt = loadedAt;
+        private volatile boolean incremental;
+
+        private Snapshot(SchemaScope scope, DatabaseServerInfo serverInfo) {
+            this.scope = scope;
+            this.databaseType = serverInfo != null ? serverInfo.getDatabaseType() : null;
+        }
+
+        void reload(List<TableMetadata> loaded, Map<String, String> tokens) {
+            Set<String> names = new HashSet<>();
+            for (TableMetadata table : loaded) {
+                put(tokens != null ? table.withChangeToken(tokens.get(table.name())) : table);
+                names.add(table.name());
+            }
+            for (String name : new ArrayList<>(tables.keySet())) {
+                if (!names.contains(name)) {
+                    remove(name);
+                }
+            }
+            unlisted.clear();
+            if (tokens != null) {
+                tokens.forEach((name, token) -> {
+                    if (!names.contains(name)) {
+                        unlisted.put(name, token);
+                    }
+                });
+            }
+            loadedAt = System.nanoTime();
+            checkedAt = loadedAt;
+        }
+
+        TableMetadata find(String name) {
+            if (name == null) {
+                return null;
+            }
+            TableMetadata table = tables.get(name);
+            if (table == null) {
+                String actual = lowerCaseNames.get(name.toLowerCase());
+                table = actual != null ? tables.get(actual) : null;
+            }
+            return table;
+        }
+
+        List<TableMetadata> sortedTables() {
+            return tables.values().stream().sorted(Comparator.comparing(TableMetadata::name)).toList();
+        }
+
+        synchronized void put(TableMetadata table) {
+            tables.put(table.name(), table);
+            lowerCaseNames.put(table.name().toLowerCase(), table.name());
+            SchemaSearchIndex index = searchIndex;
+            if (index != null) {
+                index.index(table);
+            }
+        }
+
+        synchronized void replace(TableMetadata previous, TableMetadata table) {
+            SchemaSearchIndex index = searchIndex;
+            if (tables.replace(table.name(), previous, table) && index != null) {
+                index.index(table);
+            }
+        }
+
+        synchronized void remove(String name) {
+            tables.remove(name);
+            lowerCaseNames.remove(name.toLowerCase(), name);
+            SchemaSearchIndex index = searchIndex;
+            if (index != null) {
+                index.remove(name);
+            }
+        }
+
+        /**
+         * 为当前所有表建立搜索索引，之后表的增删改同步更新索引；
+         * 表和索引的修改在快照上互斥，保证索引中的文档与表的最新版本一致
+         */
+        synchronized SchemaSearchIndex buildSearchIndex() {
+            SchemaSearchIndex index = new SchemaSearchIndex();
+            searchIndex = index;
+            tables.values().forEach(index::index);
+            return index;
+        }
+    }
+
+    private static final class Counter {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder detailLoads = new LongAdder();
+    }
+
+    /**
+     * 单个缓存范围的统计
+     */
+    @Data
+    public static class ScopeStats {
+        private String catalog;
+        private String schema;
+        private int tables;
+        private int detailedTables;
+        /**
+         * 是否支持按变更标记增量刷新，不支持时按max-age整体重新加载
+         */
+        private boolean incremental;
+        private long ageMillis;
+        private long lastRefreshMillisAgo;
+        private long changedTables;
+        /**
+         * 搜索索引中的表和列数量，尚未搜索过时为0
+         */
+        private int indexedDocuments;
+        private long hits;
+        private long misses;
+        private long detailLoads;
+    }
+}
@@ -0,0 +1,97 @@
+package cn.ansteel.sc.db_mcp_server.service;
+
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 预编译语句复用统计
+ * <p>
+ * 驱动的语句缓存没有统一的统计接口，这里按配置记录最近执行过的SQL文本（容量与驱动语句缓存一致），
+ * 再次执行同一文本时视为复用，用于估算驱动语句缓存和数据库执行计划的命中情况
+ */
+@Service
+@RequiredArgsConstructor
+public class StatementReuseTracker {
+
+    private final DbMcpProperties properties;
+    private final ConcurrentMap<String, ProfileTracker> trackers = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次语句执行
+     *
+     * @param prepared 是否以PreparedStatement执行
+     */
+    public void record(String profile, String sql, boolean prepared) {
+        ProfileTracker tracker = trackers.computeIfAbsent(profile, k -> new ProfileTracker());
+        if (!prepared) {
+            tracker.plainExecutions.increment();
+            return;
+        }
+        int capacity = Math.max(1, properties.getStatementCache().getSize());
+        boolean reused;
+        synchronized (tracker) {
+            reused = tracker.shapes.get(sql) != null;
+            if (!reused) {
+                tracker.shapes.put(sql, Boolean.TRUE);
+                if (tracker.shapes.size() > capacity) {
+                    tracker.shapes.remove(tracker.shapes.keySet().iterator().next());
+                }
+            }
+        }
+        tracker.preparedExecutions.increment();
+        if (reused) {
+            tracker.reusedExecutions.increment();
+        }
+    }
+
+    /**
+     * 获取各配置的语句复用统计
+     */
+    public Map<String, ReuseStats> getStats() {
+        Map<String, ReuseStats> stats = new TreeMap<>();
+        trackers.forEach((profile, tracker) -> {
+            ReuseStats item = new ReuseStats();
+            item.setPlainExecutions(tracker.plainExecutions.sum());
+            item.setPreparedExecutions(tracker.preparedExecutions.sum());
+            item.setReusedExecutions(tracker.reusedExecutions.sum());
+            item.setReuseRatio(item.getPreparedExecutions() == 0 ? 0
+                    : (double) item.getReusedExecutions() / item.getPreparedExecutions());
+            synchronized (tracker) {
+                item.setDistinctStatements(tracker.shapes.size());
+            }
+            stats.put(profile, item);
+        });
+        return stats;
+    }
+
+    private static final class ProfileTracker {
+        /**
+         * 按访问顺序排列的最近语句文本
+         */
+        private final LinkedHashMap<String, Boolean> shapes = new LinkedHashMap<>(16, 0.75f, true);
+        private final LongAdder plainExecutions = new LongAdder();
+        private final LongAdder preparedExecutions = new LongAdder();
+        private final LongAdder reusedExecutions = new LongAdder();
+    }
+
+    /**
+     * 单个配置的语句复用统计
+     */
+    @Data
+    public static class ReuseStats {
+        private long plainExecutions;
+        private long preparedExecutions;
+        private long reusedExecutions;
+        private double reuseRatio;
+        private int distinctStatements;
+    }
+}
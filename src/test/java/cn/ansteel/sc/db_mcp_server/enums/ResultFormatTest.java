@@ -0,0 +1,27 @@
+package cn.ansteel.sc.db_mcp_server.enums;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultFormatTest {
+
+    @Test
+    void blankCodeDefaultsToRows() {
+        assertEquals(ResultFormat.ROWS, ResultFormat.fromCode(null));
+        assertEquals(ResultFormat.ROWS, ResultFormat.fromCode(" "));
+    }
+
+    @Test
+    void codeIsCaseInsensitiveAndTrimmed() {
+        assertEquals(ResultFormat.CSV, ResultFormat.fromCode("CSV"));
+        assertEquals(ResultFormat.TSV, ResultFormat.fromCode(" tsv "));
+        assertEquals(ResultFormat.COLUMNAR, ResultFormat.fromCode("columnar"));
+    }
+
+    @Test
+    void unknownCodeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ResultFormat.fromCode("xml"));
+    }
+}
@@ -0,0 +1,72 @@
+package cn.ansteel.sc.db_mcp_server.factory;
+
+import cn.ansteel.sc.db_mcp_server.config.DatabaseConfigProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class DataSourceFactoryTest {
+
+    @Test
+    void fingerprintIgnoresSettingsThatDoNotRebuildThePool() {
+        DatabaseConfigProperties.ConnectionConfig changed = config();
+        DatabaseConfigProperties.ReplicaConfig replica = new DatabaseConfigProperties.ReplicaConfig();
+        replica.setUrl("jdbc:mysql://replica:3306/app");
+        changed.setReplicas(List.of(replica));
+        changed.setResultCacheTtlSeconds(300);
+        changed.setQueryTimeoutSeconds(30);
+        changed.setMaxReplicationLagSeconds(10);
+        changed.getPool().setMaxConcurrentQueries(4);
+        changed.getPool().setAdaptive(true);
+        changed.getPool().setAdaptiveFloor(2);
+        changed.getPool().setAdaptiveCeiling(40);
+
+        assertEquals(DataSourceFactory.fingerprint(config()), DataSourceFactory.fingerprint(changed));
+    }
+
+    @Test
+    void fingerprintChangesWithConnectionSettings() {
+        String original = DataSourceFactory.fingerprint(config());
+
+        DatabaseConfigProperties.ConnectionConfig url = config();
+        url.setUrl("jdbc:mysql://other:3306/app");
+        assertNotEquals(original, DataSourceFactory.fingerprint(url));
+
+        DatabaseConfigProperties.ConnectionConfig password = config();
+        password.setPassword("changed");
+        assertNotEquals(original, DataSourceFactory.fingerprint(password));
+    }
+
+    @Test
+    void fingerprintChangesWithPoolSettings() {
+        String original = DataSourceFactory.fingerprint(config());
+
+        DatabaseConfigProperties.ConnectionConfig size = config();
+        size.getPool().setMaximumPoolSize(20);
+        assertNotEquals(original, DataSourceFactory.fingerprint(size));
+
+        DatabaseConfigProperties.ConnectionConfig lifetime = config();
+        lifetime.getPool().setMaxLifetime(600000);
+        assertNotEquals(original, DataSourceFactory.fingerprint(lifetime));
+
+        DatabaseConfigProperties.ConnectionConfig noPool = config();
+        noPool.setPool(null);
+        assertNotEquals(original, DataSourceFactory.fingerprint(noPool));
+    }
+
+    private static DatabaseConfigProperties.ConnectionConfig config() {
+        DatabaseConfigProperties.PoolConfig pool = new DatabaseConfigProperties.PoolConfig();
+        pool.setMaximumPoolSize(10);
+        pool.setMinimumIdle(2);
+        DatabaseConfigProperties.ConnectionConfig config = new DatabaseConfigProperties.ConnectionConfig();
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        config.setUrl("jdbc:mysql://primary:3306/app");
+        config.setUsername("app");
+        config.setPassword("secret");
+        config.setPool(pool);
+        return config;
+    }
+}
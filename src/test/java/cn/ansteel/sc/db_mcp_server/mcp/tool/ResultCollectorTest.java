@@ -0,0 +1,78 @@
+package cn.ansteel.sc.db_mcp_server.mcp.tool;
+
+import cn.ansteel.sc.db_mcp_server.enums.ResultFormat;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResultCollectorTest {
+
+    @Test
+    void csvQuotesFieldsWithSeparatorsQuotesAndLineBreaks() {
+        SqlExecution.Response response = collect(ResultFormat.CSV, List.of("id", "note"),
+                new Object[]{1, "a,b"},
+                new Object[]{2, "say \"hi\""},
+                new Object[]{3, "line1\nline2"},
+                new Object[]{4, null});
+        assertEquals("id,note\n1,\"a,b\"\n2,\"say \"\"hi\"\"\"\n3,\"line1\nline2\"\n4,\n", response.getText());
+        assertEquals("csv", response.getFormat());
+        assertEquals(4, response.getRowCount());
+    }
+
+    @Test
+    void tsvEscapesTabsLineBreaksAndBackslashes() {
+        SqlExecution.Response response = collect(ResultFormat.TSV, List.of("id", "note"),
+                new Object[]{1, "a\tb"},
+                new Object[]{2, "x\r\ny"},
+                new Object[]{3, "c:\\temp"});
+        assertEquals("id\tnote\n1\ta\\tb\n2\tx\\r\\ny\n3\tc:\\\\temp\n", response.getText());
+    }
+
+    @Test
+    void columnarEncodesLowCardinalityStringColumns() {
+        SqlExecution.Response response = collect(ResultFormat.COLUMNAR, List.of("id", "status"),
+                new Object[]{1, "open"},
+                new Object[]{2, "closed"},
+                new Object[]{3, "open"},
+                new Object[]{4, null});
+        SqlExecution.ColumnarData data = response.getColumnar();
+        assertEquals(List.of(1, 2, 3, 4), data.getValues().get(0));
+        assertEquals(Arrays.asList(0, 1, 0, null), data.getValues().get(1));
+        assertNull(data.getDictionaries().get(0));
+        assertEquals(List.of("open", "closed"), data.getDictionaries().get(1));
+    }
+
+    @Test
+    void columnarSkipsDictionaryForDistinctValues() {
+        SqlExecution.Response response = collect(ResultFormat.COLUMNAR, List.of("name"),
+                new Object[]{"a"},
+                new Object[]{"b"},
+                new Object[]{"c"});
+        assertEquals(List.of("a", "b", "c"), response.getColumnar().getValues().get(0));
+        assertNull(response.getColumnar().getDictionaries());
+    }
+
+    @Test
+    void stopsAtMaxRows() {
+        ResultCollector collector = new ResultCollector(ResultFormat.ROWS, 2);
+        collector.onColumns(List.of("id"));
+        collector.onRow(new Object[]{1});
+        assertFalse(collector.onRow(new Object[]{2}));
+    }
+
+    private static SqlExecution.Response collect(ResultFormat format, List<String> columns, Object[]... rows) {
+        ResultCollector collector = new ResultCollector(format, 100);
+        collector.onColumns(columns);
+        for (Object[] row : rows) {
+            collector.onRow(row);
+        }
+        SqlExecution.Response response = SqlExecution.Response.success("SELECT 1", columns, null, rows.length);
+        collector.applyTo(response);
+        return response;
+    }
+}
@@ -0,0 +1,70 @@
+package cn.ansteel.sc.db_mcp_server.mcp.tool;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlExecutionResponseTest {
+
+    @Test
+    void snapshotIsDetachedFromCallerResponse() {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", 1);
+        row.put("note", null);
+        List<Map<String, Object>> rows = new ArrayList<>(List.of(row));
+        SqlExecution.Response response = SqlExecution.Response.success("select 1", new ArrayList<>(List.of("id", "note")), rows, 1);
+
+        SqlExecution.Response snapshot = response.snapshot();
+        row.put("id", 2);
+        rows.clear();
+        response.getColumns().add("extra");
+
+        assertEquals(List.of("id", "note"), snapshot.getColumns());
+        assertEquals(1, snapshot.getRows().size());
+        assertEquals(1, snapshot.getRows().get(0).get("id"));
+        assertNull(snapshot.getRows().get(0).get("note"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getRows().get(0).put("id", 3));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getRows().clear());
+    }
+
+    @Test
+    void snapshotFreezesColumnarValues() {
+        SqlExecution.ColumnarData data = new SqlExecution.ColumnarData();
+        data.setValues(new ArrayList<>(List.of(new ArrayList<>(Arrays.asList(1, null)))));
+        SqlExecution.Response response = SqlExecution.Response.success("select 1", List.of("id"), null, 2);
+        response.setColumnar(data);
+
+        SqlExecution.Response snapshot = response.snapshot();
+        data.getValues().get(0).set(0, 9);
+
+        assertEquals(Arrays.asList(1, null), snapshot.getColumnar().getValues().get(0));
+        assertNull(snapshot.getColumnar().getDictionaries());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getColumnar().getValues().get(0).set(0, 9));
+    }
+
+    @Test
+    void cacheHitCopyDoesNotChangeCachedSnapshot() {
+        SqlExecution.Response cached = SqlExecution.Response.success("select 1", List.of("id"), List.of(Map.of("id", 1)), 1).snapshot();
+
+        SqlExecution.Response hit = cached.copyAsCacheHit();
+        hit.setMessage("changed");
+        hit.setRows(List.of());
+
+        assertNotSame(cached, hit);
+        assertTrue(hit.isCacheHit());
+        assertFalse(cached.isCacheHit());
+        assertEquals("查询执行成功", cached.getMessage());
+        assertEquals(1, cached.getRows().size());
+    }
+}
@@ -0,0 +1,97 @@
+package cn.ansteel.sc.db_mcp_server.metadata;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchemaSearchIndexTest {
+
+    @Test
+    void tokenizeSplitsSnakeCaseAndAddsJoinedForm() {
+        assertEquals(List.of("order", "item", "orderitem"), SchemaSearchIndex.tokenize("ORDER_ITEM"));
+    }
+
+    @Test
+    void tokenizeSplitsCamelCaseAcronymsAndDigits() {
+        assertEquals(List.of("user", "id", "userid"), SchemaSearchIndex.tokenize("userID"));
+        assertEquals(List.of("http", "server", "2", "httpserver2"), SchemaSearchIndex.tokenize("HTTPServer2"));
+    }
+
+    @Test
+    void tokenizeCjkIntoUnigramsAndBigrams() {
+        assertEquals(List.of("订", "订单", "单", "单金", "金", "金额", "额"), SchemaSearchIndex.tokenize("订单金额"));
+    }
+
+    @Test
+    void tokenizeBlankText() {
+        assertTrue(SchemaSearchIndex.tokenize(null).isEmpty());
+        assertTrue(SchemaSearchIndex.tokenize("  ").isEmpty());
+    }
+
+    @Test
+    void searchRanksColumnOfMatchingTable() {
+        SchemaSearchIndex index = sampleIndex();
+        List<SchemaSearchIndex.SearchHit> hits = index.search("customer name", 5);
+        assertEquals("customers", hits.get(0).tableName());
+        assertEquals("customer_name", hits.get(0).columnName());
+        assertEquals(SchemaSearchIndex.TYPE_COLUMN, hits.get(0).type());
+    }
+
+    @Test
+    void searchMatchesRemarks() {
+        List<SchemaSearchIndex.SearchHit> hits = sampleIndex().search("金额", 5);
+        assertEquals("total_amount", hits.get(0).columnName());
+    }
+
+    @Test
+    void searchFallsBackToFuzzyMatch() {
+        List<SchemaSearchIndex.SearchHit> hits = sampleIndex().search("custmer", 5);
+        assertFalse(hits.isEmpty());
+        assertTrue(hits.stream().allMatch(hit -> hit.tableName().equals("customers")));
+    }
+
+    @Test
+    void searchHonorsLimitAndBlankQuery() {
+        SchemaSearchIndex index = sampleIndex();
+        assertEquals(1, index.search("order", 1).size());
+        assertTrue(index.search(" ", 5).isEmpty());
+        assertTrue(index.search("order", 0).isEmpty());
+    }
+
+    @Test
+    void reindexAndRemoveReplaceDocuments() {
+        SchemaSearchIndex index = sampleIndex();
+        assertEquals(5, index.documentCount());
+
+        index.index(new TableMetadata(null, null, "orders", "TABLE", "订单表", null, null));
+        assertEquals(3, index.documentCount());
+        assertTrue(index.search("amount", 5).isEmpty());
+
+        index.remove("customers");
+        assertEquals(1, index.documentCount());
+        assertTrue(index.search("customer", 5).isEmpty());
+    }
+
+    private static SchemaSearchIndex sampleIndex() {
+        SchemaSearchIndex index = new SchemaSearchIndex();
+        index.index(table("orders", "订单表",
+                column("order_id", "订单编号"),
+                column("total_amount", "订单金额")));
+        index.index(table("customers", "客户",
+                column("customer_name", "客户名称")));
+        return index;
+    }
+
+    private static TableMetadata table(String name, String remarks, ColumnMetadata... columns) {
+        TableDetails details = new TableDetails(List.of(columns), List.of(), List.of(), List.of(), List.of());
+        return new TableMetadata(null, null, name, "TABLE", remarks, null, details);
+    }
+
+    private static ColumnMetadata column(String name, String remarks) {
+        return new ColumnMetadata(name, "VARCHAR", 64, true, null, remarks);
+    }
+}
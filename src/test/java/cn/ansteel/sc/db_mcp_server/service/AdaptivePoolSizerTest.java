@@ -0,0 +1,51 @@
+package cn.ansteel.sc.db_mcp_server.service;
+
+import cn.ansteel.sc.db_mcp_server.config.DatabaseConfigProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdaptivePoolSizerTest {
+
+    @Test
+    void ceilingFallsBackToMaximumPoolSizeThenHikariDefault() {
+        assertEquals(40, AdaptivePoolSizer.ceilingOf(pool(0, 40, 20)));
+        assertEquals(20, AdaptivePoolSizer.ceilingOf(pool(0, 0, 20)));
+        assertEquals(10, AdaptivePoolSizer.ceilingOf(pool(0, 0, 0)));
+    }
+
+    @Test
+    void ceilingIsNeverBelowFloor() {
+        assertEquals(1, AdaptivePoolSizer.floorOf(pool(0, 0, 0)));
+        assertEquals(16, AdaptivePoolSizer.ceilingOf(pool(16, 8, 0)));
+    }
+
+    @Test
+    void growsByQuarterUnderPressureUpToCeiling() {
+        assertEquals(10, AdaptivePoolSizer.nextSize(8, 2, 20, true, false));
+        assertEquals(20, AdaptivePoolSizer.nextSize(18, 2, 20, true, false));
+        assertEquals(3, AdaptivePoolSizer.nextSize(2, 2, 20, true, false));
+    }
+
+    @Test
+    void shrinksByQuarterWhenQuietDownToFloor() {
+        assertEquals(15, AdaptivePoolSizer.nextSize(20, 2, 20, false, true));
+        assertEquals(2, AdaptivePoolSizer.nextSize(2, 2, 20, false, true));
+    }
+
+    @Test
+    void keepsSizeWithoutSignalButConvergesIntoBounds() {
+        assertEquals(12, AdaptivePoolSizer.nextSize(12, 2, 20, false, false));
+        assertEquals(20, AdaptivePoolSizer.nextSize(30, 2, 20, false, false));
+        assertEquals(4, AdaptivePoolSizer.nextSize(1, 4, 20, false, false));
+    }
+
+    private static DatabaseConfigProperties.PoolConfig pool(int floor, int ceiling, int maximumPoolSize) {
+        DatabaseConfigProperties.PoolConfig pool = new DatabaseConfigProperties.PoolConfig();
+        pool.setAdaptive(true);
+        pool.setAdaptiveFloor(floor);
+        pool.setAdaptiveCeiling(ceiling);
+        pool.setMaximumPoolSize(maximumPoolSize);
+        return pool;
+    }
+}
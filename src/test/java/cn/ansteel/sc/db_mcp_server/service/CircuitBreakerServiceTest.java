@@ -0,0 +1,62 @@
+package cn.ansteel.sc.db_mcp_server.service;
+
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerServiceTest {
+
+    @Test
+    void connectionExceptionTypesAreConnectionFailures() {
+        assertTrue(CircuitBreakerService.isConnectionFailure(new SQLTransientConnectionException("pool timeout")));
+        assertTrue(CircuitBreakerService.isConnectionFailure(new SQLNonTransientConnectionException("refused")));
+        assertTrue(CircuitBreakerService.isConnectionFailure(new SQLRecoverableException("io error")));
+    }
+
+    @Test
+    void sqlStateClass08IsConnectionFailure() {
+        assertTrue(CircuitBreakerService.isConnectionFailure(new SQLException("link failure", "08S01")));
+    }
+
+    @Test
+    void wrappedConnectionFailureIsDetected() {
+        RuntimeException wrapped = new RuntimeException("query failed",
+                new IllegalStateException(new SQLException("closed", "08003")));
+        assertTrue(CircuitBreakerService.isConnectionFailure(wrapped));
+    }
+
+    @Test
+    void queryErrorsAreNotConnectionFailures() {
+        assertFalse(CircuitBreakerService.isConnectionFailure(new SQLSyntaxErrorException("bad sql", "42000")));
+        assertFalse(CircuitBreakerService.isConnectionFailure(new SQLException("no state")));
+        assertFalse(CircuitBreakerService.isConnectionFailure(new IllegalArgumentException("bad argument")));
+        assertFalse(CircuitBreakerService.isConnectionFailure(null));
+    }
+
+    @Test
+    void isClosedUntilFailureThresholdIsReached() {
+        DbMcpProperties properties = new DbMcpProperties();
+        properties.getCircuitBreaker().setFailureThreshold(2);
+        CircuitBreakerService service = new CircuitBreakerService(null, null, properties);
+        SQLException failure = new SQLTransientConnectionException("pool timeout");
+
+        assertTrue(service.isClosed("p"));
+        service.onFailure("p", failure);
+        assertTrue(service.isClosed("p"));
+        service.onFailure("p", failure);
+        assertFalse(service.isClosed("p"));
+        assertTrue(service.isClosed("other"));
+
+        properties.getCircuitBreaker().setEnabled(false);
+        assertTrue(service.isClosed("p"));
+        service.destroy();
+    }
+}
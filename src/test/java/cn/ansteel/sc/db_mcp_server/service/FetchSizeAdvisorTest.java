@@ -0,0 +1,82 @@
+package cn.ansteel.sc.db_mcp_server.service;
+
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import cn.ansteel.sc.db_mcp_server.enums.DatabaseType;
+import cn.ansteel.sc.db_mcp_server.factory.DatabaseServerInfo;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FetchSizeAdvisorTest {
+
+    private final FetchSizeAdvisor advisor = new FetchSizeAdvisor(new DbMcpProperties());
+
+    @Test
+    void fetchSizeFollowsTargetBytesAndLimits() {
+        DatabaseServerInfo oracle = server(DatabaseType.ORACLE, false);
+        assertEquals(4096, advisor.plan("p", oracle, null, 0, true).getFetchSize());
+        assertEquals(100, advisor.plan("p", oracle, 100, 0, true).getFetchSize());
+        assertEquals(1000, advisor.plan("p", oracle, null, 1000, true).getFetchSize());
+    }
+
+    @Test
+    void observedRowWidthAdjustsFetchSizeWithinBounds() {
+        DatabaseServerInfo oracle = server(DatabaseType.ORACLE, false);
+        advisor.recordRowWidth("wide", 10000);
+        assertEquals(104, advisor.plan("wide", oracle, null, 0, true).getFetchSize());
+
+        advisor.recordRowWidth("huge", 10_000_000);
+        assertEquals(50, advisor.plan("huge", oracle, null, 0, true).getFetchSize());
+
+        advisor.recordRowWidth("narrow", 1);
+        assertEquals(10000, advisor.plan("narrow", oracle, null, 0, true).getFetchSize());
+    }
+
+    @Test
+    void mysqlWithoutServerCursorsStreamsOrBuffers() {
+        DatabaseServerInfo mysql = server(DatabaseType.MYSQL, false);
+
+        FetchSizeAdvisor.FetchPlan held = advisor.plan("p", mysql, null, 1000, true);
+        assertEquals("streaming", held.getMode());
+        assertEquals(Integer.MIN_VALUE, held.getFetchSize());
+        assertEquals(0, held.getMaxRows());
+
+        FetchSizeAdvisor.FetchPlan capped = advisor.plan("p", mysql, null, 1000, false);
+        assertEquals("buffered", capped.getMode());
+        assertEquals(0, capped.getFetchSize());
+        assertEquals(1000, capped.getMaxRows());
+
+        assertEquals("streaming", advisor.plan("p", mysql, null, 0, false).getMode());
+    }
+
+    @Test
+    void dialectModes() {
+        assertEquals("cursor", advisor.plan("p", server(DatabaseType.MYSQL, true), null, 1000, true).getMode());
+
+        FetchSizeAdvisor.FetchPlan postgres = advisor.plan("p", server(DatabaseType.POSTGRESQL, true), null, 1000, true);
+        assertEquals("cursor", postgres.getMode());
+        assertTrue(postgres.isRequiresTransaction());
+
+        FetchSizeAdvisor.FetchPlan oracle = advisor.plan("p", server(DatabaseType.ORACLE, false), null, 1000, false);
+        assertEquals("prefetch", oracle.getMode());
+        assertEquals(1000, oracle.getMaxRows());
+        assertFalse(oracle.isRequiresTransaction());
+
+        assertEquals("adaptive", advisor.plan("p", server(DatabaseType.SQLSERVER, false), null, 1000, true).getMode());
+        assertEquals("default", advisor.plan("p", null, null, 1000, true).getMode());
+    }
+
+    @Test
+    void estimateWidthCountsTextBytesAndFixedWidthValues() {
+        assertEquals(16, FetchSizeAdvisor.estimateWidth(new Object[]{null, "abc", new byte[4], 5L}));
+    }
+
+    private static DatabaseServerInfo server(DatabaseType type, boolean serverCursors) {
+        DatabaseServerInfo info = new DatabaseServerInfo();
+        info.setDatabaseType(type);
+        info.setSupportsServerCursors(serverCursors);
+        return info;
+    }
+}
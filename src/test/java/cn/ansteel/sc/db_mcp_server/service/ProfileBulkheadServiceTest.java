@@ -0,0 +1,97 @@
+package cn.ansteel.sc.db_mcp_server.service;
+
+import cn.ansteel.sc.db_mcp_server.config.DatabaseConfigProperties;
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import cn.ansteel.sc.db_mcp_server.constant.McpConstants;
+import cn.ansteel.sc.db_mcp_server.exception.QueryRejectedException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProfileBulkheadServiceTest {
+
+    @Test
+    void limitFollowsProfileThenGlobalThenPoolSize() throws InterruptedException {
+        DbMcpProperties properties = new DbMcpProperties();
+        ProfileBulkheadService service = new ProfileBulkheadService(properties);
+
+        assertEquals(3, limitOf(service, "profile", config(pool(20, 0, false, 3))));
+        assertEquals(20, limitOf(service, "pool", config(pool(20, 0, false, 0))));
+        assertEquals(40, limitOf(service, "adaptive", config(pool(20, 40, true, 0))));
+        assertEquals(10, limitOf(service, "default", config(null)));
+
+        properties.getBulkhead().setMaxConcurrent(5);
+        assertEquals(5, limitOf(service, "global", config(pool(20, 0, false, 0))));
+        assertEquals(3, limitOf(service, "profile", config(pool(20, 0, false, 3))));
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws InterruptedException {
+        DbMcpProperties properties = new DbMcpProperties();
+        properties.getBulkhead().setMaxQueue(0);
+        ProfileBulkheadService service = new ProfileBulkheadService(properties);
+        DatabaseConfigProperties.ConnectionConfig config = config(pool(10, 0, false, 1));
+
+        ProfileBulkheadService.Permit permit = service.admit("p", config);
+        QueryRejectedException rejected = assertThrows(QueryRejectedException.class, () -> service.admit("p", config));
+        assertEquals(McpConstants.ErrorCodes.BULKHEAD_FULL, rejected.getErrorCode());
+        assertEquals(1, service.getStats().get("p").getRejectedQueueFull());
+
+        permit.release();
+        service.admit("p", config).release();
+        assertEquals(2, service.getStats().get("p").getAdmitted());
+    }
+
+    @Test
+    void rejectsWhenQueueWaitTimesOut() throws InterruptedException {
+        DbMcpProperties properties = new DbMcpProperties();
+        properties.getBulkhead().setMaxQueue(1);
+        properties.getBulkhead().setMaxWait(50);
+        ProfileBulkheadService service = new ProfileBulkheadService(properties);
+        DatabaseConfigProperties.ConnectionConfig config = config(pool(10, 0, false, 1));
+
+        service.admit("p", config);
+        assertThrows(QueryRejectedException.class, () -> service.admit("p", config));
+        assertEquals(1, service.getStats().get("p").getRejectedTimeout());
+        assertEquals(0, service.getStats().get("p").getWaiting());
+    }
+
+    @Test
+    void releaseIsIdempotent() throws InterruptedException {
+        DbMcpProperties properties = new DbMcpProperties();
+        properties.getBulkhead().setMaxQueue(0);
+        ProfileBulkheadService service = new ProfileBulkheadService(properties);
+        DatabaseConfigProperties.ConnectionConfig config = config(pool(10, 0, false, 1));
+
+        ProfileBulkheadService.Permit permit = service.admit("p", config);
+        permit.release();
+        permit.release();
+        assertEquals(0, service.getStats().get("p").getInFlight());
+
+        service.admit("p", config);
+        assertThrows(QueryRejectedException.class, () -> service.admit("p", config));
+    }
+
+    private static int limitOf(ProfileBulkheadService service, String profile,
+                               DatabaseConfigProperties.ConnectionConfig config) throws InterruptedException {
+        service.admit(profile, config).release();
+        return service.getStats().get(profile).getLimit();
+    }
+
+    private static DatabaseConfigProperties.ConnectionConfig config(DatabaseConfigProperties.PoolConfig pool) {
+        DatabaseConfigProperties.ConnectionConfig config = new DatabaseConfigProperties.ConnectionConfig();
+        config.setPool(pool);
+        return config;
+    }
+
+    private static DatabaseConfigProperties.PoolConfig pool(int maximumPoolSize, int adaptiveCeiling, boolean adaptive,
+                                                            int maxConcurrentQueries) {
+        DatabaseConfigProperties.PoolConfig pool = new DatabaseConfigProperties.PoolConfig();
+        pool.setMaximumPoolSize(maximumPoolSize);
+        pool.setAdaptiveCeiling(adaptiveCeiling);
+        pool.setAdaptive(adaptive);
+        pool.setMaxConcurrentQueries(maxConcurrentQueries);
+        return pool;
+    }
+}
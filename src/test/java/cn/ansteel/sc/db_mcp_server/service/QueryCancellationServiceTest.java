@@ -0,0 +1,134 @@
+package cn.ansteel.sc.db_mcp_server.service;
+
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import cn.ansteel.sc.db_mcp_server.enums.DatabaseType;
+import cn.ansteel.sc.db_mcp_server.factory.DatabaseServerInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class QueryCancellationServiceTest {
+
+    private final DbMcpProperties properties = new DbMcpProperties();
+    private final QueryCancellationService service = new QueryCancellationService(properties, null);
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void timeoutPrefersRequestThenProfileThenDefault() {
+        properties.getQueryTimeout().setDefaultTimeout(300000);
+
+        assertEquals(1500, service.resolveTimeout(1500, 10));
+        assertEquals(10000, service.resolveTimeout(null, 10));
+        assertEquals(10000, service.resolveTimeout(0, 10));
+        assertEquals(300000, service.resolveTimeout(null, 0));
+
+        properties.getQueryTimeout().setDefaultTimeout(0);
+        assertEquals(0, service.resolveTimeout(null, 0));
+    }
+
+    @Test
+    void timeoutIsCappedByMaximum() {
+        properties.getQueryTimeout().setDefaultTimeout(0);
+        properties.getQueryTimeout().setMaxTimeout(60000);
+
+        assertEquals(60000, service.resolveTimeout(120000, 0));
+        assertEquals(30000, service.resolveTimeout(null, 30));
+        // 不限制的情况同样受上限约束
+        assertEquals(60000, service.resolveTimeout(null, 0));
+    }
+
+    @Test
+    void failedSessionLookupDisablesLookupForPool() {
+        AtomicInteger lookups = new AtomicInteger();
+        DatabaseServerInfo oracle = serverInfo(DatabaseType.ORACLE);
+
+        assertNull(service.sessionId("oracle", connection(lookups, null), oracle));
+        assertNull(service.sessionId("oracle", connection(lookups, null), oracle));
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    void sessionIdIsCachedPerPhysicalConnection() {
+        AtomicInteger lookups = new AtomicInteger();
+        Connection connection = connection(lookups, "42");
+        DatabaseServerInfo mysql = serverInfo(DatabaseType.MYSQL);
+
+        assertEquals("42", service.sessionId("mysql", connection, mysql));
+        assertEquals("42", service.sessionId("mysql", connection, mysql));
+        assertEquals(1, lookups.get());
+
+        Connection invalid = connection(lookups, "not-a-number");
+        assertNull(service.sessionId("mysql", invalid, mysql));
+        assertNull(service.sessionId("mysql", invalid, mysql));
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void sqlServerSessionsAreNeverLookedUp() {
+        AtomicInteger lookups = new AtomicInteger();
+
+        assertNull(service.sessionId("mssql", connection(lookups, "55"), serverInfo(DatabaseType.SQLSERVER)));
+        assertEquals(0, lookups.get());
+    }
+
+    private static DatabaseServerInfo serverInfo(DatabaseType type) {
+        DatabaseServerInfo info = new DatabaseServerInfo();
+        info.setDatabaseType(type);
+        return info;
+    }
+
+    /**
+     * 只实现会话标识查询的连接，sessionId为null时查询抛出异常
+     */
+    private static Connection connection(AtomicInteger lookups, String sessionId) {
+        ResultSet resultSet = proxy(ResultSet.class, (method, args) -> switch (method) {
+            case "next" -> true;
+            case "getString" -> sessionId;
+            default -> null;
+        });
+        Statement statement = proxy(Statement.class, (method, args) -> {
+            if (method.equals("executeQuery")) {
+                lookups.incrementAndGet();
+                if (sessionId == null) {
+                    throw new SQLException("ORA-00942: table or view does not exist");
+                }
+                return resultSet;
+            }
+            return null;
+        });
+        Connection[] self = new Connection[1];
+        self[0] = proxy(Connection.class, (method, args) -> switch (method) {
+            case "unwrap" -> self[0];
+            case "createStatement" -> statement;
+            default -> null;
+        });
+        return self[0];
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args) throws SQLException;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> switch (method.getName()) {
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> type.getSimpleName();
+            default -> handler.invoke(method.getName(), args);
+        });
+    }
+}
@@ -0,0 +1,88 @@
+package cn.ansteel.sc.db_mcp_server.service;
+
+import cn.ansteel.sc.db_mcp_server.config.DbMcpProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class QueryResultCacheTest {
+
+    private static final String SQL_A = "select 'a'";
+    private static final String SQL_B = "select 'b'";
+    private static final String SQL_C = "select 'c'";
+    private static final String SQL_D = "select 'd'";
+    private static final String SQL_E = "select 'e'";
+
+    @Test
+    void normalizeCollapsesWhitespaceOutsideQuotes() {
+        assertEquals("SELECT * FROM t WHERE a = 1",
+                QueryResultCache.normalize("  SELECT *\n  FROM t\tWHERE a =   1 ;"));
+        assertEquals("select 'a  b' from \"T  1\" where c = `x  y`",
+                QueryResultCache.normalize("select 'a  b'\nfrom \"T  1\"   where c = `x  y`;"));
+        assertEquals("select 1", QueryResultCache.normalize("select 1"));
+    }
+
+    @Test
+    void lookupIgnoresWhitespaceDifferences() {
+        QueryResultCache cache = cache(1000);
+        cache.put("p", "select   1\n;", List.of(), null, "rows", "value", 60);
+
+        assertEquals("value", cache.get("p", " select 1 ", List.of(), null, "rows"));
+        assertNull(cache.get("p", "SELECT 1", List.of(), null, "rows"));
+        assertNull(cache.get("p", "select 1", List.of(), 10, "rows"));
+        assertNull(cache.get("other", "select 1", List.of(), null, "rows"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenOverByteLimit() {
+        // 每条42字节：30个字符的JSON字符串加SQL长度，200字节最多放下4条
+        QueryResultCache cache = cache(200);
+        String value = "x".repeat(30);
+        for (String sql : List.of(SQL_A, SQL_B, SQL_C, SQL_D)) {
+            cache.put("p", sql, List.of(), null, "rows", value, 60);
+        }
+        cache.get("p", SQL_A, List.of(), null, "rows");
+        cache.put("p", SQL_E, List.of(), null, "rows", value, 60);
+
+        assertEquals(value, cache.get("p", SQL_A, List.of(), null, "rows"));
+        assertNull(cache.get("p", SQL_B, List.of(), null, "rows"));
+        assertEquals(value, cache.get("p", SQL_E, List.of(), null, "rows"));
+        QueryResultCache.CacheStats stats = cache.getStats();
+        assertEquals(4, stats.getEntries());
+        assertEquals(1, stats.getEvictions());
+        assertEquals(168, stats.getBytes());
+    }
+
+    @Test
+    void skipsResultsLargerThanQuarterOfLimit() {
+        QueryResultCache cache = cache(200);
+        cache.put("p", SQL_A, List.of(), null, "rows", "x".repeat(60), 60);
+
+        assertNull(cache.get("p", SQL_A, List.of(), null, "rows"));
+        assertEquals(0, cache.getStats().getEntries());
+    }
+
+    @Test
+    void invalidateRemovesOnlyThatProfile() {
+        QueryResultCache cache = cache(1000);
+        cache.put("p", SQL_A, List.of(), null, "rows", "a", 60);
+        cache.put("q", SQL_A, List.of(), null, "rows", "a", 60);
+        cache.put("p", SQL_B, List.of(), null, "rows", "b", 0);
+
+        cache.invalidate("p");
+
+        assertNull(cache.get("p", SQL_A, List.of(), null, "rows"));
+        assertEquals("a", cache.get("q", SQL_A, List.of(), null, "rows"));
+        assertEquals(13, cache.getStats().getBytes());
+    }
+
+    private static QueryResultCache cache(long maxBytes) {
+        DbMcpProperties properties = new DbMcpProperties();
+        properties.getResultCache().setMaxBytes(maxBytes);
+        return new QueryResultCache(properties, new ObjectMapper());
+    }
+}
@@ -0,0 +1,53 @@
+package cn.ansteel.sc.db_mcp_server.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplicaRouterTest {
+
+    @Test
+    void parsesOracleIntervalSeconds() throws SQLException {
+        assertEquals(5, ReplicaRouter.parseOracleInterval("+00 00:00:05"));
+        assertEquals(5, ReplicaRouter.parseOracleInterval(" +00 00:00:05.250 "));
+    }
+
+    @Test
+    void parsesOracleIntervalDaysHoursAndMinutes() throws SQLException {
+        assertEquals(93784, ReplicaRouter.parseOracleInterval("+01 02:03:04.000000"));
+        assertEquals(3600, ReplicaRouter.parseOracleInterval("00 01:00:00"));
+    }
+
+    @Test
+    void rejectsUnrecognizedInterval() {
+        assertThrows(SQLException.class, () -> ReplicaRouter.parseOracleInterval("5 seconds"));
+    }
+
+    private static final long NOW = 100_000_000_000L;
+    private static final long STALE_AFTER = 15_000_000_000L;
+
+    @Test
+    void neverProbedReplicaIsNotEligible() {
+        assertFalse(ReplicaRouter.isEligible(true, 0, 0, 30, NOW, STALE_AFTER));
+        assertFalse(ReplicaRouter.isEligible(true, 0, 0, 0, NOW, STALE_AFTER));
+    }
+
+    @Test
+    void staleProbeIsNotEligible() {
+        assertFalse(ReplicaRouter.isEligible(true, NOW - STALE_AFTER - 1, 1, 30, NOW, STALE_AFTER));
+        assertTrue(ReplicaRouter.isEligible(true, NOW - STALE_AFTER, 1, 30, NOW, STALE_AFTER));
+    }
+
+    @Test
+    void lagLimitAndHealthAreEnforced() {
+        assertTrue(ReplicaRouter.isEligible(true, NOW - 1, 30, 30, NOW, STALE_AFTER));
+        assertFalse(ReplicaRouter.isEligible(true, NOW - 1, 31, 30, NOW, STALE_AFTER));
+        assertTrue(ReplicaRouter.isEligible(true, NOW - 1, 3600, 0, NOW, STALE_AFTER));
+        assertFalse(ReplicaRouter.isEligible(false, NOW - 1, 0, 30, NOW, STALE_AFTER));
+    }
+}